@@ -0,0 +1,103 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.CacheStatistics;
+import ch.PascalFritschi.StudentManagementSystem.dto.SecondLevelCacheStatistics;
+import jakarta.persistence.EntityManagerFactory;
+
+
+/**
+ * The `CacheStatisticsController` class is a REST controller exposing the hit/miss statistics of the entity caches
+ * and of the Hibernate second-level cache.
+ */
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CacheStatisticsController {
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    public CacheStatisticsController(CacheManager cacheManager, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+
+    /**
+     * Retrieves the statistics of every cache.
+     *
+     * @return A ResponseEntity containing one entry per cache.
+     */
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                statistics.add(new CacheStatistics(name, nativeCache.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+
+    /**
+     * Retrieves the statistics of the Hibernate second-level cache and of each of its regions.
+     * Counters are only collected with `hibernate.generate_statistics=true` (set by the `l2cache` profile).
+     *
+     * @return A ResponseEntity containing the overall and per-region statistics,
+     * or a NOT_FOUND status if Hibernate is not in use (`inmemory` profile).
+     */
+
+    @GetMapping("/hibernate")
+    public ResponseEntity<SecondLevelCacheStatistics> getSecondLevelCacheStatistics() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+
+        List<SecondLevelCacheStatistics.Region> regions = new ArrayList<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new SecondLevelCacheStatistics.Region(regionName, region.getHitCount(),
+                        region.getMissCount(), region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+
+        return ResponseEntity.ok(new SecondLevelCacheStatistics(statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), regions));
+    }
+}
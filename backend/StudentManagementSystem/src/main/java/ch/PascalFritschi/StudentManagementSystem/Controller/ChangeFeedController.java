@@ -0,0 +1,73 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeFeed;
+
+
+/**
+ * The `ChangeFeedController` class is a REST controller providing Server-Sent Events streams of committed changes,
+ * so clients can update their views instead of polling. Browsers reconnect automatically and send the
+ * `Last-Event-ID` header, from which missed events are replayed.
+ */
+
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ChangeFeedController {
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final ChangeFeed changeFeed;
+    private final ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    public ChangeFeedController(ChangeFeed changeFeed, ClassRoomRepository classRoomRepository) {
+        this.changeFeed = changeFeed;
+        this.classRoomRepository = classRoomRepository;
+    }
+
+
+    /**
+     * Subscribes to all student, enrollment and classroom changes.
+     *
+     * @param lastEventId The ID of the last event the client received, sent when it reconnects.
+     * @return The event stream.
+     */
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToAllChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return changeFeed.subscribe(null, lastEventId);
+    }
+
+
+    /**
+     * Subscribes to the changes of one classroom's roster: students added or removed, and updates of its students.
+     * The stream ends when the classroom is deleted.
+     *
+     * @param classroom_id The ID of the classroom.
+     * @param lastEventId  The ID of the last event the client received, sent when it reconnects.
+     * @return The event stream, or a NOT_FOUND status if the classroom does not exist.
+     */
+
+    @GetMapping(value = "/classroom/{classroom_id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToClassRoomChanges(
+            @PathVariable Long classroom_id,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        if (!classRoomRepository.existsById(classroom_id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(changeFeed.subscribe(classroom_id, lastEventId));
+    }
+}
@@ -1,21 +1,30 @@
 package ch.PascalFritschi.StudentManagementSystem.Controller;
 
+import ch.PascalFritschi.StudentManagementSystem.dto.BulkDeleteReport;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
 import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
-import ch.PascalFritschi.StudentManagementSystem.model.Student;
-import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
 import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
 import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
 import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.config.ReplicaRouting;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.service.BulkDeleteService;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeStamp;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import java.util.Optional;
-
 
 /**
  * The `ClassRoomController` class is a REST controller responsible for handling HTTP requests related to classes.
@@ -24,31 +33,53 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/classroom")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true", exposedHeaders = HttpHeaders.ETAG)
 public class ClassRoomController {
 
     private final ClassRoomRepository classRoomRepository;
+    private final StudentClassroomRepository studentClassroomRepository;
+    private final ChangeTracker changeTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkDeleteService bulkDeleteService;
+
+    @Value("${bulk-delete.max-ids:10000}")
+    private int maxBulkDeleteIds;
     
 
     @Autowired
     public ClassRoomController(ClassRoomRepository classRoomRepository,
                                StudentRepository studentRepository,
-                               StudentClassroomRepository studentClassroomRepository) {
+                               StudentClassroomRepository studentClassroomRepository,
+                               ChangeTracker changeTracker,
+                               ApplicationEventPublisher eventPublisher,
+                               BulkDeleteService bulkDeleteService) {
     	
         this.classRoomRepository = classRoomRepository;
+        this.studentClassroomRepository = studentClassroomRepository;
+        this.changeTracker = changeTracker;
+        this.eventPublisher = eventPublisher;
+        this.bulkDeleteService = bulkDeleteService;
        
     }
 
     
     /**
-     * Retrieves all classes.
+     * Retrieves all classes with the number of enrolled students.
+     * Responses carry an ETag and Last-Modified; a matching `If-None-Match` is answered with 304 without querying the database.
      *
+     * @param request The current request, used to evaluate its conditional headers.
      * @return A ResponseEntity containing a list of all classes if successful, or an OK status with an empty list if no classes are found.
      */
     
     @GetMapping("/getClassrooms")
-    public ResponseEntity<List<ClassRoom>> getAllClassRooms() {
-        List<ClassRoom> classRooms = classRoomRepository.findAll();
+    public ResponseEntity<List<ClassRoomSummary>> getAllClassRooms(WebRequest request) {
+        ChangeStamp stamp = changeTracker.classRoomList();
+        if (request.checkNotModified(stamp.eTag(), stamp.lastModified())) {
+            return null;
+        }
+        // A replica may not have a change this recent yet, and the response carries the new ETag
+        ReplicaRouting.requireVisible(stamp.lastModified());
+        List<ClassRoomSummary> classRooms = classRoomRepository.findAllSummaries();
         return ResponseEntity.ok(classRooms);
    
     }
@@ -59,7 +90,7 @@ public class ClassRoomController {
      *
      * @param classRoom The class object to be created.
      * @return A ResponseEntity containing the created class if successful, or a BAD_REQUEST status with an error message if the class name is null or empty.
-     * 		Also checks if a classroom with the same name already exists in the list and returns an error if that is the case. 
+     * 		Returns a CONFLICT status if a classroom with the same name already exists, as reported by the unique index on the name.
      */
 
     @PostMapping("/createClassroom")
@@ -69,56 +100,83 @@ public class ClassRoomController {
             return ResponseEntity.badRequest().body("Classroom name cannot be null or empty");
         }
 
-        // Check if a classroom with the same name already exists
-        Optional<ClassRoom> existingClassroom = classRoomRepository.findByName(classRoom.getName());
-        if (existingClassroom.isPresent()) {
+        // Save the new classroom; the insert is flushed on commit, so a duplicate name surfaces here
+        try {
+            ClassRoom savedClassRoom = classRoomRepository.save(classRoom);
+            eventPublisher.publishEvent(new ClassRoomChangedEvent(ChangeType.CREATED, savedClassRoom.getId()));
+            return ResponseEntity.ok(savedClassRoom);
+        } catch (DataIntegrityViolationException e) {
             // Classroom with the same name already exists
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Classroom with the same name already exists");
         }
-
-        // Save the new classroom
-        ClassRoom savedClassRoom = classRoomRepository.save(classRoom);
-        return ResponseEntity.ok(savedClassRoom);
     }
 
     
     
     /**
-     * Deletes a class by its ID.
+     * Deletes a class by its ID, together with its enrollments, with set-based statements that load no entities.
      *
      * @param classroom_id The ID of the class to be deleted.
-     * @return A ResponseEntity with a no-content status if the class is deleted, or a NOT_FOUND status if the class is not found.
+     * @return A ResponseEntity with a no-content status, also if the class does not exist,
+     * or a CONFLICT status if the class is still the own classroom of a student.
      */
 
     @DeleteMapping("/{classroom_id}")
     public ResponseEntity<Void> deleteClassRoom(@PathVariable Long classroom_id) {
-        classRoomRepository.deleteById(classroom_id);
-        return ResponseEntity.noContent().build();
-        
+        try {
+            bulkDeleteService.deleteClassRooms(List.of(classroom_id));
+            return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    
+    /**
+     * Deletes several classes by ID, together with their enrollments, in one transaction.
+     * A fixed number of set-based statements is run per chunk of IDs, however many classes and enrollments are deleted.
+     *
+     * @param classroomIds The IDs of the classes to be deleted, at most `bulk-delete.max-ids`; unknown IDs are ignored.
+     * @return A ResponseEntity containing the number of deleted classes and enrollments,
+     * a CONFLICT status, with nothing deleted, if one of the classes is still the own classroom of a student,
+     * or a PAYLOAD_TOO_LARGE status, with nothing deleted, if more IDs are given.
+     */
+
+    @PostMapping("/deleteBulk")
+    public ResponseEntity<BulkDeleteReport> deleteClassRooms(@RequestBody List<Long> classroomIds) {
+        if (classroomIds.size() > maxBulkDeleteIds) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.ok(bulkDeleteService.deleteClassRooms(classroomIds));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     
     /**
      * Retrieves students in a class by class ID.
+     * Uses one existence check and one roster query, independent of the number of students in the class,
+     * and none if the client's `If-None-Match` still matches the roster's ETag (304 Not Modified).
      *
      * @param classroom_id The ID of the class for which to retrieve students.
+     * @param request      The current request, used to evaluate its conditional headers.
      * @return A ResponseEntity containing a list of students in the class if successful, or a NOT_FOUND status if the class is not found.
      */
     
     @GetMapping("/{classroom_id}/students")
-    public ResponseEntity<List<Student>> getStudentsByClassRoomId(@PathVariable Long classroom_id) {
-        Optional<ClassRoom> optionalClassRoom = classRoomRepository.findById(classroom_id);
-        if (optionalClassRoom.isPresent()) {
-            ClassRoom classRoom = optionalClassRoom.get();
-            List<StudentClassroom> studentClassrooms = classRoom.getStudentClassrooms();
-            List<Student> students = new ArrayList<>();
-            for (StudentClassroom studentClassroom : studentClassrooms) {
-                students.add(studentClassroom.getStudent());
-            }
-            return ResponseEntity.ok(students);
-        } else {
+    public ResponseEntity<List<StudentSummary>> getStudentsByClassRoomId(@PathVariable Long classroom_id, WebRequest request) {
+        ChangeStamp stamp = changeTracker.roster(classroom_id);
+        if (request.checkNotModified(stamp.eTag(), stamp.lastModified())) {
+            return null;
+        }
+        ReplicaRouting.requireVisible(stamp.lastModified());
+        if (!classRoomRepository.existsById(classroom_id)) {
             return ResponseEntity.notFound().build();
         }
+        List<StudentSummary> students = studentClassroomRepository.findStudentsByClassRoomId(classroom_id);
+        return ResponseEntity.ok(students);
     }
 
   
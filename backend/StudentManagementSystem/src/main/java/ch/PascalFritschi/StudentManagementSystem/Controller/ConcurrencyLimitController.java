@@ -0,0 +1,46 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ch.PascalFritschi.StudentManagementSystem.config.AdaptiveConcurrencyFilter;
+import ch.PascalFritschi.StudentManagementSystem.dto.ConcurrencyLimitState;
+
+
+/**
+ * The `ConcurrencyLimitController` class is a REST controller exposing the state of the adaptive concurrency limits
+ * that protect the student and enrollment endpoints.
+ */
+
+@RestController
+@RequestMapping("/api/limits")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ConcurrencyLimitController {
+
+    private final ObjectProvider<AdaptiveConcurrencyFilter> concurrencyFilter;
+
+    @Autowired
+    public ConcurrencyLimitController(ObjectProvider<AdaptiveConcurrencyFilter> concurrencyFilter) {
+        this.concurrencyFilter = concurrencyFilter;
+    }
+
+
+    /**
+     * Retrieves the current limit, requests in flight, rejections and latencies of the read and the write budget.
+     *
+     * @return A ResponseEntity containing one entry per budget, or an empty list if adaptive limiting is disabled.
+     */
+
+    @GetMapping
+    public ResponseEntity<List<ConcurrencyLimitState>> getConcurrencyLimits() {
+        AdaptiveConcurrencyFilter filter = concurrencyFilter.getIfAvailable();
+        return ResponseEntity.ok(filter == null ? List.of() : filter.states());
+    }
+}
@@ -0,0 +1,101 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import ch.PascalFritschi.StudentManagementSystem.service.ExportService;
+import ch.PascalFritschi.StudentManagementSystem.service.ExportService.Format;
+
+
+/**
+ * The `ExportController` class is a REST controller exporting whole tables for reporting jobs, as CSV
+ * (`?format=csv`) or NDJSON (`?format=ndjson`, the default). Rows are written to the response as they are read
+ * from the database, so memory usage does not depend on the number of rows.
+ */
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+
+    /**
+     * Exports all students, ordered by ID, including their classroom and version.
+     *
+     * @param format `csv` or `ndjson`.
+     * @return A ResponseEntity whose body writes the students, or a BAD_REQUEST status for an unknown format.
+     */
+
+    @GetMapping("/students")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return export("students", format, exportService::writeStudents);
+    }
+
+
+    /**
+     * Exports all classrooms, ordered by ID.
+     *
+     * @param format `csv` or `ndjson`.
+     * @return A ResponseEntity whose body writes the classrooms, or a BAD_REQUEST status for an unknown format.
+     */
+
+    @GetMapping("/classrooms")
+    public ResponseEntity<StreamingResponseBody> exportClassRooms(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return export("classrooms", format, exportService::writeClassRooms);
+    }
+
+
+    /**
+     * Exports all enrollments as (student, classroom) pairs.
+     *
+     * @param format `csv` or `ndjson`.
+     * @return A ResponseEntity whose body writes the enrollments, or a BAD_REQUEST status for an unknown format.
+     */
+
+    @GetMapping("/enrollments")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        return export("enrollments", format, exportService::writeEnrollments);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(String name, String format, TableWriter writer) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename(name + "." + exportFormat.extension()).build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(outputStream -> writer.write(outputStream, exportFormat));
+    }
+
+    @FunctionalInterface
+    private interface TableWriter {
+        void write(OutputStream outputStream, Format format) throws IOException;
+    }
+}
@@ -0,0 +1,124 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.JournalEntry;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeJournal;
+
+
+/**
+ * The `JournalController` class is a REST controller exposing the change journal, the history of all committed
+ * student, enrollment and classroom changes. Entries are returned newest first; `from` and `to` are ISO-8601 instants
+ * (e.g. `2024-09-01T00:00:00Z`), `to` is exclusive. Recent changes can take up to `journal.flush-interval` to appear.
+ */
+
+@RestController
+@RequestMapping("/api/journal")
+@CrossOrigin(origins = "http://localhost:3000")
+public class JournalController {
+
+    private static final Instant UNBOUNDED = Instant.ofEpochMilli(Long.MAX_VALUE);
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeJournal changeJournal;
+
+    @Autowired
+    public JournalController(ChangeJournal changeJournal) {
+        this.changeJournal = changeJournal;
+    }
+
+
+    /**
+     * Retrieves the history of a student: changes of the student record and enrollments into and removals from classrooms.
+     *
+     * @param student_id The ID of the student.
+     * @param kind       `enrollment` for the enrollment history only, `student` for record changes only.
+     * @param from       The earliest time to include.
+     * @param to         The time up to which changes are included.
+     * @param limit      The maximum number of entries (default 100, at most 1000).
+     * @return A ResponseEntity containing the journal entries, or a BAD_REQUEST status for an unknown kind.
+     */
+
+    @GetMapping("/student/{student_id}")
+    public ResponseEntity<List<JournalEntry>> getStudentHistory(
+            @PathVariable int student_id,
+            @RequestParam(value = "kind", required = false) String kind,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return query(() -> changeJournal.findByStudent(student_id, kind, start(from), end(to), cap(limit)));
+    }
+
+
+    /**
+     * Retrieves the history of a classroom: its creation and deletion, and every enrollment and removal.
+     *
+     * @param classroom_id The ID of the classroom.
+     * @param kind         `enrollment` for the roster history only, `classroom` for the classroom record only.
+     * @param from         The earliest time to include.
+     * @param to           The time up to which changes are included.
+     * @param limit        The maximum number of entries (default 100, at most 1000).
+     * @return A ResponseEntity containing the journal entries, or a BAD_REQUEST status for an unknown kind.
+     */
+
+    @GetMapping("/classroom/{classroom_id}")
+    public ResponseEntity<List<JournalEntry>> getClassRoomHistory(
+            @PathVariable long classroom_id,
+            @RequestParam(value = "kind", required = false) String kind,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return query(() -> changeJournal.findByClassRoom(classroom_id, kind, start(from), end(to), cap(limit)));
+    }
+
+
+    /**
+     * Retrieves all changes in a time range.
+     *
+     * @param kind  `student`, `enrollment` or `classroom` to return only that kind of change.
+     * @param from  The earliest time to include.
+     * @param to    The time up to which changes are included.
+     * @param limit The maximum number of entries (default 100, at most 1000).
+     * @return A ResponseEntity containing the journal entries, or a BAD_REQUEST status for an unknown kind.
+     */
+
+    @GetMapping
+    public ResponseEntity<List<JournalEntry>> getChanges(
+            @RequestParam(value = "kind", required = false) String kind,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return query(() -> changeJournal.findBetween(kind, start(from), end(to), cap(limit)));
+    }
+
+    private ResponseEntity<List<JournalEntry>> query(Supplier<List<JournalEntry>> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static Instant start(Instant from) {
+        return from == null ? Instant.EPOCH : from;
+    }
+
+    private static Instant end(Instant to) {
+        return to == null ? UNBOUNDED : to;
+    }
+
+    private static int cap(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
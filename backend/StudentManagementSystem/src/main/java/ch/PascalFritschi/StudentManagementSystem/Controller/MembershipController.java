@@ -0,0 +1,119 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentIdSet;
+import ch.PascalFritschi.StudentManagementSystem.service.ClassRoomMembershipIndex;
+
+
+/**
+ * The `MembershipController` class is a REST controller answering set questions about classroom rosters from the
+ * in-memory {@link ClassRoomMembershipIndex}, e.g. `/api/membership/intersection?classroomIds=1,2`.
+ * Every set endpoint accepts `countOnly=true` to return the number of students without their IDs.
+ */
+
+@RestController
+@RequestMapping("/api/membership")
+@CrossOrigin(origins = "http://localhost:3000")
+public class MembershipController {
+
+    private final ClassRoomMembershipIndex membershipIndex;
+
+    @Autowired
+    public MembershipController(ClassRoomMembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
+    }
+
+
+    /**
+     * Retrieves the students enrolled in all of the given classrooms.
+     *
+     * @param classroomIds The IDs of the classrooms.
+     * @param countOnly    Whether to return the count without the IDs.
+     * @return A ResponseEntity containing the students in every classroom.
+     */
+
+    @GetMapping("/intersection")
+    public ResponseEntity<StudentIdSet> getIntersection(
+            @RequestParam("classroomIds") List<Long> classroomIds,
+            @RequestParam(value = "countOnly", defaultValue = "false") boolean countOnly) {
+        return ResponseEntity.ok(toStudentIdSet(membershipIndex.intersection(classroomIds), countOnly));
+    }
+
+
+    /**
+     * Retrieves the students enrolled in any of the given classrooms.
+     *
+     * @param classroomIds The IDs of the classrooms.
+     * @param countOnly    Whether to return the count without the IDs.
+     * @return A ResponseEntity containing the students in at least one classroom.
+     */
+
+    @GetMapping("/union")
+    public ResponseEntity<StudentIdSet> getUnion(
+            @RequestParam("classroomIds") List<Long> classroomIds,
+            @RequestParam(value = "countOnly", defaultValue = "false") boolean countOnly) {
+        return ResponseEntity.ok(toStudentIdSet(membershipIndex.union(classroomIds), countOnly));
+    }
+
+
+    /**
+     * Retrieves the students of a classroom that are enrolled in none of the excluded classrooms.
+     *
+     * @param classroom_id The ID of the classroom.
+     * @param excludedIds  The IDs of the classrooms whose students are left out.
+     * @param countOnly    Whether to return the count without the IDs.
+     * @return A ResponseEntity containing the remaining students of the classroom.
+     */
+
+    @GetMapping("/difference/{classroom_id}")
+    public ResponseEntity<StudentIdSet> getDifference(
+            @PathVariable long classroom_id,
+            @RequestParam("excludedIds") List<Long> excludedIds,
+            @RequestParam(value = "countOnly", defaultValue = "false") boolean countOnly) {
+        return ResponseEntity.ok(toStudentIdSet(membershipIndex.difference(classroom_id, excludedIds), countOnly));
+    }
+
+
+    /**
+     * Retrieves the students enrolled in at least the given number of classrooms.
+     *
+     * @param minClassrooms The minimum number of classrooms (default 1).
+     * @param countOnly     Whether to return the count without the IDs.
+     * @return A ResponseEntity containing the students with that many enrollments or more.
+     */
+
+    @GetMapping("/students")
+    public ResponseEntity<StudentIdSet> getStudentsInAtLeast(
+            @RequestParam(value = "minClassrooms", defaultValue = "1") int minClassrooms,
+            @RequestParam(value = "countOnly", defaultValue = "false") boolean countOnly) {
+        return ResponseEntity.ok(toStudentIdSet(membershipIndex.enrolledInAtLeast(minClassrooms), countOnly));
+    }
+
+
+    /**
+     * Retrieves the number of enrolled students of every classroom. Classrooms without students are left out.
+     *
+     * @return A ResponseEntity containing the class sizes by classroom ID.
+     */
+
+    @GetMapping("/sizes")
+    public ResponseEntity<Map<Long, Integer>> getSizes() {
+        return ResponseEntity.ok(membershipIndex.sizes());
+    }
+
+    private static StudentIdSet toStudentIdSet(RoaringBitmap students, boolean countOnly) {
+        return new StudentIdSet(students.getCardinality(), countOnly ? null : students.toArray());
+    }
+}
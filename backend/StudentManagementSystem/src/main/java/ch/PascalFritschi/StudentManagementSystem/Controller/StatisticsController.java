@@ -0,0 +1,146 @@
+package ch.PascalFritschi.StudentManagementSystem.Controller;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.config.ReplicaRouting;
+import ch.PascalFritschi.StudentManagementSystem.dto.AgeBracket;
+import ch.PascalFritschi.StudentManagementSystem.dto.AgeHistogram;
+import ch.PascalFritschi.StudentManagementSystem.dto.BirthdateCount;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
+import ch.PascalFritschi.StudentManagementSystem.dto.GradeCount;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeStamp;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeTracker;
+
+
+/**
+ * The `StatisticsController` class is a REST controller serving the dashboard statistics: enrollment counts per
+ * classroom, the grade distribution and an age histogram. Each is computed by one `GROUP BY` query, so a refresh
+ * transfers a few rows instead of every student. Responses carry an ETag; a matching `If-None-Match` is answered
+ * with 304 without querying the database.
+ */
+
+@RestController
+@RequestMapping("/api/statistics")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
+public class StatisticsController {
+
+    private static final int MAX_BRACKET_SIZE = 100;
+
+    private final StudentRepository studentRepository;
+    private final ClassRoomRepository classRoomRepository;
+    private final ChangeTracker changeTracker;
+
+    @Autowired
+    public StatisticsController(StudentRepository studentRepository, ClassRoomRepository classRoomRepository,
+                                ChangeTracker changeTracker) {
+        this.studentRepository = studentRepository;
+        this.classRoomRepository = classRoomRepository;
+        this.changeTracker = changeTracker;
+    }
+
+
+    /**
+     * Retrieves the number of enrolled students of every classroom.
+     *
+     * @param request The current request, used to evaluate its conditional headers.
+     * @return A ResponseEntity containing one row per classroom, ordered by ID.
+     */
+
+    @GetMapping("/classrooms")
+    public ResponseEntity<List<ClassRoomSummary>> getClassRoomSizes(WebRequest request) {
+        ChangeStamp stamp = changeTracker.classRoomList();
+        if (request.checkNotModified(stamp.eTag(), stamp.lastModified())) {
+            return null;
+        }
+        ReplicaRouting.requireVisible(stamp.lastModified());
+        return ResponseEntity.ok(classRoomRepository.findAllSummaries());
+    }
+
+
+    /**
+     * Retrieves the number of students per grade.
+     *
+     * @param request The current request, used to evaluate its conditional headers.
+     * @return A ResponseEntity containing one row per grade; students without a grade are counted under null.
+     */
+
+    @GetMapping("/grades")
+    public ResponseEntity<List<GradeCount>> getGradeDistribution(WebRequest request) {
+        ChangeStamp stamp = changeTracker.studentList();
+        if (request.checkNotModified(stamp.eTag(), stamp.lastModified())) {
+            return null;
+        }
+        ReplicaRouting.requireVisible(stamp.lastModified());
+        return ResponseEntity.ok(studentRepository.findGradeCounts());
+    }
+
+
+    /**
+     * Retrieves the age distribution of the students as of today.
+     * Ages change with the date, so the ETag includes it and `If-Modified-Since` is not honoured.
+     *
+     * @param bracketSize The number of years per bracket (default 5, at most 100).
+     * @param request     The current request, used to evaluate its conditional headers.
+     * @return A ResponseEntity containing the histogram, or a BAD_REQUEST status for a bracket size below 1.
+     */
+
+    @GetMapping("/ages")
+    public ResponseEntity<AgeHistogram> getAgeHistogram(
+            @RequestParam(value = "bracketSize", defaultValue = "5") int bracketSize,
+            WebRequest request) {
+        if (bracketSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.min(bracketSize, MAX_BRACKET_SIZE);
+        LocalDate today = LocalDate.now();
+        ChangeStamp stamp = changeTracker.studentList();
+        String eTag = stamp.eTag().substring(0, stamp.eTag().length() - 1) + "-" + today + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        ReplicaRouting.requireVisible(stamp.lastModified());
+        return ResponseEntity.ok(toHistogram(studentRepository.findBirthdateCounts(), today, size));
+    }
+
+    private static AgeHistogram toHistogram(List<BirthdateCount> birthdates, LocalDate today, int bracketSize) {
+        long unknown = 0;
+        long[] counts = new long[0];
+        int youngest = Integer.MAX_VALUE;
+        for (BirthdateCount row : birthdates) {
+            if (row.birthdate() == null) {
+                unknown += row.count();
+                continue;
+            }
+            // A birthdate in the future counts as age 0
+            int bracket = Math.max(Period.between(row.birthdate(), today).getYears(), 0) / bracketSize;
+            if (bracket >= counts.length) {
+                counts = Arrays.copyOf(counts, bracket + 1);
+            }
+            counts[bracket] += row.count();
+            youngest = Math.min(youngest, bracket);
+        }
+
+        List<AgeBracket> brackets = new ArrayList<>();
+        for (int bracket = youngest; bracket < counts.length; bracket++) {
+            int fromAge = bracket * bracketSize;
+            brackets.add(new AgeBracket(fromAge, fromAge + bracketSize - 1, counts[bracket]));
+        }
+        return new AgeHistogram(today, bracketSize, brackets, unknown);
+    }
+}
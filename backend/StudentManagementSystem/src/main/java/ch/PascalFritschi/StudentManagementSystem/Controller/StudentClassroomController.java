@@ -1,19 +1,27 @@
 package ch.PascalFritschi.StudentManagementSystem.Controller;
 
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentReport;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
 import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
 import ch.PascalFritschi.StudentManagementSystem.model.Student;
 import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
 import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
 import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
 import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.service.EnrollmentService;
 
 import java.util.Optional;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import javax.management.AttributeNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,19 +34,24 @@ import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/studentclassroom")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 public class StudentClassroomController {
 
 	private final StudentClassroomRepository studentClassroomRepository;
 	private final StudentRepository studentRepository;
 	private final ClassRoomRepository classRoomRepository;
+	private final EnrollmentService enrollmentService;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Autowired
 	public StudentClassroomController(StudentClassroomRepository studentClassroomRepository,
-			StudentRepository studentRepository, ClassRoomRepository classRoomRepository) {
+			StudentRepository studentRepository, ClassRoomRepository classRoomRepository,
+			EnrollmentService enrollmentService, ApplicationEventPublisher eventPublisher) {
 		this.studentClassroomRepository = studentClassroomRepository;
 		this.studentRepository = studentRepository;
 		this.classRoomRepository = classRoomRepository;
+		this.enrollmentService = enrollmentService;
+		this.eventPublisher = eventPublisher;
 	}
 
 	
@@ -66,6 +79,7 @@ public class StudentClassroomController {
 	
 	/**
 	 * Adds a student to a classroom.
+	 * A repeated enrollment is rejected by the unique index on (student, classroom) instead of a separate existence query.
 	 *
 	 * @param student_id       The ID of the student to be added.
 	 * @param classroom_id     The ID of the classroom to which the student will be added.
@@ -80,11 +94,6 @@ public class StudentClassroomController {
 	        @PathVariable Long classroom_id,
 	        @RequestBody StudentClassroom studentClassroom) throws AttributeNotFoundException {
 
-	    // Check if the association already exists
-	    if (studentClassroomRepository.existsByStudentIdAndClassRoomId(student_id, classroom_id)) {
-	        return ResponseEntity.badRequest().body("Student already in the classroom");
-	    }
-
 	    // Retrieve students and classRooms from the repositories
 	    Optional<Student> studentOptional = Optional.ofNullable(studentRepository.findById(student_id));
 	    if (studentOptional.isPresent()) {
@@ -97,8 +106,15 @@ public class StudentClassroomController {
 	            studentClassroom.setStudent(student);
 	            studentClassroom.setClassRoom(classRoom);
 
-	            StudentClassroom savedStudentClassroom = studentClassroomRepository.save(studentClassroom);
-	            return ResponseEntity.ok(savedStudentClassroom);
+	            try {
+	                StudentClassroom savedStudentClassroom = studentClassroomRepository.save(studentClassroom);
+	                eventPublisher.publishEvent(new EnrollmentChangedEvent(ChangeType.CREATED, classroom_id,
+	                        List.of(student.getId())));
+	                return ResponseEntity.ok(savedStudentClassroom);
+	            } catch (DataIntegrityViolationException e) {
+	                // The association already exists
+	                return ResponseEntity.badRequest().body("Student already in the classroom");
+	            }
 	        } else {
 	            throw new AttributeNotFoundException("ClassRoom not found with ID: " + classroom_id);
 	        }
@@ -109,6 +125,41 @@ public class StudentClassroomController {
 
 	
 	
+	/**
+	 * Adds several students to one classroom in a single request.
+	 *
+	 * @param classroom_id The ID of the classroom to which the students will be added.
+	 * @param student_ids  The IDs of the students to be added.
+	 * @return ResponseEntity with a report of the added, skipped (already enrolled) and invalid pairs.
+	 */
+	
+	@PostMapping("/bulk/{classroom_id}")
+	public ResponseEntity<EnrollmentReport> addStudentsToClassRoom(
+	        @PathVariable Long classroom_id,
+	        @RequestBody List<Integer> student_ids) {
+	    List<EnrollmentPair> pairs = new ArrayList<>();
+	    for (Integer student_id : student_ids) {
+	        pairs.add(new EnrollmentPair(student_id, classroom_id));
+	    }
+	    return ResponseEntity.ok(enrollmentService.enroll(pairs));
+	}
+
+	
+	
+	/**
+	 * Adds an arbitrary set of (student, classroom) pairs in a single request.
+	 *
+	 * @param pairs The pairs to be added, e.g. `[{"studentId": 1, "classroomId": 2}]`.
+	 * @return ResponseEntity with a report of the added, skipped (already enrolled) and invalid pairs.
+	 */
+	
+	@PostMapping("/bulk")
+	public ResponseEntity<EnrollmentReport> addStudentClassroomPairs(@RequestBody List<EnrollmentPair> pairs) {
+	    return ResponseEntity.ok(enrollmentService.enroll(pairs));
+	}
+
+	
+	
 	/**
      * Removes a student from a class.
      *
@@ -129,6 +180,8 @@ public class StudentClassroomController {
 		if (optionalStudentClassroom.isPresent()) {
 			// If the StudentClassroom exists, delete it
 			studentClassroomRepository.delete(optionalStudentClassroom.get());
+			eventPublisher.publishEvent(new EnrollmentChangedEvent(ChangeType.DELETED, classroom_id,
+					List.of(student_id.intValue())));
 			return ResponseEntity.noContent().build();
 		} else {
 			// If not found, return a not found response
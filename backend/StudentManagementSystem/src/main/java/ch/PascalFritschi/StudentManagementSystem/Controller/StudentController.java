@@ -1,55 +1,168 @@
 package ch.PascalFritschi.StudentManagementSystem.Controller;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.config.ReplicaRouting;
+import ch.PascalFritschi.StudentManagementSystem.dto.BulkDeleteReport;
+import ch.PascalFritschi.StudentManagementSystem.dto.BulkUpdateReport;
+import ch.PascalFritschi.StudentManagementSystem.dto.ImportReport;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchHit;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
 import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.service.BulkDeleteService;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeStamp;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeTracker;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentImportService;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentPatchService;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentSearchIndex;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentStreamService;
 
 
 /**
  * The `StudentController` class is a REST controller responsible for handling HTTP requests related to student entities.
- * It provides endpoints for retrieving, adding, updating, and deleting students.
+ * It provides endpoints for retrieving, adding, updating (fully with PUT or partially with PATCH), and deleting students.
  */
 
 @RestController
 @RequestMapping("/api/student")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true",
+        exposedHeaders = { StudentController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG })
 public class StudentController {
 
+    /**
+     * Response header carrying the cursor for the next page of students.
+     */
+    
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Media type of JSON Merge Patch (RFC 7396) request bodies.
+     */
+    
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private StudentStreamService studentStreamService;
+
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private StudentSearchIndex studentSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeTracker changeTracker;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private StudentPatchService studentPatchService;
+
+    @Value("${student.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${student.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${bulk-delete.max-ids:10000}")
+    private int maxBulkDeleteIds;
+
     
     /**
-     * Retrieves all students from the database.
+     * Retrieves one page of students from the database using keyset pagination on the student ID.
+     * If the page is full, the ID of its last student is returned in the `X-Next-Cursor` header
+     * and can be passed as `after` to fetch the following page.
+     * Responses carry an ETag and Last-Modified; a matching `If-None-Match` is answered with 304 without querying the database.
      *
-     * @return A ResponseEntity containing a list of students if successful, or an INTERNAL_SERVER_ERROR status if an error occurs.
+     * @param after   The ID of the last student of the previous page, 0 (default) for the first page.
+     * @param size    The requested page size, from 1 to `student.page.max-size`; `student.page.default-size` if omitted.
+     * @param request The current request, used to evaluate its conditional headers.
+     * @return A ResponseEntity containing a list of student rows if successful, a BAD_REQUEST status if the page size
+     * is out of range, or an INTERNAL_SERVER_ERROR status if an error occurs.
      */
     
     @GetMapping
-    public ResponseEntity<List<Student>> getAllStudents() {
+    public ResponseEntity<List<StudentSummary>> getAllStudents(
+            @RequestParam(value = "after", defaultValue = "0") int after,
+            @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request) {
+        if (size != null && (size < 1 || size > maxPageSize)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Student> students = studentRepository.findAll();
-            return ResponseEntity.ok().body(students);
+            ChangeStamp stamp = changeTracker.studentList();
+            if (request.checkNotModified(stamp.eTag(), stamp.lastModified())) {
+                // 304 Not Modified; the ETag and Last-Modified headers are already set
+                return null;
+            }
+            ReplicaRouting.requireVisible(stamp.lastModified());
+
+            int pageSize = size == null ? defaultPageSize : size;
+            List<StudentSummary> students = studentRepository.findSummariesAfter(after, PageRequest.of(0, pageSize));
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (students.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(students.get(students.size() - 1).id()));
+            }
+            return response.body(students);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
     
+    /**
+     * Streams all students as a single JSON array. Rows are written to the response as they are read
+     * from the database, so memory usage does not depend on the number of students.
+     *
+     * @return A ResponseEntity whose body writes the JSON array of all students.
+     */
+    
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents() {
+        StreamingResponseBody body = studentStreamService::writeAllStudents;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    
     /**
      * Adds a new student to the database.
      *
@@ -61,6 +174,8 @@ public class StudentController {
     public ResponseEntity<Student> addStudent(@RequestBody Student student) {
         try {
             Student savedStudent = studentRepository.save(student);
+            eventPublisher.publishEvent(new StudentChangedEvent(ChangeType.CREATED, savedStudent.getId(),
+                    savedStudent.getName(), savedStudent.getEmail()));
             return ResponseEntity.status(HttpStatus.CREATED).body(savedStudent);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -68,6 +183,41 @@ public class StudentController {
     }
     
     
+    /**
+     * Imports students in bulk from a CSV file whose first line names the columns
+     * (name, email, address, phoneNumber, birthdate, grade).
+     *
+     * @param csv The CSV request body.
+     * @return A ResponseEntity containing the import report, or a BAD_REQUEST status if the input cannot be read.
+     */
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importStudentsFromCsv(InputStream csv) {
+        try {
+            return ResponseEntity.ok().body(studentImportService.importCsv(csv));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    
+    /**
+     * Imports students in bulk from NDJSON, one student object per line.
+     *
+     * @param ndjson The NDJSON request body.
+     * @return A ResponseEntity containing the import report, or a BAD_REQUEST status if the input cannot be read.
+     */
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> importStudentsFromNdjson(InputStream ndjson) {
+        try {
+            return ResponseEntity.ok().body(studentImportService.importNdjson(ndjson));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    
     /**
      * Finds a student by ID.
      *
@@ -77,9 +227,9 @@ public class StudentController {
      */
     
     @GetMapping("/search")
-    public ResponseEntity<Student> findStudent(@RequestParam("studentId") int student_id) {
+    public ResponseEntity<StudentDetail> findStudent(@RequestParam("studentId") int student_id) {
         try {
-        	Optional<Student> optionalStudent = studentRepository.findById(student_id);
+        	Optional<StudentDetail> optionalStudent = studentRepository.findDetailById(student_id);
 
             return optionalStudent.map(student -> ResponseEntity.ok().body(student))
                     .orElseGet(() -> ResponseEntity.notFound().build());
@@ -89,18 +239,49 @@ public class StudentController {
     }
     
     
+    /**
+     * Searches students by partial name or email using the in-memory search index.
+     * Every word of the query must match the beginning or, from three letters on, any part of a word
+     * in the name or email; small typos are tolerated for longer words. Results are ranked best first.
+     *
+     * @param query The search text, e.g. "joh" or "doe@school".
+     * @param limit The maximum number of results (default 10, at most 50).
+     * @return A ResponseEntity containing the ranked hits.
+     */
+    
+    @GetMapping("/find")
+    public ResponseEntity<List<StudentSearchHit>> searchStudents(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok().body(studentSearchIndex.search(query, Math.min(limit, 50)));
+    }
+    
+    
     /**
      * Updates an existing student in the database.
+     * The student must carry the `version` it was read with; if the student has been changed since, nothing is written.
+     * All columns are replaced; the student's classroom and enrollments are kept.
      *
      * @param student The student object with updated information.
-     * @return A ResponseEntity containing the updated student if successful, or an INTERNAL_SERVER_ERROR status if an error occurs.
+     * @return A ResponseEntity containing the updated student (with its new version) if successful,
+     * a BAD_REQUEST status if the student is invalid, a NOT_FOUND status if the student is not found,
+     * a PRECONDITION_REQUIRED status if the version is missing, a CONFLICT status if the version is stale,
+     * or an INTERNAL_SERVER_ERROR status if an error occurs.
      */
 
     @PutMapping("/update")
-    public ResponseEntity<Student> updateStudent(@RequestBody Student student) {
+    public ResponseEntity<StudentDetail> updateStudent(@RequestBody Student student) {
+        if (student.getVersion() == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
         try {
-            Student updatedStudent = studentRepository.save(student);
-            return ResponseEntity.ok().body(updatedStudent);
+            return studentPatchService.replaceStudent(student)
+                    .map(updatedStudent -> ResponseEntity.ok().body(updatedStudent))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -108,7 +289,55 @@ public class StudentController {
     
     
     /**
-     * Deletes a student by ID.
+     * Partially updates a student with a JSON Merge Patch: only the members present in the body are changed,
+     * and a member set to `null` clears that column. Only the changed columns are written, in a single UPDATE
+     * that does not load the student first. If the body carries the `version` the student was read with,
+     * a student changed since is not overwritten.
+     *
+     * @param student_id The ID of the student to be updated.
+     * @param patch      The merge patch, e.g. `{"grade": "B"}`.
+     * @return A ResponseEntity containing the updated student (with its new version) if successful,
+     * a BAD_REQUEST status if the patch is invalid, a NOT_FOUND status if the student is not found,
+     * or a CONFLICT status if the version is stale.
+     */
+
+    @PatchMapping(value = "/{student_id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<StudentDetail> patchStudent(@PathVariable("student_id") int student_id,
+                                                      @RequestBody JsonNode patch) {
+        try {
+            return studentPatchService.patchStudent(student_id, patch)
+                    .map(student -> ResponseEntity.ok().body(student))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    
+    /**
+     * Applies the same JSON Merge Patch to all students of a classroom in a single UPDATE,
+     * e.g. `{"grade": "B"}` to move the whole class to the next grade.
+     *
+     * @param classroomId The ID of the own classroom of the students to be updated.
+     * @param patch       The merge patch; a `version` member is not allowed.
+     * @return A ResponseEntity containing the number of updated students, or a BAD_REQUEST status if the patch is invalid.
+     */
+
+    @PatchMapping(params = "classroomId", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<BulkUpdateReport> patchClassRoomStudents(@RequestParam("classroomId") long classroomId,
+                                                                  @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(new BulkUpdateReport(studentPatchService.patchClassRoomStudents(classroomId, patch)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    
+    /**
+     * Deletes a student by ID, together with the student's enrollments, with set-based statements that load no entities.
      *
      * @param student_id The ID of the student to be deleted.
      * @return A ResponseEntity with a success message if the student is deleted, a NOT_FOUND status if the student is not found,
@@ -118,9 +347,7 @@ public class StudentController {
     @DeleteMapping("/delete")
     public ResponseEntity<String> deleteStudent(@RequestParam("studentId") int student_id) {
         try {
-        	Optional<Student> optionalStudent = studentRepository.findById(student_id);
-            if (optionalStudent.isPresent()) {
-                studentRepository.deleteById(student_id);
+            if (bulkDeleteService.deleteStudents(List.of(student_id)).deleted() > 0) {
                 return ResponseEntity.ok().body("Student deleted successfully");
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student not found");
@@ -129,4 +356,43 @@ public class StudentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    
+    /**
+     * Deletes several students by ID, together with their enrollments, in one transaction.
+     * A fixed number of set-based statements is run per chunk of IDs, however many students are deleted.
+     *
+     * @param studentIds The IDs of the students to be deleted, at most `bulk-delete.max-ids`; unknown IDs are ignored.
+     * @return A ResponseEntity containing the number of deleted students and enrollments,
+     * or a PAYLOAD_TOO_LARGE status, with nothing deleted, if more IDs are given.
+     */
+
+    @PostMapping("/deleteBulk")
+    public ResponseEntity<BulkDeleteReport> deleteStudents(@RequestBody List<Integer> studentIds) {
+        if (studentIds.size() > maxBulkDeleteIds) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(bulkDeleteService.deleteStudents(studentIds));
+    }
+    
+    
+    /**
+     * Deletes all students matching a filter, together with their enrollments, in one transaction.
+     * Both criteria are optional, but at least one is required.
+     *
+     * @param grade       The grade of the students to be deleted.
+     * @param classroomId The ID of the own classroom of the students to be deleted.
+     * @return A ResponseEntity containing the number of deleted students and enrollments,
+     * or a BAD_REQUEST status if no criterion is given.
+     */
+
+    @DeleteMapping("/deleteWhere")
+    public ResponseEntity<BulkDeleteReport> deleteStudentsWhere(
+            @RequestParam(value = "grade", required = false) String grade,
+            @RequestParam(value = "classroomId", required = false) Long classroomId) {
+        if (grade == null && classroomId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkDeleteService.deleteStudentsWhere(grade, classroomId));
+    }
 }
@@ -1,34 +1,158 @@
 package ch.PascalFritschi.StudentManagementSystem.Repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import ch.PascalFritschi.StudentManagementSystem.config.CacheConfig;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
 import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 /**
  * The `ClassRoomRepository` interface provides methods to interact with the database for managing class entities.
+ * Lookups by ID and by name are served from the `classrooms` and `classroomsByName` caches.
+ * Every write method below evicts the class by ID and clears the name cache, since the old name of a renamed class is unknown here.
+ * The interface-level read-only transaction lets replicas serve the queries; the redeclared write methods override it.
  */
 
 @Repository
-public interface ClassRoomRepository extends JpaRepository<ClassRoom, Long> {
+@Transactional(readOnly = true)
+public interface ClassRoomRepository extends StorageRepository<ClassRoom, Long> {
+	
+	
+	/**
+	 * Retrieves the classroom list: ID, name and number of enrolled students of every class, in a single statement.
+	 *
+	 * @return A list of all classes, ordered by ID.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary(c.id, c.name, count(sc.id)) "
+			+ "from ClassRoom c left join c.studentClassrooms sc group by c.id, c.name order by c.id")
+	List<ClassRoomSummary> findAllSummaries();
 	
 	
 	/**
-     * Retrieves a class by its ID.
+     * Retrieves a class by its ID. Results are cached; missing classes are not.
      *
      * @param id The ID of the class to retrieve.
      * @return An Optional containing the class if found, or an empty Optional if not found.
      */
 	
+    @Cacheable(cacheNames = CacheConfig.CLASSROOMS, key = "#p0", unless = "#result == null")
     Optional<ClassRoom> findById(Long id);
 
     /**
+     * Retrieves a class by its name. Results are cached; missing classes are not.
      * 
      * @param name
      * @return An Optional containing the class if found, or an empty Optional if not found.
      */
+	@Cacheable(cacheNames = CacheConfig.CLASSROOMS_BY_NAME, key = "#p0", unless = "#result == null")
 	Optional<ClassRoom> findByName(String name);
+	
+	
+	/**
+	 * Retrieves which of the given class IDs exist, in a single IN query.
+	 *
+	 * @param ids The class IDs to check.
+	 * @return The subset of {@code ids} that belong to existing classes.
+	 */
+	
+	@Query("select c.id from ClassRoom c where c.id in :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+	
+	
+	/**
+	 * Streams the ID and name of all classes ordered by ID straight off the JDBC cursor.
+	 * Must be called inside a transaction and the stream must be closed after use.
+	 *
+	 * @return A stream of all classes.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef(c.id, c.name) from ClassRoom c order by c.id")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	Stream<ClassRoomRef> streamAllRefs();
+	
+	
+	/**
+	 * Deletes the given classes in one DELETE statement, without loading them, and clears the class caches.
+	 * Their enrollments must have been deleted before. Pending changes are flushed first and the persistence
+	 * context is cleared afterwards.
+	 *
+	 * @param ids The IDs of the classes.
+	 * @return The number of deleted classes.
+	 */
+	
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@CacheEvict(cacheNames = { CacheConfig.CLASSROOMS, CacheConfig.CLASSROOMS_BY_NAME }, allEntries = true)
+	@Query("delete from ClassRoom c where c.id in :ids")
+	int deleteByIds(@Param("ids") Collection<Long> ids);
+	
+	
+	/**
+	 * Saves a class and evicts it from the caches.
+	 */
+	
+	@Override
+	@Transactional
+	@Caching(evict = {
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, key = "#p0.id"),
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS_BY_NAME, allEntries = true) })
+	<S extends ClassRoom> S save(S entity);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.CLASSROOMS, CacheConfig.CLASSROOMS_BY_NAME }, allEntries = true)
+	<S extends ClassRoom> List<S> saveAll(Iterable<S> entities);
+	
+	
+	/**
+	 * Deletes classes and evicts them from the caches.
+	 */
+	
+	@Override
+	@Transactional
+	@Caching(evict = {
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, key = "#p0"),
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS_BY_NAME, allEntries = true) })
+	void deleteById(Long id);
+	
+	@Override
+	@Transactional
+	@Caching(evict = {
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, key = "#p0.id"),
+			@CacheEvict(cacheNames = CacheConfig.CLASSROOMS_BY_NAME, allEntries = true) })
+	void delete(ClassRoom entity);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.CLASSROOMS, CacheConfig.CLASSROOMS_BY_NAME }, allEntries = true)
+	void deleteAllById(Iterable<? extends Long> ids);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.CLASSROOMS, CacheConfig.CLASSROOMS_BY_NAME }, allEntries = true)
+	void deleteAll(Iterable<? extends ClassRoom> entities);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.CLASSROOMS, CacheConfig.CLASSROOMS_BY_NAME }, allEntries = true)
+	void deleteAll();
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository;
+
+import java.util.List;
+
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+
+/**
+ * The `StorageRepository` interface is the base of the repositories that every storage backend implements:
+ * the CRUD, sorting and paging methods of Spring Data, plus the JPA batch methods, which the in-memory backend
+ * can honour as well. Unlike `JpaRepository` it does not include query by example, so no backend has to carry
+ * methods it cannot implement. Spring Data JPA still backs it with `SimpleJpaRepository`.
+ *
+ * @param <T>  The entity type.
+ * @param <ID> The type of the entity ID.
+ */
+
+@NoRepositoryBean
+public interface StorageRepository<T, ID> extends ListCrudRepository<T, ID>, ListPagingAndSortingRepository<T, ID> {
+
+	/**
+	 * Writes pending changes to the database.
+	 */
+
+	void flush();
+
+
+	/**
+	 * Saves an entity and flushes the change at once.
+	 */
+
+	<S extends T> S saveAndFlush(S entity);
+
+
+	/**
+	 * Saves the entities and flushes the changes at once.
+	 */
+
+	<S extends T> List<S> saveAllAndFlush(Iterable<S> entities);
+
+
+	/**
+	 * Deletes the given entities as one batch.
+	 */
+
+	void deleteAllInBatch(Iterable<T> entities);
+
+
+	/**
+	 * Deletes the entities with the given IDs as one batch.
+	 */
+
+	void deleteAllByIdInBatch(Iterable<ID> ids);
+
+
+	/**
+	 * Deletes all entities as one batch.
+	 */
+
+	void deleteAllInBatch();
+
+
+	/**
+	 * Returns a reference to the entity with the given ID without loading it.
+	 */
+
+	T getReferenceById(ID id);
+}
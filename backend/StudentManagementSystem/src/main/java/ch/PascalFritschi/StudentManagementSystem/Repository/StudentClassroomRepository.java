@@ -1,20 +1,39 @@
 package ch.PascalFritschi.StudentManagementSystem.Repository;
 
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
 import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.PascalFritschi.StudentManagementSystem.config.CacheConfig;
 
 
 /**
  * The `StudentClassroomRepository` interface provides methods to interact with the database for managing student-classroom relationships.
+ * Its query methods are read-only transactions and may be served by a read replica.
+ * Cached classrooms are detached entities whose roster must not outlive a change of the enrollments,
+ * so every write method below evicts the classrooms whose roster it changes.
  */
 
 @Repository
-public interface StudentClassroomRepository extends JpaRepository<StudentClassroom, Long> {
+@Transactional(readOnly = true)
+public interface StudentClassroomRepository extends StorageRepository<StudentClassroom, Long> {
     
 	
 	/**
@@ -30,11 +49,15 @@ public interface StudentClassroomRepository extends JpaRepository<StudentClassro
 	
 	/**
      * Retrieves a list of student-classroom relationships by class ID.
+     * The students and their own classrooms are fetched in the same statement.
+     * The result is kept in the query cache when the `l2cache` profile is active.
      *
      * @param classroom_id The ID of the classroom.
      * @return A list of student-classroom relationships associated with the specified class ID.
      */
 	
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	@EntityGraph(StudentClassroom.WITH_STUDENT)
 	List<StudentClassroom> findByClassRoomId(Long classroom_id);
 	
 	
@@ -46,5 +69,213 @@ public interface StudentClassroomRepository extends JpaRepository<StudentClassro
 	 */
 	
 	boolean existsByStudentIdAndClassRoomId(Long studentId, Long classRoomId);
+	
+	
+	/**
+	 * Retrieves the roster of a classroom in a single statement, as student list rows including each student's own classroom.
+	 * The result is kept in the query cache when the `l2cache` profile is active.
+	 *
+	 * @param classroom_id The ID of the classroom.
+	 * @return A list of the students enrolled in the classroom, ordered by student ID.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary(s.id, s.name, s.email, s.grade, c.id, c.name) "
+			+ "from StudentClassroom sc join sc.student s left join s.classRoom c "
+			+ "where sc.classRoom.id = :classroomId order by s.id")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<StudentSummary> findStudentsByClassRoomId(@Param("classroomId") Long classroom_id);
+	
+	
+	/**
+	 * Retrieves the existing enrollments among all combinations of the given students and classrooms, in a single IN query.
+	 *
+	 * @param studentIds   The IDs of the students.
+	 * @param classroomIds The IDs of the classrooms.
+	 * @return The (student, classroom) pairs that are already enrolled.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc where sc.student.id in :studentIds and sc.classRoom.id in :classroomIds")
+	List<EnrollmentPair> findExistingPairs(@Param("studentIds") Collection<Integer> studentIds,
+			@Param("classroomIds") Collection<Long> classroomIds);
+	
+	
+	/**
+	 * Retrieves the IDs of the classrooms a student is enrolled in, from the (student, classroom) index alone.
+	 *
+	 * @param studentId The ID of the student.
+	 * @return The IDs of the student's classrooms.
+	 */
+	
+	@Query("select sc.classRoom.id from StudentClassroom sc where sc.student.id = :studentId")
+	List<Long> findClassRoomIdsByStudentId(@Param("studentId") int studentId);
+	
+	
+	/**
+	 * Retrieves the IDs of the students enrolled in a classroom, from the (classroom, student) index alone.
+	 *
+	 * @param classroomId The ID of the classroom.
+	 * @return The IDs of the classroom's students.
+	 */
+	
+	@Query("select sc.student.id from StudentClassroom sc where sc.classRoom.id = :classroomId")
+	List<Integer> findStudentIdsByClassRoomId(@Param("classroomId") long classroomId);
+	
+	
+	/**
+	 * Retrieves every enrollment as a (student, classroom) pair, ordered by classroom and student.
+	 *
+	 * @return All enrollments.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc order by sc.classRoom.id, sc.student.id")
+	List<EnrollmentPair> findAllPairs();
+	
+	
+	/**
+	 * Streams every enrollment as a (student, classroom) pair, ordered by enrollment ID, straight off the JDBC cursor.
+	 * Must be called inside a transaction and the stream must be closed after use.
+	 *
+	 * @return A stream of all enrollments.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc order by sc.id")
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	Stream<EnrollmentPair> streamAllPairs();
+	
+	
+	/**
+	 * Retrieves the enrollments of the given students as (student, classroom) pairs, in a single IN query.
+	 *
+	 * @param studentIds The IDs of the students.
+	 * @return The enrollments of these students.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc where sc.student.id in :studentIds")
+	List<EnrollmentPair> findPairsByStudentIds(@Param("studentIds") Collection<Integer> studentIds);
+	
+	
+	/**
+	 * Retrieves the enrollments of the given classrooms as (student, classroom) pairs, in a single IN query.
+	 *
+	 * @param classroomIds The IDs of the classrooms.
+	 * @return The enrollments of these classrooms.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc where sc.classRoom.id in :classroomIds")
+	List<EnrollmentPair> findPairsByClassRoomIds(@Param("classroomIds") Collection<Long> classroomIds);
+	
+	
+	/**
+	 * Retrieves the enrollments of the students matching a filter as (student, classroom) pairs, in a single query.
+	 * A null criterion matches every student.
+	 *
+	 * @param grade       The grade of the students, or null.
+	 * @param classroomId The ID of the students' own classroom, or null.
+	 * @return The enrollments of these students.
+	 */
+	
+	@Query("select new ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair(sc.student.id, sc.classRoom.id) "
+			+ "from StudentClassroom sc where sc.student.id in (select s.id from Student s "
+			+ "where (:grade is null or s.grade = :grade) and (:classroomId is null or s.classRoom.id = :classroomId))")
+	List<EnrollmentPair> findPairsByStudentFilter(@Param("grade") String grade, @Param("classroomId") Long classroomId);
+	
+	
+	/**
+	 * Deletes the enrollments of the given students in one DELETE statement, without loading them.
+	 * Pending changes are flushed first and the persistence context is cleared afterwards;
+	 * Hibernate invalidates the second-level cache regions of the enrollments itself.
+	 *
+	 * @param studentIds The IDs of the students.
+	 * @return The number of deleted enrollments.
+	 */
+	
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	@Query("delete from StudentClassroom sc where sc.student.id in :studentIds")
+	int deleteByStudentIds(@Param("studentIds") Collection<Integer> studentIds);
+	
+	
+	/**
+	 * Deletes the enrollments of the students matching a filter in one DELETE statement with a subquery,
+	 * without loading them or binding their IDs. A null criterion matches every student.
+	 * Pending changes are flushed first and the persistence context is cleared afterwards.
+	 *
+	 * @param grade       The grade of the students, or null.
+	 * @param classroomId The ID of the students' own classroom, or null.
+	 * @return The number of deleted enrollments.
+	 */
+	
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	@Query("delete from StudentClassroom sc where sc.student.id in (select s.id from Student s "
+			+ "where (:grade is null or s.grade = :grade) and (:classroomId is null or s.classRoom.id = :classroomId))")
+	int deleteByStudentFilter(@Param("grade") String grade, @Param("classroomId") Long classroomId);
+	
+	
+	/**
+	 * Deletes the enrollments of the given classrooms in one DELETE statement, without loading them.
+	 * Pending changes are flushed first and the persistence context is cleared afterwards.
+	 *
+	 * @param classroomIds The IDs of the classrooms.
+	 * @return The number of deleted enrollments.
+	 */
+	
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	@Query("delete from StudentClassroom sc where sc.classRoom.id in :classroomIds")
+	int deleteByClassRoomIds(@Param("classroomIds") Collection<Long> classroomIds);
+	
+	
+	/**
+	 * Saves an enrollment and evicts its classroom from the cache.
+	 */
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, key = "#p0.classRoom.id", condition = "#p0.classRoom != null")
+	<S extends StudentClassroom> S save(S entity);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	<S extends StudentClassroom> List<S> saveAll(Iterable<S> entities);
+	
+	
+	/**
+	 * Deletes enrollments and evicts their classrooms from the cache.
+	 */
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	void deleteById(Long id);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, key = "#p0.classRoom.id", condition = "#p0.classRoom != null")
+	void delete(StudentClassroom entity);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	void deleteAllById(Iterable<? extends Long> ids);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	void deleteAll(Iterable<? extends StudentClassroom> entities);
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.CLASSROOMS, allEntries = true)
+	void deleteAll();
 
 }
\ No newline at end of file
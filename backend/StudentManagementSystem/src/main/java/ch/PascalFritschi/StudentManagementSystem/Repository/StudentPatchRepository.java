@@ -0,0 +1,49 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The `StudentPatchRepository` interface is the fragment of {@link StudentRepository} for partial updates.
+ * The set of changed columns is only known at run time, so the UPDATE statement cannot be a static `@Query`;
+ * {@link StudentPatchRepositoryImpl} builds it for the given columns.
+ */
+
+public interface StudentPatchRepository {
+
+	/**
+	 * The attributes of `Student` that can be updated with {@link #updateColumns}. The value of `classRoom`
+	 * is the `ClassRoom` the student moves to, of which only the ID is used, or null.
+	 */
+
+	Set<String> PATCHABLE_COLUMNS = Set.of("name", "email", "address", "phoneNumber", "birthdate", "grade", "classRoom");
+
+
+	/**
+	 * Sets the given columns of the given students in one UPDATE statement, without loading them, and increments
+	 * their version. Only the given columns are written.
+	 *
+	 * @param ids             The IDs of the students.
+	 * @param expectedVersion If not null, only students with this version are updated.
+	 * @param columns         The new values by attribute name; every key must be one of {@link #PATCHABLE_COLUMNS}.
+	 * @return The number of updated students.
+	 * @throws IllegalArgumentException If a key is not a patchable column.
+	 */
+
+	int updateColumns(Collection<Integer> ids, Long expectedVersion, Map<String, Object> columns);
+
+
+	/**
+	 * Sets the given columns of all students whose own classroom is the given one in one UPDATE statement,
+	 * without loading them or their IDs, and increments their version.
+	 *
+	 * @param classroomId The ID of the classroom.
+	 * @param columns     The new values by attribute name; every key must be one of {@link #PATCHABLE_COLUMNS}.
+	 * @return The number of updated students.
+	 * @throws IllegalArgumentException If a key is not a patchable column.
+	 */
+
+	int updateColumnsByClassRoom(long classroomId, Map<String, Object> columns);
+}
@@ -0,0 +1,67 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+
+/**
+ * The `StudentPatchRepositoryImpl` class implements {@link StudentPatchRepository} with an HQL bulk update.
+ * Spring Data picks it up by its name and merges it into the {@link StudentRepository} proxy, which adds the
+ * transaction and the cache eviction. Like a `@Modifying(flushAutomatically = true, clearAutomatically = true)`
+ * query, pending changes are flushed first and the persistence context is cleared afterwards; Hibernate
+ * invalidates the second-level cache region of the students itself.
+ */
+
+class StudentPatchRepositoryImpl implements StudentPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateColumns(Collection<Integer> ids, Long expectedVersion, Map<String, Object> columns) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String where = "s.id in :ids" + (expectedVersion == null ? "" : " and s.version = :version");
+        Query update = createUpdate(columns, where);
+        update.setParameter("ids", ids);
+        if (expectedVersion != null) {
+            update.setParameter("version", expectedVersion);
+        }
+        return execute(update);
+    }
+
+    @Override
+    public int updateColumnsByClassRoom(long classroomId, Map<String, Object> columns) {
+        Query update = createUpdate(columns, "s.classRoom.id = :classroomId");
+        update.setParameter("classroomId", classroomId);
+        return execute(update);
+    }
+
+    private Query createUpdate(Map<String, Object> columns, String where) {
+        // The keys end up in the statement, so only known attribute names are accepted
+        StringBuilder hql = new StringBuilder("update Student s set ");
+        for (String column : columns.keySet()) {
+            if (!PATCHABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Not a patchable column: " + column);
+            }
+            hql.append("s.").append(column).append(" = :").append(column).append(", ");
+        }
+        hql.append("s.version = s.version + 1 where ").append(where);
+
+        entityManager.flush();
+        Query update = entityManager.createQuery(hql.toString());
+        columns.forEach(update::setParameter);
+        return update;
+    }
+
+    private int execute(Query update) {
+        int updated = update.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -1,20 +1,47 @@
 package ch.PascalFritschi.StudentManagementSystem.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import ch.PascalFritschi.StudentManagementSystem.config.CacheConfig;
+import ch.PascalFritschi.StudentManagementSystem.dto.BirthdateCount;
+import ch.PascalFritschi.StudentManagementSystem.dto.GradeCount;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
 import ch.PascalFritschi.StudentManagementSystem.model.Student;
 
 
 /**
  * The `StudentRepository` interface provides methods to interact with the database for managing students.
+ * Lookups by `Long` ID are served from the `students` cache; every write method below evicts the affected entries.
+ * The read endpoints use the column-limited {@link StudentSummary} and {@link StudentDetail} projections;
+ * methods returning entities fetch the student's own classroom with the {@link Student#WITH_CLASSROOM} graph.
+ * Partial updates go through the {@link StudentPatchRepository} fragment, which writes only the changed columns.
+ * Query methods run in read-only transactions, so they can be served by a read replica; the write methods are
+ * redeclared here and therefore have to be marked `@Transactional` again.
  */
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Integer>{
+@Transactional(readOnly = true)
+public interface StudentRepository extends StorageRepository<Student, Integer>, StudentPatchRepository {
 
 
 	/**
@@ -23,18 +50,34 @@ public interface StudentRepository extends JpaRepository<Student, Integer>{
      * @return A list of all students.
      */
 	
+    @Override
+    @EntityGraph(Student.WITH_CLASSROOM)
     List<Student> findAll();
     
     /**
-     * Retrieves a student by their ID.
+     * Retrieves a student by their ID. Results are cached; missing students are not.
      *
      * @param student_id The ID of the student.
      * @return The student with the specified ID.
      */
     
+    @Cacheable(cacheNames = CacheConfig.STUDENTS, key = "#p0", unless = "#result == null")
+    @EntityGraph(Student.WITH_CLASSROOM)
     Student findById(Long student_id);
     
     
+    /**
+     * Retrieves all columns of a student and the name of their classroom, without loading the entity.
+     *
+     * @param id The ID of the student.
+     * @return An Optional containing the student if found, or an empty Optional if not found.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail(s.id, s.name, s.email, s.address, "
+            + "s.phoneNumber, s.birthdate, s.grade, c.id, c.name, s.version) from Student s left join s.classRoom c where s.id = :id")
+    Optional<StudentDetail> findDetailById(@Param("id") int id);
+    
+    
     /**
      * Retrieves a student by their name.
      *
@@ -42,6 +85,227 @@ public interface StudentRepository extends JpaRepository<Student, Integer>{
      * @return An Optional containing the student if found, or an empty Optional if not found.
      */
     
+    @EntityGraph(Student.WITH_CLASSROOM)
     Optional<Student> findByName(String studentName);
+    
+    
+    /**
+     * Retrieves the next page of the student list after the given cursor (keyset pagination on the ID).
+     * Only the listed columns are selected and no entities are created.
+     *
+     * @param afterId  The ID of the last student of the previous page, or 0 for the first page.
+     * @param pageable The page request; only its size is used, the offset is always 0.
+     * @return A list of at most {@code pageable.getPageSize()} students with an ID greater than {@code afterId}, ordered by ID.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary(s.id, s.name, s.email, s.grade, c.id, c.name) "
+            + "from Student s left join s.classRoom c where s.id > :afterId order by s.id")
+    List<StudentSummary> findSummariesAfter(@Param("afterId") int afterId, Pageable pageable);
+    
+    
+    /**
+     * Streams all columns of all students ordered by ID straight off the JDBC cursor.
+     * The rows are not entities, so the persistence context does not grow while streaming.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @return A stream of all students.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail(s.id, s.name, s.email, s.address, "
+            + "s.phoneNumber, s.birthdate, s.grade, c.id, c.name, s.version) from Student s left join s.classRoom c order by s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<StudentDetail> streamAllDetails();
+    
+    
+    /**
+     * Retrieves which of the given student IDs exist, in a single IN query.
+     *
+     * @param ids The student IDs to check.
+     * @return The subset of {@code ids} that belong to existing students.
+     */
+    
+    @Query("select s.id from Student s where s.id in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+    
+    
+    /**
+     * Checks whether any student has one of the given classes as own classroom, in a single IN query.
+     *
+     * @param classroomIds The IDs of the classes.
+     * @return True if at least one of the classes is still some student's own classroom.
+     */
+    
+    @Query("select count(s) > 0 from Student s where s.classRoom.id in :classroomIds")
+    boolean existsByClassRoomIds(@Param("classroomIds") Collection<Long> classroomIds);
+    
+    
+    /**
+     * Retrieves the ID, name and email of all students, used to build the search index.
+     *
+     * @return One row per student.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow(s.id, s.name, s.email) from Student s")
+    List<StudentSearchRow> findAllSearchRows();
+    
+    
+    /**
+     * Retrieves the ID, name and email of the given students, used to update the search index after a bulk update.
+     *
+     * @param ids The student IDs.
+     * @return One row per existing student.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow(s.id, s.name, s.email) "
+            + "from Student s where s.id in :ids")
+    List<StudentSearchRow> findSearchRowsByIds(@Param("ids") Collection<Integer> ids);
+    
+    
+    /**
+     * Retrieves the ID, name and email of the students whose own classroom is the given one,
+     * used to update the search index after a bulk update of the classroom.
+     *
+     * @param classroomId The ID of the classroom.
+     * @return One row per student of the classroom.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow(s.id, s.name, s.email) "
+            + "from Student s where s.classRoom.id = :classroomId")
+    List<StudentSearchRow> findSearchRowsByClassRoomId(@Param("classroomId") long classroomId);
+    
+    
+    /**
+     * Counts the students per grade in a single GROUP BY query.
+     *
+     * @return One row per grade, ordered by grade.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.GradeCount(s.grade, count(s)) "
+            + "from Student s group by s.grade order by s.grade")
+    List<GradeCount> findGradeCounts();
+    
+    
+    /**
+     * Counts the students per birthdate in a single GROUP BY query, which the age histogram is computed from.
+     * The result has at most one row per distinct day, however many students there are.
+     *
+     * @return One row per birthdate, ordered by birthdate.
+     */
+    
+    @Query("select new ch.PascalFritschi.StudentManagementSystem.dto.BirthdateCount(s.birthdate, count(s)) "
+            + "from Student s group by s.birthdate order by s.birthdate")
+    List<BirthdateCount> findBirthdateCounts();
+    
+    
+    /**
+     * Retrieves the IDs of the students matching a filter; a null criterion matches every student.
+     *
+     * @param grade       The grade of the students, or null.
+     * @param classroomId The ID of the students' own classroom, or null.
+     * @return The IDs of the matching students.
+     */
+    
+    @Query("select s.id from Student s where (:grade is null or s.grade = :grade) "
+            + "and (:classroomId is null or s.classRoom.id = :classroomId)")
+    List<Integer> findIdsByFilter(@Param("grade") String grade, @Param("classroomId") Long classroomId);
+    
+    
+    /**
+     * Deletes the given students in one DELETE statement, without loading them, and clears the student cache.
+     * Their enrollments must have been deleted before. Pending changes are flushed first and the persistence
+     * context is cleared afterwards; Hibernate invalidates the second-level cache regions of the students itself.
+     *
+     * @param ids The IDs of the students.
+     * @return The number of deleted students.
+     */
+    
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    @Query("delete from Student s where s.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
+    
+    
+    /**
+     * Deletes the students matching a filter in one DELETE statement, without loading them or binding their IDs,
+     * and clears the student cache. A null criterion matches every student. Their enrollments must have been
+     * deleted before, see {@link StudentClassroomRepository#deleteByStudentFilter(String, Long)}.
+     *
+     * @param grade       The grade of the students, or null.
+     * @param classroomId The ID of the students' own classroom, or null.
+     * @return The number of deleted students.
+     */
+    
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    @Query("delete from Student s where (:grade is null or s.grade = :grade) "
+            + "and (:classroomId is null or s.classRoom.id = :classroomId)")
+    int deleteByFilter(@Param("grade") String grade, @Param("classroomId") Long classroomId);
+    
+    
+    /**
+     * Updates the given columns of the given students without loading them and clears the student cache.
+     */
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    int updateColumns(Collection<Integer> ids, Long expectedVersion, Map<String, Object> columns);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    int updateColumnsByClassRoom(long classroomId, Map<String, Object> columns);
+    
+    
+    /**
+     * Saves a student and evicts it from the cache.
+     */
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.id.longValue()")
+    <S extends Student> S save(S entity);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.id.longValue()")
+    <S extends Student> S saveAndFlush(S entity);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    <S extends Student> List<S> saveAll(Iterable<S> entities);
+    
+    
+    /**
+     * Deletes students and evicts them from the cache.
+     */
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.longValue()")
+    void deleteById(Integer id);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#p0.id.longValue()")
+    void delete(Student entity);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    void deleteAllById(Iterable<? extends Integer> ids);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    void deleteAll(Iterable<? extends Student> entities);
+    
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    void deleteAll();
 	
 }
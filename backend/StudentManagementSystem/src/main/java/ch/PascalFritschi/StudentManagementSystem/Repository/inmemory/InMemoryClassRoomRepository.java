@@ -0,0 +1,165 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStore.ClassRoomRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+
+
+/**
+ * The `InMemoryClassRoomRepository` class is the {@link ClassRoomRepository} of the `inmemory` profile.
+ * The student count of the classroom list is the size of the classroom's entry in the enrollment index.
+ * Enrollments are saved through the enrollment repository only; the `studentClassrooms` of a saved classroom are ignored.
+ */
+
+@Repository
+@Profile("inmemory")
+public class InMemoryClassRoomRepository extends InMemoryRepository<ClassRoom, Long> implements ClassRoomRepository {
+
+    public InMemoryClassRoomRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public List<ClassRoomSummary> findAllSummaries() {
+        return store.read(() -> {
+            LongTable<ClassRoomRow> classRooms = store.classRooms();
+            List<ClassRoomSummary> summaries = new ArrayList<>(classRooms.size());
+            for (int i = 0; i < classRooms.size(); i++) {
+                ClassRoomRow row = classRooms.valueAt(i);
+                summaries.add(new ClassRoomSummary(row.id(), row.name(), store.enrollmentsOfClassRoom(row.id()).size()));
+            }
+            return summaries;
+        });
+    }
+
+    @Override
+    public Optional<ClassRoom> findById(Long id) {
+        return super.findById(id);
+    }
+
+    @Override
+    public Optional<ClassRoom> findByName(String name) {
+        return store.read(() -> Optional.ofNullable(store.classRoomNamed(name)).map(store::toClassRoom));
+    }
+
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        return store.read(() -> {
+            List<Long> existing = new ArrayList<>();
+            for (Long id : ids) {
+                if (store.classRooms().get(id) != null) {
+                    existing.add(id);
+                }
+            }
+            return existing;
+        });
+    }
+
+    @Override
+    public Stream<ClassRoomRef> streamAllRefs() {
+        return streamInKeyOrder(store::classRooms, row -> new ClassRoomRef(row.id(), row.name()));
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return store.deleteClassRooms(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.read(() -> store.classRooms().get(id) != null);
+    }
+
+    @Override
+    public long count() {
+        return store.read(() -> (long) store.classRooms().size());
+    }
+
+    @Override
+    public <S extends ClassRoom> S save(S entity) {
+        return super.save(entity);
+    }
+
+    @Override
+    public <S extends ClassRoom> List<S> saveAll(Iterable<S> entities) {
+        return super.saveAll(entities);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        super.deleteById(id);
+    }
+
+    @Override
+    public void delete(ClassRoom entity) {
+        super.delete(entity);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        super.deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends ClassRoom> entities) {
+        super.deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAll() {
+        super.deleteAll();
+    }
+
+    @Override
+    ClassRoom load(Long id) {
+        ClassRoomRow row = store.classRooms().get(id);
+        return row == null ? null : store.toClassRoom(row);
+    }
+
+    @Override
+    List<Long> loadIds() {
+        LongTable<ClassRoomRow> classRooms = store.classRooms();
+        List<Long> ids = new ArrayList<>(classRooms.size());
+        for (int i = 0; i < classRooms.size(); i++) {
+            ids.add(classRooms.keyAt(i));
+        }
+        return ids;
+    }
+
+    @Override
+    <S extends ClassRoom> S persist(S entity) {
+        ClassRoomRow stored = store.saveClassRoom(new ClassRoomRow(
+                entity.getId() == null ? 0 : entity.getId(), entity.getName(), entity.getVersion()));
+        entity.setId(stored.id());
+        entity.setVersion(stored.version());
+        return entity;
+    }
+
+    @Override
+    void remove(Long id) {
+        store.deleteClassRoom(id);
+    }
+
+    @Override
+    Long idOf(ClassRoom entity) {
+        return entity.getId();
+    }
+
+    @Override
+    ClassRoom reference(Long id) {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setId(id);
+        return classRoom;
+    }
+}
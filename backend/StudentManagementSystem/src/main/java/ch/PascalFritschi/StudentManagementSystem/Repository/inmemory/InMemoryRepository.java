@@ -0,0 +1,304 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StorageRepository;
+
+
+/**
+ * The `InMemoryRepository` class implements the generic {@link StorageRepository} methods on top of {@link InMemoryStore}
+ * for the in-memory repositories; subclasses convert between entities and rows and add their query methods.
+ * Entities are always detached copies: changing one has no effect until it is saved.
+ * Sorted reads load all entities and sort them by their bean properties, including nested ones like `classRoom.name`.
+ *
+ * @param <T>  The entity type.
+ * @param <ID> The type of the entity ID.
+ */
+
+abstract class InMemoryRepository<T, ID> implements StorageRepository<T, ID> {
+
+    /**
+     * Rows read per lock acquisition by {@link #streamInKeyOrder(Supplier, Function)}.
+     */
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    protected final InMemoryStore store;
+
+    InMemoryRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the entity with the given ID, or null. Called under the store's lock.
+     */
+
+    abstract T load(ID id);
+
+    /**
+     * Returns the IDs of all entities in ID order. Called under the store's lock.
+     */
+
+    abstract List<ID> loadIds();
+
+    /**
+     * Inserts the entity if it has no ID yet, otherwise updates it; sets the ID and version on the given entity.
+     */
+
+    abstract <S extends T> S persist(S entity);
+
+    /**
+     * Deletes the entity with the given ID, if it exists, with everything cascading from it.
+     */
+
+    abstract void remove(ID id);
+
+    abstract ID idOf(T entity);
+
+    /**
+     * Returns an entity carrying only the ID, like the proxy JPA returns for a reference.
+     */
+
+    abstract T reference(ID id);
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return persist(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        return store.write(() -> {
+            List<S> saved = new ArrayList<>();
+            for (S entity : entities) {
+                saved.add(persist(entity));
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void flush() {
+        // Every write is applied immediately
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(store.read(() -> load(id)));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<T> findAll() {
+        return store.read(() -> {
+            List<T> entities = new ArrayList<>();
+            for (ID id : loadIds()) {
+                entities.add(load(id));
+            }
+            return entities;
+        });
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        return store.read(() -> {
+            List<T> entities = new ArrayList<>();
+            for (ID id : ids) {
+                T entity = load(id);
+                if (entity != null) {
+                    entities.add(entity);
+                }
+            }
+            return entities;
+        });
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> entities = findAll();
+        if (sort.isSorted()) {
+            // Ties keep the ID order of findAll, as the sort is stable
+            entities.sort(comparator(sort));
+        }
+        return entities;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> all = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all);
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        store.write(() -> remove(id));
+    }
+
+    @Override
+    public void delete(T entity) {
+        ID id = idOf(entity);
+        if (id != null) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        store.write(() -> ids.forEach(this::remove));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        store.write(() -> {
+            for (T entity : entities) {
+                ID id = idOf(entity);
+                if (id != null) {
+                    remove(id);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        store.write(() -> loadIds().forEach(this::remove));
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public T getReferenceById(ID id) {
+        return reference(id);
+    }
+
+    /**
+     * Streams the rows of a table in key order, converted by the given function. The read lock is held for one chunk
+     * at a time, and the next chunk continues after the last key returned, like keyset pagination.
+     */
+
+    <R, V> Stream<V> streamInKeyOrder(Supplier<LongTable<R>> table, Function<R, V> converter) {
+        Iterator<V> chunks = new Iterator<>() {
+
+            private List<V> chunk = List.of();
+            private int position;
+            private long lastKey = Long.MIN_VALUE;
+
+            @Override
+            public boolean hasNext() {
+                if (position == chunk.size()) {
+                    chunk = store.read(() -> {
+                        LongTable<R> rows = table.get();
+                        int from = rows.indexAfter(lastKey);
+                        int to = Math.min(from + STREAM_CHUNK_SIZE, rows.size());
+                        List<V> next = new ArrayList<>(to - from);
+                        for (int i = from; i < to; i++) {
+                            next.add(converter.apply(rows.valueAt(i)));
+                        }
+                        if (to > from) {
+                            lastKey = rows.keyAt(to - 1);
+                        }
+                        return next;
+                    });
+                    position = 0;
+                }
+                return position < chunk.size();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Builds a comparator for the orders of a sort. Like MySQL, it sorts null as the smallest value unless the order
+     * asks for nulls first or last.
+     */
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> values = order.isIgnoreCase()
+                    ? (first, second) -> String.CASE_INSENSITIVE_ORDER.compare(first.toString(), second.toString())
+                    : (first, second) -> ((Comparable) first).compareTo(second);
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            values = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> Comparator.nullsFirst(values);
+                case NULLS_LAST -> Comparator.nullsLast(values);
+                case NATIVE -> order.isAscending() ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            };
+            comparator = comparator.thenComparing(entity -> property(entity, order.getProperty()), values);
+        }
+        return comparator;
+    }
+
+    /**
+     * Reads a possibly nested property of an entity; null if an object on the path is null.
+     */
+
+    private static Object property(Object entity, String path) {
+        try {
+            return new BeanWrapperImpl(entity).getPropertyValue(path);
+        } catch (NullValueInNestedPathException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+
+/**
+ * The `InMemoryStore` class holds the students, classrooms and enrollments of the `inmemory` profile.
+ * Rows are immutable records in {@link LongTable}s keyed by ID; the name and link indexes are kept next to them:
+ * students by name, classrooms by (unique) name, students by their own classroom, and the enrollments
+ * both by classroom and by student, each entry carrying the enrollment ID.
+ *
+ * Readers share a read lock and writers take the write lock, so a reader never sees half of a cascading delete.
+ * Writes enforce what the database schema enforces for the JPA repositories: unique classroom names,
+ * unique (student, classroom) enrollments, existing foreign keys and optimistic locking versions.
+ * There is no rollback; a write is visible as soon as it returns.
+ */
+
+@Component
+@Profile("inmemory")
+class InMemoryStore {
+
+    /**
+     * The value of {@link StudentRow#classRoomId()} for a student without a classroom. Generated IDs start at 1.
+     */
+
+    static final long NO_CLASSROOM = 0;
+
+    record StudentRow(int id, String name, String email, String address, String phoneNumber, LocalDate birthdate,
+            String grade, long classRoomId, long version) {
+
+        StudentRow stored(int id, long version) {
+            return new StudentRow(id, name, email, address, phoneNumber, birthdate, grade, classRoomId, version);
+        }
+    }
+
+    record ClassRoomRow(long id, String name, long version) {
+    }
+
+    record EnrollmentRow(long id, int studentId, long classRoomId, long version) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongTable<StudentRow> students = new LongTable<>();
+    private final LongTable<ClassRoomRow> classRooms = new LongTable<>();
+    private final LongTable<EnrollmentRow> enrollments = new LongTable<>();
+
+    private final Map<String, LinkSet> studentsByName = new HashMap<>();
+    private final Map<String, Long> classRoomsByName = new HashMap<>();
+    private final LongTable<LinkSet> studentsByClassRoom = new LongTable<>();
+    private final LongTable<LinkSet> enrollmentsByClassRoom = new LongTable<>();
+    private final LongTable<LinkSet> enrollmentsByStudent = new LongTable<>();
+
+    private int lastStudentId;
+    private long lastClassRoomId;
+    private long lastEnrollmentId;
+
+
+    /**
+     * Runs a query under the read lock. The table and index accessors below may only be used inside.
+     */
+
+    <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Runs several writes under the write lock, so readers see all of them or none.
+     */
+
+    <R> R write(Supplier<R> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void write(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    LongTable<StudentRow> students() {
+        return students;
+    }
+
+    LongTable<ClassRoomRow> classRooms() {
+        return classRooms;
+    }
+
+    LinkSet studentsNamed(String name) {
+        return studentsByName.getOrDefault(name, LinkSet.EMPTY);
+    }
+
+    LinkSet studentsOfClassRoom(long classRoomId) {
+        LinkSet links = studentsByClassRoom.get(classRoomId);
+        return links == null ? LinkSet.EMPTY : links;
+    }
+
+    ClassRoomRow classRoomNamed(String name) {
+        Long id = classRoomsByName.get(name);
+        return id == null ? null : classRooms.get(id);
+    }
+
+    LongTable<EnrollmentRow> enrollments() {
+        return enrollments;
+    }
+
+
+    /**
+     * Returns the students enrolled in a classroom, each with its enrollment ID as reference.
+     */
+
+    LinkSet enrollmentsOfClassRoom(long classRoomId) {
+        LinkSet links = enrollmentsByClassRoom.get(classRoomId);
+        return links == null ? LinkSet.EMPTY : links;
+    }
+
+
+    /**
+     * Returns the classrooms a student is enrolled in, each with its enrollment ID as reference.
+     */
+
+    LinkSet enrollmentsOfStudent(long studentId) {
+        LinkSet links = enrollmentsByStudent.get(studentId);
+        return links == null ? LinkSet.EMPTY : links;
+    }
+
+    StudentRow saveStudent(StudentRow row) {
+        return write(() -> {
+            if (row.classRoomId() != NO_CLASSROOM && classRooms.get(row.classRoomId()) == null) {
+                throw new DataIntegrityViolationException("Classroom " + row.classRoomId() + " does not exist");
+            }
+            StudentRow stored;
+            if (row.id() == 0) {
+                stored = row.stored(++lastStudentId, 0);
+            } else {
+                StudentRow current = students.get(row.id());
+                if (current == null || current.version() != row.version()) {
+                    throw new ObjectOptimisticLockingFailureException(Student.class, row.id());
+                }
+                unindex(current);
+                stored = row.stored(row.id(), current.version() + 1);
+            }
+            students.put(stored.id(), stored);
+            if (stored.name() != null) {
+                studentsByName.merge(stored.name(), LinkSet.EMPTY.with(stored.id(), 0),
+                        (links, added) -> links.with(stored.id(), 0));
+            }
+            if (stored.classRoomId() != NO_CLASSROOM) {
+                link(studentsByClassRoom, stored.classRoomId(), stored.id(), 0);
+            }
+            return stored;
+        });
+    }
+
+
+    /**
+     * Deletes a student together with the student's enrollments.
+     */
+
+    void deleteStudent(int id) {
+        write(() -> {
+            StudentRow current = students.remove(id);
+            if (current == null) {
+                return;
+            }
+            unindex(current);
+            LinkSet links = enrollmentsByStudent.remove(id);
+            if (links != null) {
+                for (int i = 0; i < links.size(); i++) {
+                    enrollments.remove(links.ref(i));
+                    unlink(enrollmentsByClassRoom, links.id(i), id);
+                }
+            }
+        });
+    }
+
+    ClassRoomRow saveClassRoom(ClassRoomRow row) {
+        return write(() -> {
+            Long namedId = row.name() == null ? null : classRoomsByName.get(row.name());
+            if (namedId != null && namedId != row.id()) {
+                throw new DataIntegrityViolationException("Duplicate classroom name: " + row.name());
+            }
+            ClassRoomRow stored;
+            if (row.id() == 0) {
+                stored = new ClassRoomRow(++lastClassRoomId, row.name(), 0);
+            } else {
+                ClassRoomRow current = classRooms.get(row.id());
+                if (current == null || current.version() != row.version()) {
+                    throw new ObjectOptimisticLockingFailureException(ClassRoom.class, row.id());
+                }
+                if (current.name() != null) {
+                    classRoomsByName.remove(current.name());
+                }
+                stored = new ClassRoomRow(row.id(), row.name(), current.version() + 1);
+            }
+            classRooms.put(stored.id(), stored);
+            if (stored.name() != null) {
+                classRoomsByName.put(stored.name(), stored.id());
+            }
+            return stored;
+        });
+    }
+
+
+    /**
+     * Deletes a classroom together with its enrollments. A classroom that is still the own classroom
+     * of a student cannot be deleted, like the foreign key of the student table prevents it.
+     */
+
+    void deleteClassRoom(long id) {
+        write(() -> {
+            ClassRoomRow current = classRooms.get(id);
+            if (current == null) {
+                return;
+            }
+            LinkSet members = studentsByClassRoom.get(id);
+            if (members != null) {
+                throw new DataIntegrityViolationException(
+                        "Classroom " + id + " is the classroom of " + members.size() + " students");
+            }
+            classRooms.remove(id);
+            if (current.name() != null) {
+                classRoomsByName.remove(current.name());
+            }
+            LinkSet links = enrollmentsByClassRoom.remove(id);
+            if (links != null) {
+                for (int i = 0; i < links.size(); i++) {
+                    enrollments.remove(links.ref(i));
+                    unlink(enrollmentsByStudent, links.id(i), id);
+                }
+            }
+        });
+    }
+
+
+
+    /**
+     * Deletes the given classrooms with their enrollments, or none of them if any is still some student's own classroom.
+     *
+     * @return The number of deleted classrooms.
+     */
+
+    int deleteClassRooms(Collection<Long> ids) {
+        return write(() -> {
+            for (Long id : ids) {
+                LinkSet members = studentsByClassRoom.get(id);
+                if (members != null) {
+                    throw new DataIntegrityViolationException(
+                            "Classroom " + id + " is the classroom of " + members.size() + " students");
+                }
+            }
+            int deleted = 0;
+            for (Long id : ids) {
+                if (classRooms.get(id) != null) {
+                    deleteClassRoom(id);
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    EnrollmentRow saveEnrollment(EnrollmentRow row) {
+        return write(() -> {
+            if (students.get(row.studentId()) == null || classRooms.get(row.classRoomId()) == null) {
+                throw new DataIntegrityViolationException("Student " + row.studentId() + " or classroom "
+                        + row.classRoomId() + " does not exist");
+            }
+            long enrolledId = enrollmentsOfStudent(row.studentId()).refOf(row.classRoomId());
+            if (enrolledId != LinkSet.NONE && enrolledId != row.id()) {
+                throw new DataIntegrityViolationException("Student " + row.studentId()
+                        + " is already enrolled in classroom " + row.classRoomId());
+            }
+            EnrollmentRow stored;
+            if (row.id() == 0) {
+                stored = new EnrollmentRow(++lastEnrollmentId, row.studentId(), row.classRoomId(), 0);
+            } else {
+                EnrollmentRow current = enrollments.get(row.id());
+                if (current == null || current.version() != row.version()) {
+                    throw new ObjectOptimisticLockingFailureException(StudentClassroom.class, row.id());
+                }
+                unlink(enrollmentsByStudent, current.studentId(), current.classRoomId());
+                unlink(enrollmentsByClassRoom, current.classRoomId(), current.studentId());
+                stored = new EnrollmentRow(row.id(), row.studentId(), row.classRoomId(), current.version() + 1);
+            }
+            enrollments.put(stored.id(), stored);
+            link(enrollmentsByStudent, stored.studentId(), stored.classRoomId(), stored.id());
+            link(enrollmentsByClassRoom, stored.classRoomId(), stored.studentId(), stored.id());
+            return stored;
+        });
+    }
+
+    void deleteEnrollment(long id) {
+        write(() -> {
+            EnrollmentRow current = enrollments.remove(id);
+            if (current != null) {
+                unlink(enrollmentsByStudent, current.studentId(), current.classRoomId());
+                unlink(enrollmentsByClassRoom, current.classRoomId(), current.studentId());
+            }
+        });
+    }
+
+
+    /**
+     * Builds a detached student entity, with its own classroom, from a row. Called under the lock.
+     */
+
+    Student toStudent(StudentRow row) {
+        Student student = new Student();
+        student.setId(row.id());
+        student.setName(row.name());
+        student.setEmail(row.email());
+        student.setAddress(row.address());
+        student.setPhoneNumber(row.phoneNumber());
+        student.setBirthdate(row.birthdate());
+        student.setGrade(row.grade());
+        student.setVersion(row.version());
+        if (row.classRoomId() != NO_CLASSROOM) {
+            student.setClassRoom(toClassRoom(classRooms.get(row.classRoomId())));
+        }
+        return student;
+    }
+
+    ClassRoom toClassRoom(ClassRoomRow row) {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setId(row.id());
+        classRoom.setName(row.name());
+        classRoom.setVersion(row.version());
+        return classRoom;
+    }
+
+    StudentClassroom toEnrollment(EnrollmentRow row) {
+        StudentClassroom enrollment = new StudentClassroom(toClassRoom(classRooms.get(row.classRoomId())),
+                toStudent(students.get(row.studentId())));
+        enrollment.setId(row.id());
+        enrollment.setVersion(row.version());
+        return enrollment;
+    }
+
+
+    /**
+     * Returns the reference of a student's own classroom, as selected by the projections, or null. Called under the lock.
+     */
+
+    ClassRoomRef classRoomRef(StudentRow row) {
+        if (row.classRoomId() == NO_CLASSROOM) {
+            return null;
+        }
+        return new ClassRoomRef(row.classRoomId(), classRooms.get(row.classRoomId()).name());
+    }
+
+
+    /**
+     * Returns the IDs of the students matching a filter, in ID order; a null criterion matches every student.
+     * Called under the lock.
+     */
+
+    List<Integer> studentIdsMatching(String grade, Long classroomId) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < students.size(); i++) {
+            StudentRow row = students.valueAt(i);
+            if ((grade == null || grade.equals(row.grade())) && (classroomId == null || classroomId == row.classRoomId())) {
+                ids.add(row.id());
+            }
+        }
+        return ids;
+    }
+
+    private void unindex(StudentRow row) {
+        if (row.name() != null) {
+            studentsByName.computeIfPresent(row.name(), (name, links) -> {
+                LinkSet rest = links.without(row.id());
+                return rest.isEmpty() ? null : rest;
+            });
+        }
+        if (row.classRoomId() != NO_CLASSROOM) {
+            unlink(studentsByClassRoom, row.classRoomId(), row.id());
+        }
+    }
+
+    private static void link(LongTable<LinkSet> index, long key, long id, long ref) {
+        LinkSet links = index.get(key);
+        index.put(key, (links == null ? LinkSet.EMPTY : links).with(id, ref));
+    }
+
+    private static void unlink(LongTable<LinkSet> index, long key, long id) {
+        LinkSet links = index.get(key);
+        if (links != null) {
+            LinkSet rest = links.without(id);
+            if (rest.isEmpty()) {
+                index.remove(key);
+            } else {
+                index.put(key, rest);
+            }
+        }
+    }
+}
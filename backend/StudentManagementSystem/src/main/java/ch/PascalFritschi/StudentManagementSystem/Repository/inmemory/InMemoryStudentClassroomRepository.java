@@ -0,0 +1,289 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStore.ClassRoomRow;
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStore.EnrollmentRow;
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStore.StudentRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+
+/**
+ * The `InMemoryStudentClassroomRepository` class is the {@link StudentClassroomRepository} of the `inmemory` profile.
+ * The lookups by student or classroom go through the store's enrollment indexes, which list the students
+ * and classrooms in ID order and lead to the enrollment rows by their ID.
+ * The methods carrying cache annotations in the interface are overridden here so the annotations apply to them.
+ */
+
+@Repository
+@Profile("inmemory")
+public class InMemoryStudentClassroomRepository extends InMemoryRepository<StudentClassroom, Long>
+        implements StudentClassroomRepository {
+
+    public InMemoryStudentClassroomRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public Optional<StudentClassroom> findByStudentIdAndClassRoomId(Long student_id, Long classroom_id) {
+        return store.read(() -> {
+            long id = store.enrollmentsOfStudent(student_id).refOf(classroom_id);
+            return id == LinkSet.NONE ? Optional.empty() : Optional.of(store.toEnrollment(store.enrollments().get(id)));
+        });
+    }
+
+    @Override
+    public List<StudentClassroom> findByClassRoomId(Long classroom_id) {
+        return store.read(() -> {
+            LinkSet links = store.enrollmentsOfClassRoom(classroom_id);
+            List<StudentClassroom> enrollments = new ArrayList<>(links.size());
+            for (int i = 0; i < links.size(); i++) {
+                enrollments.add(store.toEnrollment(store.enrollments().get(links.ref(i))));
+            }
+            return enrollments;
+        });
+    }
+
+    @Override
+    public boolean existsByStudentIdAndClassRoomId(Long studentId, Long classRoomId) {
+        return store.read(() -> store.enrollmentsOfStudent(studentId).contains(classRoomId));
+    }
+
+    @Override
+    public List<StudentSummary> findStudentsByClassRoomId(Long classroom_id) {
+        return store.read(() -> {
+            LinkSet links = store.enrollmentsOfClassRoom(classroom_id);
+            List<StudentSummary> students = new ArrayList<>(links.size());
+            for (int i = 0; i < links.size(); i++) {
+                StudentRow row = store.students().get(links.id(i));
+                students.add(new StudentSummary(row.id(), row.name(), row.email(), row.grade(), store.classRoomRef(row)));
+            }
+            return students;
+        });
+    }
+
+    @Override
+    public List<EnrollmentPair> findExistingPairs(Collection<Integer> studentIds, Collection<Long> classroomIds) {
+        return store.read(() -> {
+            List<EnrollmentPair> pairs = new ArrayList<>();
+            for (Integer studentId : studentIds) {
+                LinkSet links = store.enrollmentsOfStudent(studentId);
+                for (int i = 0; i < links.size(); i++) {
+                    if (classroomIds.contains(links.id(i))) {
+                        pairs.add(new EnrollmentPair(studentId, links.id(i)));
+                    }
+                }
+            }
+            return pairs;
+        });
+    }
+
+    @Override
+    public List<Long> findClassRoomIdsByStudentId(int studentId) {
+        return store.read(() -> {
+            LinkSet links = store.enrollmentsOfStudent(studentId);
+            List<Long> ids = new ArrayList<>(links.size());
+            for (int i = 0; i < links.size(); i++) {
+                ids.add(links.id(i));
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public List<Integer> findStudentIdsByClassRoomId(long classroomId) {
+        return store.read(() -> {
+            LinkSet links = store.enrollmentsOfClassRoom(classroomId);
+            List<Integer> ids = new ArrayList<>(links.size());
+            for (int i = 0; i < links.size(); i++) {
+                ids.add((int) links.id(i));
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public List<EnrollmentPair> findAllPairs() {
+        return store.read(() -> {
+            List<EnrollmentPair> pairs = new ArrayList<>(store.enrollments().size());
+            LongTable<ClassRoomRow> classRooms = store.classRooms();
+            for (int c = 0; c < classRooms.size(); c++) {
+                long classroomId = classRooms.keyAt(c);
+                LinkSet links = store.enrollmentsOfClassRoom(classroomId);
+                for (int i = 0; i < links.size(); i++) {
+                    pairs.add(new EnrollmentPair((int) links.id(i), classroomId));
+                }
+            }
+            return pairs;
+        });
+    }
+
+    @Override
+    public Stream<EnrollmentPair> streamAllPairs() {
+        return streamInKeyOrder(store::enrollments, row -> new EnrollmentPair(row.studentId(), row.classRoomId()));
+    }
+
+    @Override
+    public List<EnrollmentPair> findPairsByStudentIds(Collection<Integer> studentIds) {
+        return store.read(() -> {
+            List<EnrollmentPair> pairs = new ArrayList<>();
+            for (Integer studentId : studentIds) {
+                LinkSet links = store.enrollmentsOfStudent(studentId);
+                for (int i = 0; i < links.size(); i++) {
+                    pairs.add(new EnrollmentPair(studentId, links.id(i)));
+                }
+            }
+            return pairs;
+        });
+    }
+
+    @Override
+    public List<EnrollmentPair> findPairsByClassRoomIds(Collection<Long> classroomIds) {
+        return store.read(() -> {
+            List<EnrollmentPair> pairs = new ArrayList<>();
+            for (Long classroomId : classroomIds) {
+                LinkSet links = store.enrollmentsOfClassRoom(classroomId);
+                for (int i = 0; i < links.size(); i++) {
+                    pairs.add(new EnrollmentPair((int) links.id(i), classroomId));
+                }
+            }
+            return pairs;
+        });
+    }
+
+    @Override
+    public int deleteByStudentIds(Collection<Integer> studentIds) {
+        return store.write(() -> {
+            int deleted = 0;
+            for (Integer studentId : studentIds) {
+                LinkSet links = store.enrollmentsOfStudent(studentId);
+                for (int i = 0; i < links.size(); i++) {
+                    store.deleteEnrollment(links.ref(i));
+                }
+                deleted += links.size();
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public List<EnrollmentPair> findPairsByStudentFilter(String grade, Long classroomId) {
+        return store.read(() -> findPairsByStudentIds(store.studentIdsMatching(grade, classroomId)));
+    }
+
+    @Override
+    public int deleteByStudentFilter(String grade, Long classroomId) {
+        return store.write(() -> deleteByStudentIds(store.studentIdsMatching(grade, classroomId)));
+    }
+
+    @Override
+    public int deleteByClassRoomIds(Collection<Long> classroomIds) {
+        return store.write(() -> {
+            int deleted = 0;
+            for (Long classroomId : classroomIds) {
+                LinkSet links = store.enrollmentsOfClassRoom(classroomId);
+                for (int i = 0; i < links.size(); i++) {
+                    store.deleteEnrollment(links.ref(i));
+                }
+                deleted += links.size();
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public long count() {
+        return store.read(() -> (long) store.enrollments().size());
+    }
+
+    @Override
+    public <S extends StudentClassroom> S save(S entity) {
+        return super.save(entity);
+    }
+
+    @Override
+    public <S extends StudentClassroom> List<S> saveAll(Iterable<S> entities) {
+        return super.saveAll(entities);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        super.deleteById(id);
+    }
+
+    @Override
+    public void delete(StudentClassroom entity) {
+        super.delete(entity);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        super.deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends StudentClassroom> entities) {
+        super.deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAll() {
+        super.deleteAll();
+    }
+
+    @Override
+    StudentClassroom load(Long id) {
+        EnrollmentRow row = store.enrollments().get(id);
+        return row == null ? null : store.toEnrollment(row);
+    }
+
+    @Override
+    List<Long> loadIds() {
+        LongTable<EnrollmentRow> enrollments = store.enrollments();
+        List<Long> ids = new ArrayList<>(enrollments.size());
+        for (int i = 0; i < enrollments.size(); i++) {
+            ids.add(enrollments.keyAt(i));
+        }
+        return ids;
+    }
+
+    @Override
+    <S extends StudentClassroom> S persist(S entity) {
+        if (entity.getStudent() == null || entity.getClassRoom() == null || entity.getClassRoom().getId() == null) {
+            throw new DataIntegrityViolationException("An enrollment needs a student and a classroom");
+        }
+        EnrollmentRow stored = store.saveEnrollment(new EnrollmentRow(entity.getId() == null ? 0 : entity.getId(),
+                entity.getStudent().getId(), entity.getClassRoom().getId(), entity.getVersion()));
+        entity.setId(stored.id());
+        entity.setVersion(stored.version());
+        return entity;
+    }
+
+    @Override
+    void remove(Long id) {
+        store.deleteEnrollment(id);
+    }
+
+    @Override
+    Long idOf(StudentClassroom entity) {
+        return entity.getId();
+    }
+
+    @Override
+    StudentClassroom reference(Long id) {
+        StudentClassroom enrollment = new StudentClassroom();
+        enrollment.setId(id);
+        return enrollment;
+    }
+}
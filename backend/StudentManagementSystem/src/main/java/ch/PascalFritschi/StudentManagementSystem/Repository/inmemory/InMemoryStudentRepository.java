@@ -0,0 +1,370 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStore.StudentRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.BirthdateCount;
+import ch.PascalFritschi.StudentManagementSystem.dto.GradeCount;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+
+/**
+ * The `InMemoryStudentRepository` class is the {@link StudentRepository} of the `inmemory` profile.
+ * Name lookups use the store's name index; the list, export and search rows are read in ID order from the student table.
+ * The methods carrying cache annotations in the interface are overridden here so the annotations apply to them.
+ */
+
+@Repository
+@Profile("inmemory")
+public class InMemoryStudentRepository extends InMemoryRepository<Student, Integer> implements StudentRepository {
+
+    public InMemoryStudentRepository(InMemoryStore store) {
+        super(store);
+    }
+
+    @Override
+    public List<Student> findAll() {
+        return store.read(() -> {
+            LongTable<StudentRow> students = store.students();
+            List<Student> result = new ArrayList<>(students.size());
+            for (int i = 0; i < students.size(); i++) {
+                result.add(store.toStudent(students.valueAt(i)));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Student findById(Long student_id) {
+        return store.read(() -> load(student_id.intValue()));
+    }
+
+    @Override
+    public Optional<StudentDetail> findDetailById(int id) {
+        return store.read(() -> Optional.ofNullable(store.students().get(id)).map(this::toDetail));
+    }
+
+    @Override
+    public Optional<Student> findByName(String studentName) {
+        return store.read(() -> {
+            LinkSet ids = store.studentsNamed(studentName);
+            if (ids.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, ids.size());
+            }
+            return ids.isEmpty() ? Optional.empty() : Optional.of(load((int) ids.id(0)));
+        });
+    }
+
+    @Override
+    public List<StudentSummary> findSummariesAfter(int afterId, Pageable pageable) {
+        return store.read(() -> {
+            LongTable<StudentRow> students = store.students();
+            List<StudentSummary> page = new ArrayList<>(pageable.getPageSize());
+            int from = students.indexAfter(afterId) + (int) pageable.getOffset();
+            int end = Math.min(students.size(), from + pageable.getPageSize());
+            for (int i = from; i < end; i++) {
+                StudentRow row = students.valueAt(i);
+                page.add(new StudentSummary(row.id(), row.name(), row.email(), row.grade(), store.classRoomRef(row)));
+            }
+            return page;
+        });
+    }
+
+
+    @Override
+    public Stream<StudentDetail> streamAllDetails() {
+        return streamInKeyOrder(store::students, this::toDetail);
+    }
+
+    @Override
+    public List<Integer> findExistingIds(Collection<Integer> ids) {
+        return store.read(() -> {
+            List<Integer> existing = new ArrayList<>();
+            for (Integer id : ids) {
+                if (store.students().get(id) != null) {
+                    existing.add(id);
+                }
+            }
+            return existing;
+        });
+    }
+
+    @Override
+    public List<StudentSearchRow> findAllSearchRows() {
+        return store.read(() -> {
+            LongTable<StudentRow> students = store.students();
+            List<StudentSearchRow> rows = new ArrayList<>(students.size());
+            for (int i = 0; i < students.size(); i++) {
+                StudentRow row = students.valueAt(i);
+                rows.add(new StudentSearchRow(row.id(), row.name(), row.email()));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public List<StudentSearchRow> findSearchRowsByIds(Collection<Integer> ids) {
+        return store.read(() -> {
+            List<StudentSearchRow> rows = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                StudentRow row = store.students().get(id);
+                if (row != null) {
+                    rows.add(new StudentSearchRow(row.id(), row.name(), row.email()));
+                }
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public List<StudentSearchRow> findSearchRowsByClassRoomId(long classroomId) {
+        return store.read(() -> {
+            LinkSet members = store.studentsOfClassRoom(classroomId);
+            List<StudentSearchRow> rows = new ArrayList<>(members.size());
+            for (int i = 0; i < members.size(); i++) {
+                StudentRow row = store.students().get(members.id(i));
+                rows.add(new StudentSearchRow(row.id(), row.name(), row.email()));
+            }
+            return rows;
+        });
+    }
+
+    @Override
+    public List<GradeCount> findGradeCounts() {
+        Map<String, Long> counts = store.read(() -> count(StudentRow::grade));
+        List<GradeCount> rows = new ArrayList<>(counts.size());
+        counts.forEach((grade, count) -> rows.add(new GradeCount(grade, count)));
+        return rows;
+    }
+
+    @Override
+    public List<BirthdateCount> findBirthdateCounts() {
+        Map<LocalDate, Long> counts = store.read(() -> count(StudentRow::birthdate));
+        List<BirthdateCount> rows = new ArrayList<>(counts.size());
+        counts.forEach((birthdate, count) -> rows.add(new BirthdateCount(birthdate, count)));
+        return rows;
+    }
+
+    @Override
+    public List<Integer> findIdsByFilter(String grade, Long classroomId) {
+        return store.read(() -> store.studentIdsMatching(grade, classroomId));
+    }
+
+    @Override
+    public int deleteByIds(Collection<Integer> ids) {
+        return store.write(() -> {
+            int deleted = 0;
+            for (Integer id : ids) {
+                if (store.students().get(id) != null) {
+                    store.deleteStudent(id);
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public boolean existsByClassRoomIds(Collection<Long> classroomIds) {
+        return store.read(() -> classroomIds.stream().anyMatch(id -> !store.studentsOfClassRoom(id).isEmpty()));
+    }
+
+    @Override
+    public int deleteByFilter(String grade, Long classroomId) {
+        return store.write(() -> deleteByIds(store.studentIdsMatching(grade, classroomId)));
+    }
+
+    @Override
+    public int updateColumns(Collection<Integer> ids, Long expectedVersion, Map<String, Object> columns) {
+        checkPatchable(columns);
+        return store.write(() -> {
+            int updated = 0;
+            for (Integer id : ids) {
+                StudentRow row = store.students().get(id);
+                if (row != null && (expectedVersion == null || row.version() == expectedVersion)) {
+                    store.saveStudent(patched(row, columns));
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public int updateColumnsByClassRoom(long classroomId, Map<String, Object> columns) {
+        checkPatchable(columns);
+        return store.write(() -> {
+            // Moving the students to another classroom changes the members while they are iterated
+            LinkSet members = store.studentsOfClassRoom(classroomId);
+            List<Integer> ids = new ArrayList<>(members.size());
+            for (int i = 0; i < members.size(); i++) {
+                ids.add((int) members.id(i));
+            }
+            for (Integer id : ids) {
+                store.saveStudent(patched(store.students().get(id), columns));
+            }
+            return ids.size();
+        });
+    }
+
+    private static void checkPatchable(Map<String, Object> columns) {
+        for (String column : columns.keySet()) {
+            if (!PATCHABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Not a patchable column: " + column);
+            }
+        }
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return store.read(() -> store.students().get(id) != null);
+    }
+
+    @Override
+    public long count() {
+        return store.read(() -> (long) store.students().size());
+    }
+
+    @Override
+    public <S extends Student> S save(S entity) {
+        return super.save(entity);
+    }
+
+    @Override
+    public <S extends Student> S saveAndFlush(S entity) {
+        return super.saveAndFlush(entity);
+    }
+
+    @Override
+    public <S extends Student> List<S> saveAll(Iterable<S> entities) {
+        return super.saveAll(entities);
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        super.deleteById(id);
+    }
+
+    @Override
+    public void delete(Student entity) {
+        super.delete(entity);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Integer> ids) {
+        super.deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Student> entities) {
+        super.deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAll() {
+        super.deleteAll();
+    }
+
+    /**
+     * Counts the students per value of a column, ordered by value with null first like the GROUP BY queries.
+     */
+
+    private <K extends Comparable<? super K>> Map<K, Long> count(Function<StudentRow, K> column) {
+        Map<K, Long> counts = new TreeMap<>(Comparator.nullsFirst(Comparator.<K>naturalOrder()));
+        LongTable<StudentRow> students = store.students();
+        for (int i = 0; i < students.size(); i++) {
+            counts.merge(column.apply(students.valueAt(i)), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    Student load(Integer id) {
+        StudentRow row = store.students().get(id);
+        return row == null ? null : store.toStudent(row);
+    }
+
+    @Override
+    List<Integer> loadIds() {
+        LongTable<StudentRow> students = store.students();
+        List<Integer> ids = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            ids.add((int) students.keyAt(i));
+        }
+        return ids;
+    }
+
+    @Override
+    <S extends Student> S persist(S entity) {
+        long classRoomId = classRoomIdOf(entity.getClassRoom());
+        // A stored student without a version never matches, as JPA would not update it either
+        long version = entity.getVersion() == null ? -1 : entity.getVersion();
+        StudentRow stored = store.saveStudent(new StudentRow(entity.getId(), entity.getName(), entity.getEmail(),
+                entity.getAddress(), entity.getPhoneNumber(), entity.getBirthdate(), entity.getGrade(),
+                classRoomId, version));
+        entity.setId(stored.id());
+        entity.setVersion(stored.version());
+        return entity;
+    }
+
+    @Override
+    void remove(Integer id) {
+        store.deleteStudent(id);
+    }
+
+    @Override
+    Integer idOf(Student entity) {
+        return entity.getId() == 0 ? null : entity.getId();
+    }
+
+    @Override
+    Student reference(Integer id) {
+        Student student = new Student();
+        student.setId(id);
+        return student;
+    }
+
+    /**
+     * Returns a copy of the row with the given columns replaced and the same version, ready to be saved.
+     */
+
+    private static StudentRow patched(StudentRow row, Map<String, Object> columns) {
+        return new StudentRow(row.id(),
+                (String) columns.getOrDefault("name", row.name()),
+                (String) columns.getOrDefault("email", row.email()),
+                (String) columns.getOrDefault("address", row.address()),
+                (String) columns.getOrDefault("phoneNumber", row.phoneNumber()),
+                (LocalDate) columns.getOrDefault("birthdate", row.birthdate()),
+                (String) columns.getOrDefault("grade", row.grade()),
+                columns.containsKey("classRoom") ? classRoomIdOf((ClassRoom) columns.get("classRoom")) : row.classRoomId(),
+                row.version());
+    }
+
+    private static long classRoomIdOf(ClassRoom classRoom) {
+        return classRoom == null || classRoom.getId() == null ? InMemoryStore.NO_CLASSROOM : classRoom.getId();
+    }
+
+    private StudentDetail toDetail(StudentRow row) {
+        return new StudentDetail(row.id(), row.name(), row.email(), row.address(), row.phoneNumber(), row.birthdate(),
+                row.grade(), store.classRoomRef(row), row.version());
+    }
+}
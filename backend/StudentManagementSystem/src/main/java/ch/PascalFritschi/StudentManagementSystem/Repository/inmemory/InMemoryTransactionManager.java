@@ -0,0 +1,69 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * The `InMemoryTransactionManager` class replaces the JPA transaction manager in the `inmemory` profile.
+ * The store applies every write immediately, so there is nothing to commit or roll back; the manager only
+ * demarcates transactions, so that `@Transactional` methods, `TransactionTemplate`s and the
+ * `@TransactionalEventListener`s run unchanged and the listeners are called after the outermost transaction.
+ */
+
+@Component
+@Profile("inmemory")
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new InMemoryTransaction(TransactionSynchronizationManager.hasResource(this));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((InMemoryTransaction) transaction).existing();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        return TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(this, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        // Nothing to commit
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // Writes cannot be undone
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        // A failing inner transaction cannot undo the writes of the outer one either
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    private record InMemoryTransaction(boolean existing) {
+    }
+}
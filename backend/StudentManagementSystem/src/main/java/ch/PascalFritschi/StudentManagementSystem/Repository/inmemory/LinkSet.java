@@ -0,0 +1,95 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.util.Arrays;
+
+
+/**
+ * The `LinkSet` class is an immutable set of IDs sorted ascending, each with a reference ID attached,
+ * used as the value of the secondary indexes: e.g. the students of a classroom, each with its enrollment ID.
+ * Changes return a copy, so a reader may keep using a set it obtained after the store's lock is released.
+ */
+
+final class LinkSet {
+
+    static final LinkSet EMPTY = new LinkSet(new long[0], new long[0]);
+
+    /**
+     * Returned by {@link #refOf(long)} for an ID that is not in the set.
+     */
+
+    static final long NONE = -1;
+
+    private final long[] ids;
+    private final long[] refs;
+
+    private LinkSet(long[] ids, long[] refs) {
+        this.ids = ids;
+        this.refs = refs;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    long ref(int index) {
+        return refs[index];
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+
+    /**
+     * Returns the reference attached to the given ID, or {@link #NONE}.
+     */
+
+    long refOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? refs[index] : NONE;
+    }
+
+    LinkSet with(long id, long ref) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            long[] newRefs = refs.clone();
+            newRefs[index] = ref;
+            return new LinkSet(ids, newRefs);
+        }
+        index = -index - 1;
+        long[] newIds = new long[ids.length + 1];
+        long[] newRefs = new long[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(refs, 0, newRefs, 0, index);
+        newIds[index] = id;
+        newRefs[index] = ref;
+        System.arraycopy(ids, index, newIds, index + 1, ids.length - index);
+        System.arraycopy(refs, index, newRefs, index + 1, ids.length - index);
+        return new LinkSet(newIds, newRefs);
+    }
+
+    LinkSet without(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return this;
+        }
+        if (ids.length == 1) {
+            return EMPTY;
+        }
+        long[] newIds = new long[ids.length - 1];
+        long[] newRefs = new long[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(refs, 0, newRefs, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        System.arraycopy(refs, index + 1, newRefs, index, ids.length - index - 1);
+        return new LinkSet(newIds, newRefs);
+    }
+}
@@ -0,0 +1,81 @@
+package ch.PascalFritschi.StudentManagementSystem.Repository.inmemory;
+
+import java.util.Arrays;
+
+
+/**
+ * The `LongTable` class maps primitive `long` keys to values, kept in two parallel arrays sorted by key.
+ * Lookups are binary searches, iteration is in key order, and there is no boxing or per-entry node.
+ * Generated IDs ascend, so inserts almost always append; removing shifts the tail of the arrays.
+ * Not thread-safe; {@link InMemoryStore} guards all tables with its lock.
+ *
+ * @param <V> The type of the values.
+ */
+
+final class LongTable<V> {
+
+    private long[] keys = new long[16];
+    private Object[] values = new Object[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    V get(long key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+
+    /**
+     * Returns the index of the first key greater than the given key, or {@link #size()} if there is none.
+     */
+
+    int indexAfter(long key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    V put(long key, V value) {
+        int index = size == 0 || key > keys[size - 1] ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            V previous = valueAt(index);
+            values[index] = value;
+            return previous;
+        }
+
+        index = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+    V remove(long key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = valueAt(index);
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        values[--size] = null;
+        return previous;
+    }
+}
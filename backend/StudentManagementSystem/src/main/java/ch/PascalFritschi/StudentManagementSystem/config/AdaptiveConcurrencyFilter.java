@@ -0,0 +1,144 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.ConcurrencyLimitState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+
+/**
+ * The `AdaptiveConcurrencyFilter` class sheds load on the student and enrollment endpoints before it reaches the
+ * connection pool. Each request is admitted by an {@link AdaptiveConcurrencyLimit}, which lowers the number of
+ * concurrent requests as soon as their latency (including the wait for a HikariCP connection) rises above its
+ * long-term level, and raises it again while the database keeps up. Requests over the limit get 503 with
+ * `Retry-After` right away instead of piling up on Tomcat threads until they all time out.
+ *
+ * Reads (GET, HEAD, OPTIONS) and writes have separate limits, so a burst of list traffic cannot starve enrollments.
+ * Both limits start at the pool size. Their state is published as the `http.server.concurrency.*` meters and by
+ * `GET /api/limits`. In virtual-thread mode the {@link DatabaseConcurrencyFilter} still caps what gets through.
+ *
+ * CORS preflights pass without a permit. The controllers answer CORS through `@CrossOrigin`, which a rejected
+ * request never reaches, so the 503 carries the same CORS headers itself and the frontend can read it.
+ */
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "concurrency.adaptive.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final List<String> paths;
+    private final CorsConfiguration cors;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public AdaptiveConcurrencyFilter(
+            @Value("${concurrency.adaptive.initial-limit:${spring.datasource.hikari.maximum-pool-size:10}}") int initialLimit,
+            @Value("${concurrency.adaptive.min-limit:2}") int minLimit,
+            @Value("${concurrency.adaptive.read.max-limit:200}") int maxReadLimit,
+            @Value("${concurrency.adaptive.write.max-limit:100}") int maxWriteLimit,
+            @Value("${concurrency.adaptive.paths:/api/student,/api/studentclassroom}") List<String> paths,
+            @Value("${concurrency.adaptive.allowed-origins:http://localhost:3000}") List<String> allowedOrigins,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.readLimit = new AdaptiveConcurrencyLimit("read", initialLimit, minLimit, maxReadLimit);
+        this.writeLimit = new AdaptiveConcurrencyLimit("write", initialLimit, minLimit, maxWriteLimit);
+        this.paths = List.copyOf(paths);
+        this.cors = new CorsConfiguration();
+        this.cors.setAllowedOrigins(allowedOrigins);
+        this.cors.setAllowCredentials(true);
+        this.cors.addAllowedMethod(CorsConfiguration.ALL);
+        meterRegistry.ifAvailable(registry -> {
+            register(registry, readLimit);
+            register(registry, writeLimit);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        for (String path : paths) {
+            // Whole segments only, so /api/student does not cover /api/studentclassroom
+            if (uri.equals(path) || uri.startsWith(path + "/")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = READ_METHODS.contains(request.getMethod()) ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            if (CorsUtils.isCorsRequest(request)) {
+                corsProcessor.processRequest(cors, request, response);
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limit.release(System.nanoTime() - start, failed);
+        }
+    }
+
+
+    /**
+     * Returns the state of the read and the write limit.
+     *
+     * @return One entry per limit.
+     */
+
+    public List<ConcurrencyLimitState> states() {
+        return List.of(readLimit.state(), writeLimit.state());
+    }
+
+    private static void register(MeterRegistry registry, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("budget", limit.name())
+                .description("Number of requests allowed to run at the same time")
+                .register(registry);
+        Gauge.builder("http.server.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("budget", limit.name())
+                .description("Number of requests running")
+                .register(registry);
+        FunctionCounter.builder("http.server.concurrency.rejected", limit, AdaptiveConcurrencyLimit::rejected)
+                .tag("budget", limit.name())
+                .description("Requests rejected with 503 because the limit was reached")
+                .register(registry);
+    }
+}
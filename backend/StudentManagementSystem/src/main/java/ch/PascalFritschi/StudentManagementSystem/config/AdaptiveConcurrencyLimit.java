@@ -0,0 +1,141 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.ConcurrencyLimitState;
+
+
+/**
+ * The `AdaptiveConcurrencyLimit` class is a concurrency limit that follows the latency of the requests it admits,
+ * in the style of the gradient limiters of TCP Vegas and Netflix' concurrency-limits.
+ *
+ * A long-term average of the request latency serves as the latency of the unloaded system. After every request
+ * the limit is moved towards `limit * longTermLatency / latency + sqrt(limit)`: while the database keeps up,
+ * the ratio is 1 and the limit grows by the square root; once requests start waiting for connections the ratio
+ * drops and the limit shrinks with it (at most halving per step). A failed request (5xx) cuts the limit by
+ * {@value #BACKOFF_RATIO}, as in AIMD. The limit is only adjusted while at least half of it is in use, so an idle
+ * period does not inflate it. Requests over the limit are rejected at once instead of queueing.
+ */
+
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final int LONG_TERM_WINDOW = 100;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Guarded by this; `permitted` is the integral part, readable without the lock
+    private double limit;
+    private double longTermLatencyNanos;
+    private double lastLatencyNanos;
+    private volatile int permitted;
+
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits " + minLimit + ".." + maxLimit + " for " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.permitted = (int) limit;
+    }
+
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight. Never blocks.
+     * Every admitted request must be completed with {@link #release}.
+     *
+     * @return True if the request may run, false if it should be rejected.
+     */
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= permitted) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Completes an admitted request and adjusts the limit to its outcome.
+     *
+     * @param latencyNanos How long the request took.
+     * @param failedRequest Whether the request failed on the server side, e.g. because no connection was available.
+     */
+
+    public void release(long latencyNanos, boolean failedRequest) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (failedRequest) {
+            failed.increment();
+        }
+        update(Math.max(1, latencyNanos), failedRequest, inFlightBefore);
+    }
+
+    private synchronized void update(long latencyNanos, boolean failedRequest, int inFlightBefore) {
+        lastLatencyNanos = latencyNanos;
+        if (failedRequest) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            permitted = (int) limit;
+            return;
+        }
+        longTermLatencyNanos = longTermLatencyNanos == 0
+                ? latencyNanos
+                : longTermLatencyNanos + (latencyNanos - longTermLatencyNanos) / LONG_TERM_WINDOW;
+        if (inFlightBefore < limit / 2) {
+            // Too little traffic to say anything about the limit
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longTermLatencyNanos / latencyNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        permitted = (int) limit;
+    }
+
+
+    /**
+     * Returns the current state of the limit for monitoring.
+     *
+     * @return A snapshot of the limit, the requests in flight and the request counts.
+     */
+
+    public synchronized ConcurrencyLimitState state() {
+        return new ConcurrencyLimitState(name, permitted, inFlight.get(), rejected.sum(), failed.sum(),
+                toMillis(longTermLatencyNanos), toMillis(lastLatencyNanos));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return permitted;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,58 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * The `CacheConfig` class enables the read-through cache in front of the hot repository lookups.
+ * The caches are Caffeine caches created by Spring Boot from `spring.cache.cache-names`;
+ * their size and TTL bounds come from `spring.cache.caffeine.spec`.
+ * The cache manager is wrapped to be transaction-aware: a `@CacheEvict` or put inside a transaction takes effect
+ * only after the transaction commits, so a reader cannot cache the old row again before the change is visible,
+ * and a rolled-back change evicts nothing.
+ */
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Students by ID, used by the enrollment lookups.
+     */
+
+    public static final String STUDENTS = "students";
+
+    /**
+     * Classrooms by ID.
+     */
+
+    public static final String CLASSROOMS = "classrooms";
+
+    /**
+     * Classrooms by name.
+     */
+
+    public static final String CLASSROOMS_BY_NAME = "classroomsByName";
+
+    /**
+     * Wraps the cache manager Spring Boot creates from the `spring.cache.*` properties.
+     */
+
+    @Bean
+    static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+}
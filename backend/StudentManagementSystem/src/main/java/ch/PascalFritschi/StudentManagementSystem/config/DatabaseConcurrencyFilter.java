@@ -0,0 +1,72 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+
+/**
+ * The `DatabaseConcurrencyFilter` class limits how many API requests may run at the same time in virtual-thread mode.
+ * With virtual threads Tomcat no longer bounds the number of concurrent requests, so without this cap thousands
+ * of requests would queue inside HikariCP and time out together. Requests wait for a permit (cheaply, since they
+ * run on virtual threads) and get 503 with `Retry-After` if none frees up within `database.concurrency.acquire-timeout`.
+ * The limit defaults to the connection pool size. Open-in-view is off, so a request holds a connection only while
+ * a transaction or statement runs, not for its whole duration; the cap is still sized for the worst case of a request
+ * that keeps one connection busy throughout, so admitted requests never wait for the pool.
+ */
+
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public DatabaseConcurrencyFilter(
+            @Value("${database.concurrency.max-requests:${spring.datasource.hikari.maximum-pool-size:10}}") int maxRequests,
+            @Value("${database.concurrency.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
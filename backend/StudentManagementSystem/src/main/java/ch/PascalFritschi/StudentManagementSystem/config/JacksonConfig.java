@@ -0,0 +1,25 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+
+
+/**
+ * The `JacksonConfig` class teaches the Spring Boot ObjectMapper about Hibernate's lazy associations.
+ * Associations the repository method did not fetch are never loaded during serialization:
+ * a lazy entity is written as its ID only (`{"id": 1}`) and a lazy collection as `null`.
+ * Endpoints that serialize an association fetch it with an entity graph instead.
+ */
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Hibernate6Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        return module;
+    }
+}
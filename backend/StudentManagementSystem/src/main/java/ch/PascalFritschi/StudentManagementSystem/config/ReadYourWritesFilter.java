@@ -0,0 +1,87 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+
+/**
+ * The `ReadYourWritesFilter` class keeps a client's reads on the primary for `datasource.replicas.read-your-writes-window`
+ * after the client changed something, so it does not read older data from a lagging replica.
+ * Every mutating request sets the `primary-until` cookie; requests carrying an unexpired cookie, and the mutating
+ * request itself, are pinned to the primary. Cross-origin clients have to send credentials for the cookie to arrive,
+ * which only the student, classroom and enrollment controllers allow; the read-only endpoints may serve from a replica.
+ */
+
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(@Value("${datasource.replicas.read-your-writes-window:5s}") Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean mutating = !READ_METHODS.contains(request.getMethod());
+        if (mutating) {
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window.plusSeconds(1))
+                    .httpOnly(true)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+
+        ReplicaRouting.begin(window.toMillis(), mutating || pinnedUntil(request) > now);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.end();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,67 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+
+/**
+ * The `ReplicaRouting` class holds the per-request decision whether reads may go to a read replica.
+ * {@link ReadYourWritesFilter} opens the request state; without it (no replicas configured) all methods are no-ops.
+ */
+
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<RequestState> current = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+
+    /**
+     * Sends all further reads of the current request to the primary.
+     */
+
+    public static void pinToPrimary() {
+        RequestState state = current.get();
+        if (state != null) {
+            state.pinned = true;
+        }
+    }
+
+
+    /**
+     * Declares that the current request has to see a change committed at the given time.
+     * If that is within the read-your-writes window, replicas may not have it yet, so reads go to the primary.
+     *
+     * @param changeMillis The commit time of the change in epoch milliseconds.
+     */
+
+    public static void requireVisible(long changeMillis) {
+        RequestState state = current.get();
+        if (state != null && System.currentTimeMillis() - changeMillis < state.windowMillis) {
+            state.pinned = true;
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        RequestState state = current.get();
+        return state != null && state.pinned;
+    }
+
+    static void begin(long windowMillis, boolean pinned) {
+        RequestState state = new RequestState(windowMillis);
+        state.pinned = pinned;
+        current.set(state);
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+    private static final class RequestState {
+
+        private final long windowMillis;
+        private boolean pinned;
+
+        private RequestState(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+    }
+}
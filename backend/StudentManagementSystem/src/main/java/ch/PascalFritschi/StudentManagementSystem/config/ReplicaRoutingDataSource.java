@@ -0,0 +1,175 @@
+package ch.PascalFritschi.StudentManagementSystem.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * The `ReplicaRoutingDataSource` class hands out connections to a read replica inside read-only transactions
+ * and to the primary otherwise, or when {@link ReplicaRouting} pinned the request to the primary.
+ * Replicas are used round-robin. A replica whose connection check fails, that cannot hand out a connection,
+ * or that lags more than `datasource.replicas.max-lag` behind the primary (`Seconds_Behind_Source`, or NULL when
+ * replication has stopped) is skipped until the next health check every `datasource.replicas.health-check-interval`
+ * succeeds; without a healthy replica all reads go to the primary. A database that does not report replication
+ * status, such as H2, is only checked for a valid connection.
+ *
+ * The transaction's read-only flag is only known once the transaction has begun, so this data source has to be
+ * wrapped in a `LazyConnectionDataSourceProxy`, which delays fetching the connection until the first statement.
+ */
+
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    // MySQL 8.0.22 and later, and the names before it
+    private static final String[][] REPLICA_STATUS_QUERIES = {
+            { "SHOW REPLICA STATUS", "Seconds_Behind_Source" },
+            { "SHOW SLAVE STATUS", "Seconds_Behind_Master" } };
+    private static final long LAG_UNKNOWN = -1;
+    private static final long REPLICATION_STOPPED = Long.MAX_VALUE;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final long maxLagSeconds;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration healthCheckInterval, Duration maxLag) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toSeconds();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRouting.isPinnedToPrimary()) {
+            return source.connect(primary);
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                try {
+                    return source.connect(replica.dataSource);
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                }
+            }
+        }
+        return source.connect(primary);
+    }
+
+
+    /**
+     * Returns whether each replica is currently used, by replica name.
+     */
+
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            health.put(replica.name, replica.healthy);
+        }
+        return health;
+    }
+
+
+    /**
+     * Checks every replica with a connection validity test and its replication lag, and updates whether it is used.
+     */
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(1) && lagSeconds(connection) <= maxLagSeconds;
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    /**
+     * Returns how many seconds the replica is behind its source, `REPLICATION_STOPPED` if replication
+     * has stopped, or `LAG_UNKNOWN` if the database does not report it.
+     */
+
+    private static long lagSeconds(Connection connection) {
+        for (String[] query : REPLICA_STATUS_QUERIES) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery(query[0])) {
+                if (!status.next()) {
+                    // Not configured as a replica
+                    return LAG_UNKNOWN;
+                }
+                long lag = status.getLong(query[1]);
+                return status.wasNull() ? REPLICATION_STOPPED : lag;
+            } catch (SQLException e) {
+                // Not supported by this database or version, try the next form
+            }
+        }
+        return LAG_UNKNOWN;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    // Closing the pool on shutdown is best effort
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
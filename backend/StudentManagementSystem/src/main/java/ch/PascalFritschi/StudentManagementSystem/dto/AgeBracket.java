@@ -0,0 +1,13 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * One bar of the age histogram.
+ *
+ * @param fromAge The lowest age in the bracket, in years.
+ * @param toAge   The highest age in the bracket, in years.
+ * @param count   The number of students of that age.
+ */
+
+public record AgeBracket(int fromAge, int toAge, long count) {
+}
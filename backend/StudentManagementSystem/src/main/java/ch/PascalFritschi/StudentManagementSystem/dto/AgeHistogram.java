@@ -0,0 +1,17 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+
+/**
+ * The age distribution of all students.
+ *
+ * @param asOf        The day the ages were computed for.
+ * @param bracketSize The number of years covered by each bracket.
+ * @param brackets    The brackets from the youngest to the oldest student, including empty brackets in between.
+ * @param unknown     The number of students without a birthdate.
+ */
+
+public record AgeHistogram(LocalDate asOf, int bracketSize, List<AgeBracket> brackets, long unknown) {
+}
@@ -0,0 +1,14 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.time.LocalDate;
+
+
+/**
+ * The number of students born on one day, the input of the age histogram.
+ *
+ * @param birthdate The birthdate, or null for students without one.
+ * @param count     The number of students.
+ */
+
+public record BirthdateCount(LocalDate birthdate, long count) {
+}
@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * The outcome of a bulk delete.
+ *
+ * @param deleted            The number of deleted students or classrooms; IDs that do not exist are not counted.
+ * @param enrollmentsDeleted The number of enrollments deleted with them.
+ */
+
+public record BulkDeleteReport(int deleted, int enrollmentsDeleted) {
+}
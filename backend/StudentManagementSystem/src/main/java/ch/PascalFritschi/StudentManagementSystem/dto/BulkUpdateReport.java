@@ -0,0 +1,11 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * The outcome of a bulk update.
+ *
+ * @param updated The number of updated students.
+ */
+
+public record BulkUpdateReport(int updated) {
+}
@@ -0,0 +1,16 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * Hit/miss statistics of one cache.
+ *
+ * @param name      The cache name.
+ * @param size      The approximate number of entries.
+ * @param hits      The number of lookups served from the cache.
+ * @param misses    The number of lookups that went to the database.
+ * @param hitRate   hits / (hits + misses), or 1.0 if there were no lookups.
+ * @param evictions The number of entries evicted because of the size or TTL bound.
+ */
+
+public record CacheStatistics(String name, long size, long hits, long misses, double hitRate, long evictions) {
+}
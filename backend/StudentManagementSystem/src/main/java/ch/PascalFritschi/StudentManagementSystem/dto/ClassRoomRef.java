@@ -0,0 +1,24 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * A reference to a classroom, embedded in student projections instead of the classroom entity and its roster.
+ *
+ * @param id   The ID of the classroom.
+ * @param name The name of the classroom.
+ */
+
+public record ClassRoomRef(long id, String name) {
+
+    /**
+     * Creates a reference from the columns of an outer join.
+     *
+     * @param id   The ID of the classroom, null if there is none.
+     * @param name The name of the classroom.
+     * @return The reference, or null if the student has no classroom.
+     */
+
+    public static ClassRoomRef of(Long id, String name) {
+        return id == null ? null : new ClassRoomRef(id, name);
+    }
+}
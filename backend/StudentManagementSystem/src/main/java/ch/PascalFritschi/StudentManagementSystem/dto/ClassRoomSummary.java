@@ -0,0 +1,13 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * A row of the classroom list.
+ *
+ * @param id           The ID of the classroom.
+ * @param name         The name of the classroom.
+ * @param studentCount The number of students enrolled in the classroom.
+ */
+
+public record ClassRoomSummary(long id, String name, long studentCount) {
+}
@@ -0,0 +1,18 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * A snapshot of one adaptive concurrency limit.
+ *
+ * @param budget                The name of the limit, `read` or `write`.
+ * @param limit                 The number of requests currently allowed to run at the same time.
+ * @param inFlight              The number of requests running now.
+ * @param rejected              The number of requests rejected with 503 since startup.
+ * @param failed                The number of admitted requests that failed with a server error since startup.
+ * @param longTermLatencyMillis The long-term average latency, the baseline the limit is adjusted against.
+ * @param lastLatencyMillis     The latency of the most recent request.
+ */
+
+public record ConcurrencyLimitState(String budget, int limit, int inFlight, long rejected, long failed,
+        double longTermLatencyMillis, double lastLatencyMillis) {
+}
@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * A (student, classroom) pair identifying one enrollment.
+ *
+ * @param studentId   The ID of the student.
+ * @param classroomId The ID of the classroom.
+ */
+
+public record EnrollmentPair(int studentId, long classroomId) {
+}
@@ -0,0 +1,15 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.util.List;
+
+
+/**
+ * The outcome of a bulk enrollment.
+ *
+ * @param added   The pairs that were enrolled by this request.
+ * @param skipped The pairs that were already enrolled, or that appeared more than once in the request.
+ * @param invalid The pairs whose student or classroom does not exist.
+ */
+
+public record EnrollmentReport(List<EnrollmentPair> added, List<EnrollmentPair> skipped, List<EnrollmentPair> invalid) {
+}
@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * The number of students with one grade.
+ *
+ * @param grade The grade, or null for students without one.
+ * @param count The number of students.
+ */
+
+public record GradeCount(String grade, long count) {
+}
@@ -0,0 +1,47 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The `ImportReport` class summarizes the outcome of a bulk student import.
+ * It contains the number of imported rows and, for every rejected row, its line number and the reasons.
+ */
+
+public class ImportReport {
+
+    /**
+     * A rejected input row.
+     *
+     * @param line     The 1-based line number of the row in the uploaded file.
+     * @param messages The validation or database errors for the row.
+     */
+
+    public record RowError(long line, List<String> messages) {
+    }
+
+    private int imported;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long line, List<String> messages) {
+        errors.add(new RowError(line, messages));
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+}
@@ -0,0 +1,17 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+
+/**
+ * One entry of the change journal.
+ *
+ * @param time   When the change was committed.
+ * @param kind   The kind of change: `student`, `enrollment` or `classroom`.
+ * @param change The change event as it was published, as JSON.
+ */
+
+public record JournalEntry(Instant time, String kind, @JsonRawValue String change) {
+}
@@ -0,0 +1,33 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.util.List;
+
+
+/**
+ * Statistics of the Hibernate second-level cache.
+ *
+ * @param statisticsEnabled Whether Hibernate collects statistics; all counters are 0 otherwise.
+ * @param hits              Second-level cache hits over all regions.
+ * @param misses            Second-level cache misses over all regions.
+ * @param puts              Second-level cache puts over all regions.
+ * @param queryCacheHits    Query cache hits.
+ * @param queryCacheMisses  Query cache misses.
+ * @param regions           Per-region statistics.
+ */
+
+public record SecondLevelCacheStatistics(boolean statisticsEnabled, long hits, long misses, long puts,
+        long queryCacheHits, long queryCacheMisses, List<Region> regions) {
+
+    /**
+     * Statistics of one cache region (an entity, a collection or the query results).
+     *
+     * @param name     The region name.
+     * @param hits     The number of hits in the region.
+     * @param misses   The number of misses in the region.
+     * @param puts     The number of puts into the region.
+     * @param elements The number of elements held in memory, or -1 if the provider does not report it.
+     */
+
+    public record Region(String name, long hits, long misses, long puts, long elements) {
+    }
+}
@@ -0,0 +1,31 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import java.time.LocalDate;
+
+
+/**
+ * All columns of a student, used by the student detail and the full export.
+ *
+ * @param id          The ID of the student.
+ * @param name        The name of the student.
+ * @param email       The email of the student.
+ * @param address     The address of the student.
+ * @param phoneNumber The phone number of the student.
+ * @param birthdate   The birthdate of the student.
+ * @param grade       The grade of the student.
+ * @param classRoom   The student's own classroom, or null.
+ * @param version     The version to send back with an update.
+ */
+
+public record StudentDetail(int id, String name, String email, String address, String phoneNumber, LocalDate birthdate,
+        String grade, ClassRoomRef classRoom, long version) {
+
+    /**
+     * Constructor used by the JPQL constructor expressions, which select the classroom as two columns.
+     */
+
+    public StudentDetail(int id, String name, String email, String address, String phoneNumber, LocalDate birthdate,
+            String grade, Long classroomId, String classroomName, long version) {
+        this(id, name, email, address, phoneNumber, birthdate, grade, ClassRoomRef.of(classroomId, classroomName), version);
+    }
+}
@@ -0,0 +1,15 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+
+/**
+ * The result of a classroom membership query.
+ *
+ * @param count      The number of students in the set.
+ * @param studentIds The IDs of the students in ascending order, or null if only the count was requested.
+ */
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentIdSet(int count, int[] studentIds) {
+}
@@ -0,0 +1,14 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * One result of a student search.
+ *
+ * @param id    The ID of the student.
+ * @param name  The name of the student.
+ * @param email The email of the student.
+ * @param score The relevance of the hit; higher is better.
+ */
+
+public record StudentSearchHit(int id, String name, String email, double score) {
+}
@@ -0,0 +1,13 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * The searchable columns of a student, loaded without materializing the entity.
+ *
+ * @param id    The ID of the student.
+ * @param name  The name of the student.
+ * @param email The email of the student.
+ */
+
+public record StudentSearchRow(int id, String name, String email) {
+}
@@ -0,0 +1,23 @@
+package ch.PascalFritschi.StudentManagementSystem.dto;
+
+
+/**
+ * A row of the student list and of classroom rosters.
+ *
+ * @param id        The ID of the student.
+ * @param name      The name of the student.
+ * @param email     The email of the student.
+ * @param grade     The grade of the student.
+ * @param classRoom The student's own classroom, or null.
+ */
+
+public record StudentSummary(int id, String name, String email, String grade, ClassRoomRef classRoom) {
+
+    /**
+     * Constructor used by the JPQL constructor expressions, which select the classroom as two columns.
+     */
+
+    public StudentSummary(int id, String name, String email, String grade, Long classroomId, String classroomName) {
+        this(id, name, email, grade, ClassRoomRef.of(classroomId, classroomName));
+    }
+}
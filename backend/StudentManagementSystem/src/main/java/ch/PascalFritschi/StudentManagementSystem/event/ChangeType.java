@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem.event;
+
+
+/**
+ * The kind of change described by a change event.
+ */
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,13 @@
+package ch.PascalFritschi.StudentManagementSystem.event;
+
+
+/**
+ * Published by every write path that creates, updates or deletes a classroom.
+ * Listeners should use `@TransactionalEventListener(fallbackExecution = true)` so they only see committed changes.
+ *
+ * @param type        The kind of change.
+ * @param classroomId The ID of the classroom.
+ */
+
+public record ClassRoomChangedEvent(ChangeType type, long classroomId) {
+}
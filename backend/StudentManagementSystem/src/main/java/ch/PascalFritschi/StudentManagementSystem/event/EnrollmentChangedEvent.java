@@ -0,0 +1,17 @@
+package ch.PascalFritschi.StudentManagementSystem.event;
+
+import java.util.List;
+
+
+/**
+ * Published by every write path that enrolls students into a classroom or removes them from it.
+ * Bulk enrollments publish one event per affected classroom.
+ * Listeners should use `@TransactionalEventListener(fallbackExecution = true)` so they only see committed changes.
+ *
+ * @param type        The kind of change: CREATED for enrollments, DELETED for removals.
+ * @param classroomId The ID of the classroom whose roster changed.
+ * @param studentIds  The IDs of the students that were enrolled or removed.
+ */
+
+public record EnrollmentChangedEvent(ChangeType type, long classroomId, List<Integer> studentIds) {
+}
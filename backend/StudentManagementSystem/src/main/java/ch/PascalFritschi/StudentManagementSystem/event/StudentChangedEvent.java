@@ -0,0 +1,15 @@
+package ch.PascalFritschi.StudentManagementSystem.event;
+
+
+/**
+ * Published by every write path that creates, updates or deletes a student.
+ * Listeners should use `@TransactionalEventListener(fallbackExecution = true)` so they only see committed changes.
+ *
+ * @param type      The kind of change.
+ * @param studentId The ID of the student.
+ * @param name      The name after the change, or null for deletions.
+ * @param email     The email after the change, or null for deletions.
+ */
+
+public record StudentChangedEvent(ChangeType type, int studentId, String name, String email) {
+}
@@ -6,29 +6,51 @@ import jakarta.validation.constraints.NotEmpty;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 /**
  * The `ClassRoom` class represents a classroom in the system and is mapped to the "ClassRooms" table in the database.
+ * Class names are unique (enforced by the database, see the Flyway migrations).
+ * The entity and its roster collection are cached in the second-level cache when the `l2cache` profile is active.
  */
 
 @Entity
-@Table(name = "ClassRooms")
+@Table(name = "ClassRooms", uniqueConstraints = @UniqueConstraint(name = "uk_class_rooms_name", columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ClassRoom {
 
+    /**
+     * Drawn from the pooled `class_rooms_seq` sequence (emulated by a table on MySQL) in blocks of 50.
+     * It is the sequence Hibernate created for the former AUTO strategy, so existing IDs stay unique.
+     */
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "class_room_seq")
+    @SequenceGenerator(name = "class_room_seq", sequenceName = "class_rooms_seq", allocationSize = 50)
     private Long id;
 
     @NotEmpty(message="Please enter a classroom name")
     @Column(name = "name")
     private String name;
 
+    /**
+     * The optimistic locking version, incremented by Hibernate on every update.
+     */
+
+    @Version
+    @Column(name = "version")
+    private long version;
+
     /**
      * The list of student-classroom associations associated with the classroom.
      */
     
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "classRoom", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StudentClassroom> studentClassrooms = new ArrayList<>();
 
@@ -48,6 +70,14 @@ public class ClassRoom {
         this.name = name;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public List<StudentClassroom> getStudentClassrooms() {
         return studentClassrooms;
     }
@@ -1,15 +1,22 @@
 package ch.PascalFritschi.StudentManagementSystem.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
@@ -18,21 +25,41 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 /**
  * The `Student` class represents a student in the system and is mapped to the "Students" table in the database.
+ * The entity and its classroom links are cached in the second-level cache when the `l2cache` profile is active.
+ * All associations are lazy; repository methods whose results are serialized fetch the `Student.classRoom` graph.
+ * Updates of managed students only write the changed columns.
  */
 
 @Entity
-@Table(name = "Students")
+@NamedEntityGraph(name = Student.WITH_CLASSROOM, attributeNodes = @NamedAttributeNode("classRoom"))
+@Table(name = "Students", indexes = @Index(name = "idx_students_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 public class Student {
 
+    /**
+     * Entity graph of a student together with its own classroom.
+     */
+
+    public static final String WITH_CLASSROOM = "Student.classRoom";
+
 	/**
      * The unique identifier for the student.
+     * Drawn from a pooled sequence (emulated by a table on MySQL) in blocks of 50, so inserts can be JDBC-batched.
+     * It is the `students_seq` sequence Hibernate created for the former AUTO strategy, so existing IDs stay unique.
      */
 	
     @Column(name = "id")
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "students_seq", allocationSize = 50)
     private int id;
     
     
@@ -57,14 +84,25 @@ public class Student {
     @Column(name = "grade")
     private String grade;
 
+    /**
+     * Incremented on every update. Clients send it back with `PUT /api/student/update`;
+     * a stale value is rejected with 409 Conflict instead of overwriting the newer state.
+     * Null until the student is stored, so a student without a version is never mistaken for a stored one.
+     */
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     /**
      * The list of classrooms associated with the student.
      */
     
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StudentClassroom> studentClassrooms = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "classroom_id")
     private ClassRoom classRoom;
 
@@ -124,6 +162,14 @@ public class Student {
         this.birthdate = birthdate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public ClassRoom getClassRoom() {
         return classRoom;
     }
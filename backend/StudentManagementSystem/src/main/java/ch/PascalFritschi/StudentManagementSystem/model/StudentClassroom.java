@@ -1,6 +1,9 @@
 package ch.PascalFritschi.StudentManagementSystem.model;
 
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.*;
@@ -9,25 +12,42 @@ import jakarta.persistence.*;
  /**
  * The `StudentClassroom` class represents the association between a student and a classroom.
  * It is mapped as an entity in the database and contains information about the assignment of students to classrooms.
+ * A student can be assigned to a classroom only once (enforced by a unique index).
+ * Both associations are lazy; {@link #WITH_STUDENT} fetches the student and the student's own classroom.
  */
 
 @Entity
-@Table(name = "student_classrooms")
+@NamedEntityGraph(name = StudentClassroom.WITH_STUDENT,
+        attributeNodes = @NamedAttributeNode(value = "student", subgraph = "student"),
+        subgraphs = @NamedSubgraph(name = "student", attributeNodes = @NamedAttributeNode("classRoom")))
+@Table(name = "student_classrooms",
+        uniqueConstraints = @UniqueConstraint(name = "uk_student_classrooms_student_classroom", columnNames = { "student_id", "classroom_id" }),
+        indexes = @Index(name = "idx_student_classrooms_classroom_student", columnList = "classroom_id, student_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class StudentClassroom {
 
+    /**
+     * Entity graph of an enrollment with its student, as serialized by the enrollment list.
+     */
+
+    public static final String WITH_STUDENT = "StudentClassroom.student";
+
 	 /**
      * The unique identification number for the assignment of students to classrooms.
+     * Drawn from a pooled sequence in blocks of 50 (`student_classrooms_seq`, the former AUTO sequence) so bulk enrollments can be batched.
      */
 	
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_classroom_seq")
+    @SequenceGenerator(name = "student_classroom_seq", sequenceName = "student_classrooms_seq", allocationSize = 50)
     private Long id;
 
     /**
      * The student associated with this assignment.
      */
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 
@@ -36,9 +56,17 @@ public class StudentClassroom {
      */
     
     @JsonBackReference
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "classroom_id")
     private ClassRoom classRoom;
+
+    /**
+     * The optimistic locking version of the assignment.
+     */
+
+    @Version
+    @Column(name = "version")
+    private long version;
     
 
     public StudentClassroom() {
@@ -66,6 +94,14 @@ public class StudentClassroom {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Student getStudent() {
         return student;
     }
@@ -0,0 +1,178 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.BulkDeleteReport;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+
+
+/**
+ * The `BulkDeleteService` class deletes many students or classrooms, together with their enrollments, in one transaction.
+ * Whatever the number of rows, it runs a fixed number of set-based statements per chunk of {@value QueryChunks#MAX_IDS}
+ * IDs: one query for the existing rows and one for the affected enrollments (both needed for the change events),
+ * one `DELETE ... WHERE ... IN` for the enrollments and one for the students or classrooms. Deletes by filter bind no
+ * IDs at all: the filter itself is the `WHERE` of both deletes. No entities are loaded; the repositories clear the
+ * persistence context and the affected caches, the latter only once the transaction has committed.
+ */
+
+@Service
+public class BulkDeleteService {
+
+    private final StudentRepository studentRepository;
+    private final ClassRoomRepository classRoomRepository;
+    private final StudentClassroomRepository studentClassroomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkDeleteService(StudentRepository studentRepository,
+                             ClassRoomRepository classRoomRepository,
+                             StudentClassroomRepository studentClassroomRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.studentRepository = studentRepository;
+        this.classRoomRepository = classRoomRepository;
+        this.studentClassroomRepository = studentClassroomRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+
+    /**
+     * Deletes the given students with their enrollments. IDs that do not exist are ignored.
+     *
+     * @param studentIds The IDs of the students.
+     * @return A report with the number of deleted students and enrollments.
+     */
+
+    @Transactional
+    public BulkDeleteReport deleteStudents(Collection<Integer> studentIds) {
+        List<Integer> existing = new ArrayList<>();
+        for (List<Integer> chunk : QueryChunks.of(studentIds)) {
+            existing.addAll(studentRepository.findExistingIds(chunk));
+        }
+        if (existing.isEmpty()) {
+            return new BulkDeleteReport(0, 0);
+        }
+        List<EnrollmentPair> enrollments = new ArrayList<>();
+        int enrollmentsDeleted = 0;
+        int deleted = 0;
+        for (List<Integer> chunk : QueryChunks.of(existing)) {
+            List<EnrollmentPair> chunkEnrollments = studentClassroomRepository.findPairsByStudentIds(chunk);
+            if (!chunkEnrollments.isEmpty()) {
+                enrollmentsDeleted += studentClassroomRepository.deleteByStudentIds(chunk);
+                enrollments.addAll(chunkEnrollments);
+            }
+            deleted += studentRepository.deleteByIds(chunk);
+        }
+
+        publishStudentDeletions(existing);
+        publishRemovals(enrollments);
+        return new BulkDeleteReport(deleted, enrollmentsDeleted);
+    }
+
+
+    /**
+     * Deletes the students matching a filter with their enrollments. At least one criterion must be given.
+     * The enrollments and the students are deleted by the filter itself, so no ID list is bound however many
+     * students match; their IDs are only read for the change events.
+     *
+     * @param grade       The grade of the students to delete, or null.
+     * @param classroomId The ID of the own classroom of the students to delete, or null.
+     * @return A report with the number of deleted students and enrollments.
+     * @throws IllegalArgumentException If no criterion is given.
+     */
+
+    @Transactional
+    public BulkDeleteReport deleteStudentsWhere(String grade, Long classroomId) {
+        if (grade == null && classroomId == null) {
+            throw new IllegalArgumentException("A grade or a classroom is required");
+        }
+        List<Integer> studentIds = studentRepository.findIdsByFilter(grade, classroomId);
+        if (studentIds.isEmpty()) {
+            return new BulkDeleteReport(0, 0);
+        }
+        List<EnrollmentPair> enrollments = studentClassroomRepository.findPairsByStudentFilter(grade, classroomId);
+        int enrollmentsDeleted = enrollments.isEmpty() ? 0 : studentClassroomRepository.deleteByStudentFilter(grade, classroomId);
+        int deleted = studentRepository.deleteByFilter(grade, classroomId);
+
+        publishStudentDeletions(studentIds);
+        publishRemovals(enrollments);
+        return new BulkDeleteReport(deleted, enrollmentsDeleted);
+    }
+
+
+    /**
+     * Deletes the given classrooms with their enrollments. IDs that do not exist are ignored.
+     * A classroom that is still some student's own classroom is not deleted; the whole call then fails
+     * with a `DataIntegrityViolationException` and nothing is deleted. This is checked before the first write, as
+     * the in-memory backend cannot roll back; on MySQL the foreign key still catches a student assigned meanwhile.
+     *
+     * @param classroomIds The IDs of the classrooms.
+     * @return A report with the number of deleted classrooms and enrollments.
+     */
+
+    @Transactional
+    public BulkDeleteReport deleteClassRooms(Collection<Long> classroomIds) {
+        List<Long> existing = new ArrayList<>();
+        for (List<Long> chunk : QueryChunks.of(classroomIds)) {
+            existing.addAll(classRoomRepository.findExistingIds(chunk));
+        }
+        if (existing.isEmpty()) {
+            return new BulkDeleteReport(0, 0);
+        }
+        for (List<Long> chunk : QueryChunks.of(existing)) {
+            if (studentRepository.existsByClassRoomIds(chunk)) {
+                throw new DataIntegrityViolationException("A classroom to be deleted is still the classroom of a student");
+            }
+        }
+        List<EnrollmentPair> enrollments = new ArrayList<>();
+        int enrollmentsDeleted = 0;
+        int deleted = 0;
+        for (List<Long> chunk : QueryChunks.of(existing)) {
+            List<EnrollmentPair> chunkEnrollments = studentClassroomRepository.findPairsByClassRoomIds(chunk);
+            if (!chunkEnrollments.isEmpty()) {
+                enrollmentsDeleted += studentClassroomRepository.deleteByClassRoomIds(chunk);
+                enrollments.addAll(chunkEnrollments);
+            }
+            deleted += classRoomRepository.deleteByIds(chunk);
+        }
+
+        publishRemovals(enrollments);
+        for (Long classroomId : existing) {
+            eventPublisher.publishEvent(new ClassRoomChangedEvent(ChangeType.DELETED, classroomId));
+        }
+        return new BulkDeleteReport(deleted, enrollmentsDeleted);
+    }
+
+    private void publishStudentDeletions(List<Integer> studentIds) {
+        for (Integer studentId : studentIds) {
+            eventPublisher.publishEvent(new StudentChangedEvent(ChangeType.DELETED, studentId, null, null));
+        }
+    }
+
+    /**
+     * Publishes one removal event per affected classroom, like the bulk enrollment does for additions.
+     */
+
+    private void publishRemovals(List<EnrollmentPair> enrollments) {
+        Map<Long, List<Integer>> removedByClassRoom = new TreeMap<>();
+        for (EnrollmentPair enrollment : enrollments) {
+            removedByClassRoom.computeIfAbsent(enrollment.classroomId(), id -> new ArrayList<>()).add(enrollment.studentId());
+        }
+        removedByClassRoom.forEach((classroomId, removedStudentIds) ->
+                eventPublisher.publishEvent(new EnrollmentChangedEvent(ChangeType.DELETED, classroomId, removedStudentIds)));
+    }
+}
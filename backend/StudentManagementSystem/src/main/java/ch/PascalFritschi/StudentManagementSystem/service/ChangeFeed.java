@@ -0,0 +1,405 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * The `ChangeFeed` class pushes committed changes to Server-Sent Events subscribers,
+ * either for all changes or for the changes that affect one classroom's roster.
+ *
+ * Each change becomes one SSE event named `student`, `enrollment` or `classroom` whose data is the change event as JSON,
+ * e.g. `{"type":"CREATED","classroomId":3,"studentIds":[7]}` for an enrollment. A classroom feed receives the enrollments
+ * and removals of the classroom, updates of its students and the deletion of the classroom itself.
+ *
+ * The last `changefeed.replay-size` events are kept in a ring buffer, so a client that reconnects with
+ * `Last-Event-ID` receives what it missed. If the ID is older than the buffer, or from before a restart,
+ * the client gets a `reset` event instead and has to reload the data.
+ *
+ * Subscriptions are async requests and hold no thread while idle. All subscriber and buffer state is owned
+ * by one dispatcher thread, which never writes to a client itself: it queues the events, and a periodic heartbeat
+ * comment, on a bounded queue per subscriber that one of the `changefeed.writer-threads` writer threads drains.
+ * A client that does not read its events fast enough overflows its queue, or blocks a write for longer than
+ * `changefeed.write-timeout`, and is disconnected, so a slow client cannot hold up the others; it reconnects
+ * with `Last-Event-ID`. The heartbeat keeps proxies from closing idle connections and detects clients that went away.
+ * A write that is already blocked keeps its writer thread until the container's socket write timeout ends it.
+ *
+ * The classrooms of an updated student are only looked up while a classroom feed is open. An update published
+ * without them cannot be matched to a classroom; a classroom feed that would replay it gets a `reset` event instead.
+ */
+
+@Service
+public class ChangeFeed {
+
+    public static final String STUDENT = "student";
+    public static final String ENROLLMENT = "enrollment";
+    public static final String CLASSROOM = "classroom";
+    public static final String RESET = "reset";
+
+    private final StudentClassroomRepository studentClassroomRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final int queueSize;
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService writers;
+    private final AtomicInteger classroomSubscribers = new AtomicInteger();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Accessed by the dispatcher thread only
+    private final Entry[] buffer;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long sequence;
+
+    public ChangeFeed(StudentClassroomRepository studentClassroomRepository,
+                      ObjectMapper objectMapper,
+                      @Value("${changefeed.replay-size:1024}") int replaySize,
+                      @Value("${changefeed.timeout:30m}") Duration timeout,
+                      @Value("${changefeed.heartbeat:25s}") Duration heartbeat,
+                      @Value("${changefeed.subscriber-queue-size:256}") int queueSize,
+                      @Value("${changefeed.writer-threads:8}") int writerThreads,
+                      @Value("${changefeed.write-timeout:10s}") Duration writeTimeout) {
+        this.studentClassroomRepository = studentClassroomRepository;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.queueSize = queueSize;
+        this.buffer = new Entry[replaySize];
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A writer thread is only busy while it writes to a client, which may block until the client reads
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::sendHeartbeat,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        dispatcher.scheduleAtFixedRate(this::closeStalled,
+                writeTimeout.toMillis(), writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Opens a subscription. Missed events are replayed first if `lastEventId` is given.
+     *
+     * @param classroomId The ID of the classroom to follow, or null for all changes.
+     * @param lastEventId The `Last-Event-ID` sent by a reconnecting client, or null.
+     * @return The emitter to return from the controller.
+     */
+
+    public SseEmitter subscribe(Long classroomId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, classroomId);
+        Runnable unsubscribe = () -> dispatcher.execute(() -> remove(subscriber));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        dispatcher.execute(() -> {
+            if (lastEventId != null && !replay(subscriber, lastEventId)) {
+                subscriber.close();
+                return;
+            }
+            subscribers.add(subscriber);
+            if (classroomId != null) {
+                classroomSubscribers.incrementAndGet();
+            }
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        // Removals of a deleted student from its rosters arrive as enrollment events
+        Set<Long> classroomIds;
+        if (event.type() != ChangeType.UPDATED) {
+            classroomIds = Set.of();
+        } else if (classroomSubscribers.get() > 0) {
+            classroomIds = Set.copyOf(studentClassroomRepository.findClassRoomIdsByStudentId(event.studentId()));
+        } else {
+            classroomIds = null;
+        }
+        publish(STUDENT, event, classroomIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        publish(ENROLLMENT, event, Set.of(event.classroomId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassRoomChanged(ClassRoomChangedEvent event) {
+        publish(CLASSROOM, event, Set.of(event.classroomId()));
+        if (event.type() == ChangeType.DELETED) {
+            dispatcher.execute(() -> closeClassRoom(event.classroomId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    private void publish(String name, Object event, Set<Long> classroomIds) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event, e);
+        }
+        dispatcher.execute(() -> {
+            sequence++;
+            Entry entry = new Entry(sequence, epoch + "-" + sequence, name, data, classroomIds);
+            buffer[(int) (sequence % buffer.length)] = entry;
+            for (Iterator<Subscriber> it = subscribers.iterator(); it.hasNext(); ) {
+                Subscriber subscriber = it.next();
+                if (!send(subscriber, entry)) {
+                    it.remove();
+                    untrack(subscriber);
+                    subscriber.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues the buffered events after `lastEventId`, or a `reset` event if some of them are no longer buffered
+     * or would not fit into the subscriber's queue.
+     *
+     * @return false if the subscriber's queue overflowed.
+     */
+
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        long oldest = Math.max(1, sequence - buffer.length + 1);
+        if (last < 0 || last > sequence || last < oldest - 1 || sequence - last > queueSize) {
+            return subscriber.enqueue(reset());
+        }
+        for (long s = last + 1; s <= sequence; s++) {
+            if (!send(subscriber, buffer[(int) (s % buffer.length)])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void closeClassRoom(long classroomId) {
+        for (Iterator<Subscriber> it = subscribers.iterator(); it.hasNext(); ) {
+            Subscriber subscriber = it.next();
+            if (subscriber.classroomId != null && subscriber.classroomId == classroomId) {
+                it.remove();
+                untrack(subscriber);
+                // The deletion of the classroom is still written before the response completes
+                subscriber.complete();
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Iterator<Subscriber> it = subscribers.iterator(); it.hasNext(); ) {
+            Subscriber subscriber = it.next();
+            if (!subscriber.enqueue(SseEmitter.event().comment(""))) {
+                it.remove();
+                untrack(subscriber);
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Disconnects the subscribers whose current write has been blocked for longer than the write timeout,
+     * so no more events are queued for them and their writer thread is released once the write returns.
+     */
+
+    private void closeStalled() {
+        long now = System.nanoTime();
+        for (Iterator<Subscriber> it = subscribers.iterator(); it.hasNext(); ) {
+            Subscriber subscriber = it.next();
+            if (subscriber.writingSince(now) > writeTimeoutNanos) {
+                it.remove();
+                untrack(subscriber);
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Queues an entry if the subscriber follows it; an update that was published without its classrooms
+     * makes a classroom subscriber reload instead.
+     *
+     * @return false if the subscriber's queue overflowed.
+     */
+
+    private boolean send(Subscriber subscriber, Entry entry) {
+        if (subscriber.classroomId == null) {
+            return subscriber.enqueue(SseEmitter.event().id(entry.id()).name(entry.name()).data(entry.data()));
+        }
+        if (entry.classroomIds() == null) {
+            return subscriber.enqueue(reset());
+        }
+        return !entry.classroomIds().contains(subscriber.classroomId)
+                || subscriber.enqueue(SseEmitter.event().id(entry.id()).name(entry.name()).data(entry.data()));
+    }
+
+    private static SseEmitter.SseEventBuilder reset() {
+        return SseEmitter.event().name(RESET).data("{}");
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            untrack(subscriber);
+            subscriber.close();
+        }
+    }
+
+    private void untrack(Subscriber subscriber) {
+        if (subscriber.classroomId != null) {
+            classroomSubscribers.decrementAndGet();
+        }
+    }
+
+    private record Entry(long sequence, String id, String name, String data, Set<Long> classroomIds) {
+    }
+
+    /**
+     * A subscription with its queue of events not yet written. The dispatcher thread queues the events; at most
+     * one writer thread at a time drains the queue.
+     */
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long classroomId;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean completing;
+        private volatile boolean closed;
+        private volatile boolean writing;
+        private volatile long writeStarted;
+
+        Subscriber(SseEmitter emitter, Long classroomId) {
+            this.emitter = emitter;
+            this.classroomId = classroomId;
+        }
+
+        /**
+         * Queues an event without blocking.
+         *
+         * @return false if the subscriber is closed or its queue is full.
+         */
+
+        boolean enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed || !queue.offer(event)) {
+                return false;
+            }
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+            return true;
+        }
+
+        /**
+         * Writes the queued events and then completes the response.
+         */
+
+        void complete() {
+            completing = true;
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        /**
+         * Stops writing and completes the response. The emitter may be blocked in a write, so it is completed
+         * by a writer thread rather than the caller: by the draining one once its write returns, so a stalled
+         * client never holds a second writer thread.
+         */
+
+        void close() {
+            closed = true;
+            queue.clear();
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(emitter::complete);
+            }
+        }
+
+        /**
+         * @return How long the current write has been running, or 0 if none is.
+         */
+
+        long writingSince(long now) {
+            return writing ? now - writeStarted : 0;
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    writeStarted = System.nanoTime();
+                    writing = true;
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The client is gone or the emitter has completed; the container completes the request
+                        closed = true;
+                        dispatcher.execute(() -> remove(this));
+                    } finally {
+                        writing = false;
+                    }
+                }
+                if (closed || completing) {
+                    // Ignored by the emitter after a failed write; nothing is drained after this
+                    closed = true;
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+                // Work that arrived after the last poll but before the reset would otherwise wait for the next event
+            } while ((closed || completing || !queue.isEmpty()) && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,667 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.JournalEntry;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * The `ChangeJournal` class keeps an append-only history of all committed student, enrollment and classroom changes,
+ * outside the database, in memory-mapped segment files under `journal.directory`.
+ *
+ * Request threads only put the change event on a queue. If the queue stays full for `journal.enqueue-timeout`,
+ * the change is dropped and logged rather than holding up the request. A single writer thread appends the events
+ * to the current segment and forces the written pages to disk at most every `journal.flush-interval`, so one flush
+ * covers every change of that interval. Changes still queued or not yet flushed are lost if the process crashes.
+ *
+ * Entry times never decrease, which the time index relies on.
+ * Each segment starts with a magic number, followed by records of the form
+ * `[payload length: int][time: epoch millis, long][kind: byte][payload: change event as UTF-8 JSON]`.
+ * The length is written last, so a record with length 0 marks the end of the segment.
+ * When a record does not fit, a new segment of `journal.segment-size` bytes is started. Segments whose newest entry
+ * is older than `journal.retention` are unmapped and deleted, oldest first; the current segment is always kept.
+ *
+ * The journal is indexed in memory by student ID, by classroom ID and sparsely by time. The index is rebuilt
+ * by scanning the segments at startup. Queries return the newest entries first.
+ */
+
+@Service
+public class ChangeJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+
+    private static final int MAGIC = 0x534D534A;
+    private static final int SEGMENT_HEADER = Integer.BYTES;
+    private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES + Byte.BYTES;
+    private static final int TIME_INDEX_INTERVAL = 256;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final long RETENTION_CHECK_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private enum Kind {
+        STUDENT(StudentChangedEvent.class),
+        ENROLLMENT(EnrollmentChangedEvent.class),
+        CLASSROOM(ClassRoomChangedEvent.class);
+
+        private final Class<?> eventType;
+
+        Kind(Class<?> eventType) {
+            this.eventType = eventType;
+        }
+
+        String label() {
+            return name().toLowerCase();
+        }
+
+        static Kind of(String label) {
+            for (Kind kind : values()) {
+                if (kind.label().equals(label)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown kind of change: " + label);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+    private final long enqueueTimeoutMillis;
+    private final Duration retention;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+
+    // Readers hold the read lock while they access mapped segments; segments are only unmapped under the write lock
+    private final ReadWriteLock mappings = new ReentrantReadWriteLock();
+    // Guarded by this; ordered by number, without gaps
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Integer, Positions> byStudent = new HashMap<>();
+    private final Map<Long, Positions> byClassRoom = new HashMap<>();
+    private final Positions timeIndexTimes = new Positions();
+    private final Positions timeIndexPositions = new Positions();
+    private long entries;
+    // Written by the writer thread, and by the startup scan before it starts
+    private long lastTime;
+
+    public ChangeJournal(ObjectMapper objectMapper,
+                         @Value("${journal.directory:journal}") Path directory,
+                         @Value("${journal.segment-size:16MB}") DataSize segmentSize,
+                         @Value("${journal.flush-interval:200ms}") Duration flushInterval,
+                         @Value("${journal.queue-capacity:65536}") int queueCapacity,
+                         @Value("${journal.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                         @Value("${journal.retention:30d}") Duration retention) throws IOException {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.enqueueTimeoutMillis = enqueueTimeout.toMillis();
+        this.retention = retention;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Files.createDirectories(directory);
+        open();
+        deleteExpiredSegments();
+        this.writer = new Thread(this::writeLoop, "change-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        enqueue(new Pending(System.currentTimeMillis(), Kind.STUDENT, event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        enqueue(new Pending(System.currentTimeMillis(), Kind.ENROLLMENT, event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassRoomChanged(ClassRoomChangedEvent event) {
+        enqueue(new Pending(System.currentTimeMillis(), Kind.CLASSROOM, event));
+    }
+
+
+    /**
+     * Returns the number of changes dropped since startup because the queue stayed full.
+     */
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+
+    /**
+     * Returns the changes of a student, including the student's enrollments and removals, newest first.
+     *
+     * @param studentId The ID of the student.
+     * @param kind      `student` or `enrollment` to return only that kind of change, or null for both.
+     * @param from      The earliest time to include.
+     * @param to        The time up to which changes are included (exclusive).
+     * @param limit     The maximum number of entries.
+     */
+
+    public List<JournalEntry> findByStudent(int studentId, String kind, Instant from, Instant to, int limit) {
+        return read(byStudent, studentId, kindOf(kind), from, to, limit);
+    }
+
+
+    /**
+     * Returns the changes of a classroom and of its roster, newest first.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param kind        `classroom` or `enrollment` to return only that kind of change, or null for both.
+     * @param from        The earliest time to include.
+     * @param to          The time up to which changes are included (exclusive).
+     * @param limit       The maximum number of entries.
+     */
+
+    public List<JournalEntry> findByClassRoom(long classroomId, String kind, Instant from, Instant to, int limit) {
+        return read(byClassRoom, classroomId, kindOf(kind), from, to, limit);
+    }
+
+
+    /**
+     * Returns all changes in a time range, newest first. The time index is walked backwards from `to`, and the
+     * records between two index points are scanned forwards.
+     *
+     * @param kind  The kind of change to return, or null for all.
+     * @param from  The earliest time to include.
+     * @param to    The time up to which changes are included (exclusive).
+     * @param limit The maximum number of entries.
+     */
+
+    public List<JournalEntry> findBetween(String kind, Instant from, Instant to, int limit) {
+        Kind wanted = kindOf(kind);
+        mappings.readLock().lock();
+        try {
+            long[] pointTimes;
+            long[] pointPositions;
+            Segment[] snapshot;
+            int[] ends;
+            synchronized (this) {
+                pointTimes = timeIndexTimes.toArray();
+                pointPositions = timeIndexPositions.toArray();
+                snapshot = segments.toArray(new Segment[0]);
+                ends = new int[snapshot.length];
+                for (int i = 0; i < snapshot.length; i++) {
+                    ends[i] = snapshot[i].end;
+                }
+            }
+
+            List<JournalEntry> result = new ArrayList<>();
+            List<JournalEntry> chunk = new ArrayList<>();
+            // Point -1 stands for the records before the first index point
+            for (int point = lastBefore(pointTimes, to.toEpochMilli()); point >= -1 && result.size() < limit; point--) {
+                long start = point < 0 ? position(snapshot[0].number, SEGMENT_HEADER) : pointPositions[point];
+                long end = point + 1 < pointPositions.length ? pointPositions[point + 1] : Long.MAX_VALUE;
+                scan(snapshot, ends, start, end, wanted, from, to, chunk);
+                for (int i = chunk.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    result.add(chunk.get(i));
+                }
+                chunk.clear();
+                if (point >= 0 && pointTimes[point] < from.toEpochMilli()) {
+                    // All earlier records are older than `from`
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            mappings.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the records from `start` (inclusive) to `end` (exclusive) that are in the time range, oldest first.
+     */
+
+    private static void scan(Segment[] snapshot, int[] ends, long start, long end, Kind wanted,
+                             Instant from, Instant to, List<JournalEntry> into) {
+        int segment = segmentOf(start) - snapshot[0].number;
+        int offset = offsetOf(start);
+        while (segment < snapshot.length && position(snapshot[segment].number, offset) < end) {
+            if (offset >= ends[segment]) {
+                segment++;
+                offset = SEGMENT_HEADER;
+                continue;
+            }
+            MappedByteBuffer buffer = snapshot[segment].buffer;
+            long time = buffer.getLong(offset + Integer.BYTES);
+            if (time >= to.toEpochMilli()) {
+                return;
+            }
+            if (time >= from.toEpochMilli() && matches(buffer, offset, wanted)) {
+                into.add(entryAt(buffer, offset));
+            }
+            offset += RECORD_HEADER + buffer.getInt(offset);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        mappings.writeLock().lock();
+        try {
+            synchronized (this) {
+                segments.forEach(segment -> unmap(segment.buffer));
+                segments.clear();
+            }
+        } finally {
+            mappings.writeLock().unlock();
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        try {
+            if (queue.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        log.warn("Change journal queue is full, dropped {}", pending.event());
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        long lastFlush = System.currentTimeMillis();
+        long lastRetentionCheck = lastFlush;
+        boolean dirty = false;
+        boolean running = true;
+        while (running) {
+            Pending next;
+            try {
+                next = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                next = null;
+                running = false;
+            }
+            if (next != null) {
+                batch.add(next);
+            }
+            queue.drainTo(batch);
+            for (Pending pending : batch) {
+                append(pending);
+            }
+            dirty |= !batch.isEmpty();
+            batch.clear();
+
+            long now = System.currentTimeMillis();
+            if (dirty && (next == null || now - lastFlush >= flushIntervalMillis || !running)) {
+                flush();
+                lastFlush = now;
+                dirty = false;
+            }
+            if (running && now - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MILLIS) {
+                deleteExpiredSegments();
+                lastRetentionCheck = now;
+            }
+        }
+    }
+
+    private void append(Pending pending) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(pending.event());
+            int size = RECORD_HEADER + payload.length;
+            if (SEGMENT_HEADER + size > segmentSize) {
+                throw new IllegalArgumentException("Change of " + size + " bytes does not fit into a journal segment");
+            }
+
+            Segment segment = currentSegment();
+            if (segment.end + size > segmentSize) {
+                segment.buffer.force();
+                segment = createSegment(segment.number + 1);
+                deleteExpiredSegments();
+            }
+            // Events are queued by many threads, so their times can be slightly out of order
+            long time = Math.max(pending.time(), lastTime);
+            lastTime = time;
+            int offset = segment.end;
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.putLong(offset + Integer.BYTES, time);
+            buffer.put(offset + Integer.BYTES + Long.BYTES, (byte) pending.kind().ordinal());
+            buffer.put(offset + RECORD_HEADER, payload);
+            buffer.putInt(offset, payload.length);
+
+            synchronized (this) {
+                segment.end = offset + size;
+                segment.lastTime = time;
+                index(pending.kind(), pending.event(), time, position(segment.number, offset));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not journal {}", pending.event(), e);
+        }
+    }
+
+    private void flush() {
+        try {
+            currentSegment().buffer.force();
+        } catch (RuntimeException e) {
+            log.error("Could not flush the change journal", e);
+        }
+    }
+
+    private synchronized Segment currentSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Maps the existing segments and rebuilds the index from their records, or creates the first segment.
+     */
+
+    private void open() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            int number = Integer.parseInt(file.getFileName().toString()
+                    .substring(SEGMENT_PREFIX.length()).replace(SEGMENT_SUFFIX, ""));
+            Segment segment = mapSegment(file, number, Math.max(segmentSize, Math.toIntExact(Files.size(file))));
+            if (segment.buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException(file + " is not a change journal segment");
+            }
+            scan(segment);
+        }
+        if (segments.isEmpty()) {
+            createSegment(0);
+        }
+    }
+
+    private synchronized void scan(Segment segment) throws IOException {
+        segments.add(segment);
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = SEGMENT_HEADER;
+        while (offset + RECORD_HEADER <= buffer.capacity() && buffer.getInt(offset) > 0) {
+            JournalEntry entry = entryAt(buffer, offset);
+            Kind kind = Kind.values()[buffer.get(offset + Integer.BYTES + Long.BYTES)];
+            Object event = objectMapper.readValue(entry.change(), kind.eventType);
+            lastTime = entry.time().toEpochMilli();
+            segment.lastTime = lastTime;
+            index(kind, event, lastTime, position(segment.number, offset));
+            offset += RECORD_HEADER + buffer.getInt(offset);
+        }
+        segment.end = offset;
+    }
+
+    private Segment createSegment(int number) throws IOException {
+        Segment segment = mapSegment(segmentFile(number), number, segmentSize);
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.force();
+        segment.end = SEGMENT_HEADER;
+        synchronized (this) {
+            segments.add(segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Unmaps and deletes the segments whose newest entry is older than the retention, oldest first,
+     * and drops their records from the index. The current segment is kept.
+     */
+
+    private void deleteExpiredSegments() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Segment> expired = new ArrayList<>();
+        mappings.writeLock().lock();
+        try {
+            synchronized (this) {
+                while (segments.size() > 1 && segments.get(0).lastTime < cutoff) {
+                    expired.add(segments.remove(0));
+                }
+                if (expired.isEmpty()) {
+                    return;
+                }
+                long firstKept = position(segments.get(0).number, 0);
+                byStudent.values().removeIf(positions -> positions.dropBefore(firstKept) == 0);
+                byClassRoom.values().removeIf(positions -> positions.dropBefore(firstKept) == 0);
+                int droppedPoints = timeIndexPositions.size() - timeIndexPositions.dropBefore(firstKept);
+                timeIndexTimes.dropFirst(droppedPoints);
+            }
+            expired.forEach(segment -> unmap(segment.buffer));
+        } finally {
+            mappings.writeLock().unlock();
+        }
+        for (Segment segment : expired) {
+            try {
+                Files.deleteIfExists(segmentFile(segment.number));
+            } catch (IOException e) {
+                log.error("Could not delete journal segment {}", segment.number, e);
+            }
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Releases a mapping right away instead of when the buffer is garbage collected, so the file can be deleted
+     * and its address space is returned. Before Java 22 this is only possible through `Unsafe.invokeCleaner`.
+     */
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not unmap a journal segment; it is released when garbage collected", e);
+        }
+    }
+
+    private Segment mapSegment(Path file, int number, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return new Segment(number, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private void index(Kind kind, Object event, long time, long position) {
+        switch (kind) {
+            case STUDENT -> add(byStudent, ((StudentChangedEvent) event).studentId(), position);
+            case CLASSROOM -> add(byClassRoom, ((ClassRoomChangedEvent) event).classroomId(), position);
+            case ENROLLMENT -> {
+                EnrollmentChangedEvent enrollment = (EnrollmentChangedEvent) event;
+                add(byClassRoom, enrollment.classroomId(), position);
+                for (Integer studentId : enrollment.studentIds()) {
+                    add(byStudent, studentId, position);
+                }
+            }
+        }
+        if (entries++ % TIME_INDEX_INTERVAL == 0) {
+            timeIndexTimes.add(time);
+            timeIndexPositions.add(position);
+        }
+    }
+
+    private static <K> void add(Map<K, Positions> index, K key, long position) {
+        index.computeIfAbsent(key, k -> new Positions()).add(position);
+    }
+
+    /**
+     * Reads the indexed records of a key that are in the time range, newest first.
+     */
+
+    private <K> List<JournalEntry> read(Map<K, Positions> index, K key, Kind wanted, Instant from, Instant to, int limit) {
+        mappings.readLock().lock();
+        try {
+            long[] positions;
+            Segment[] snapshot;
+            synchronized (this) {
+                Positions indexed = index.get(key);
+                positions = indexed == null ? new long[0] : indexed.toArray();
+                snapshot = segments.toArray(new Segment[0]);
+            }
+            List<JournalEntry> result = new ArrayList<>();
+            for (int i = positions.length - 1; i >= 0 && result.size() < limit; i--) {
+                MappedByteBuffer buffer = snapshot[segmentOf(positions[i]) - snapshot[0].number].buffer;
+                int offset = offsetOf(positions[i]);
+                long time = buffer.getLong(offset + Integer.BYTES);
+                if (time < from.toEpochMilli()) {
+                    break;
+                }
+                if (time < to.toEpochMilli() && matches(buffer, offset, wanted)) {
+                    result.add(entryAt(buffer, offset));
+                }
+            }
+            return result;
+        } finally {
+            mappings.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the index of the last value below `value`, or -1; the values must be ascending.
+     */
+
+    private static int lastBefore(long[] values, long value) {
+        int low = 0;
+        int high = values.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private static Kind kindOf(String label) {
+        return label == null ? null : Kind.of(label);
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int offset, Kind wanted) {
+        return wanted == null || buffer.get(offset + Integer.BYTES + Long.BYTES) == wanted.ordinal();
+    }
+
+    private static JournalEntry entryAt(MappedByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        long time = buffer.getLong(offset + Integer.BYTES);
+        Kind kind = Kind.values()[buffer.get(offset + Integer.BYTES + Long.BYTES)];
+        byte[] payload = new byte[length];
+        buffer.get(offset + RECORD_HEADER, payload);
+        return new JournalEntry(Instant.ofEpochMilli(time), kind.label(), new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    private record Pending(long time, Kind kind, Object event) {
+    }
+
+    private static final class Segment {
+
+        private final int number;
+        private final MappedByteBuffer buffer;
+        // Written by the writer thread under the journal's lock
+        private int end;
+        private long lastTime = Long.MIN_VALUE;
+
+        private Segment(int number, MappedByteBuffer buffer) {
+            this.number = number;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A growable array of longs, to avoid boxing one `Long` per indexed record.
+     */
+
+    private static final class Positions {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Removes the values below `value`; the values must be ascending.
+         *
+         * @return The number of values left.
+         */
+
+        int dropBefore(long value) {
+            int first = 0;
+            while (first < size && values[first] < value) {
+                first++;
+            }
+            dropFirst(first);
+            return size;
+        }
+
+        void dropFirst(int count) {
+            System.arraycopy(values, count, values, 0, size - count);
+            size -= count;
+        }
+    }
+}
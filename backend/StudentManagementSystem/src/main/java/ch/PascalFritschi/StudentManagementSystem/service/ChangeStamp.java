@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+
+/**
+ * The state of a collection as seen by HTTP caches: an ETag and a Last-Modified time.
+ *
+ * @param eTag         The weak entity tag, including the `W/` prefix and quotes.
+ * @param lastModified The time of the last change in epoch milliseconds.
+ */
+
+public record ChangeStamp(String eTag, long lastModified) {
+}
@@ -0,0 +1,115 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+
+
+/**
+ * The `ChangeTracker` class keeps a change stamp per polled collection (student list, classroom list, each roster),
+ * so conditional GETs can be answered with `304 Not Modified` without querying the database.
+ *
+ * Every committed change event draws the next value of one process-wide counter and records it, with the current time,
+ * on the collections it affects. A response covering several collections takes the most recent of their values,
+ * which changes whenever any of them changes. ETags are prefixed with the start time of the process,
+ * so they are never reused after a restart; with several instances each instance has its own ETags.
+ * The ETags are weak: the same state is served as JSON, CBOR or Smile and possibly gzip-compressed,
+ * and Tomcat does not compress responses that carry a strong ETag.
+ *
+ * Controllers must read the stamp before querying the data, so a change that commits in between
+ * at worst causes one unnecessary full response, never a stale 304.
+ */
+
+@Service
+public class ChangeTracker {
+
+    private static final BinaryOperator<Tick> LATEST = (a, b) -> a.version() >= b.version() ? a : b;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Tick initial = new Tick(0, System.currentTimeMillis());
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicReference<Tick> students = new AtomicReference<>(initial);
+    private final AtomicReference<Tick> classRooms = new AtomicReference<>(initial);
+    private final ConcurrentMap<Long, Tick> rosters = new ConcurrentHashMap<>();
+
+
+    /**
+     * Returns the stamp of the student list, which shows each student's classroom name.
+     */
+
+    public ChangeStamp studentList() {
+        return stamp(students.get(), classRooms.get());
+    }
+
+
+    /**
+     * Returns the stamp of the classroom list, including the enrollment counts.
+     */
+
+    public ChangeStamp classRoomList() {
+        return stamp(classRooms.get());
+    }
+
+
+    /**
+     * Returns the stamp of a classroom's roster, which lists student rows.
+     *
+     * @param classroomId The ID of the classroom.
+     */
+
+    public ChangeStamp roster(long classroomId) {
+        return stamp(students.get(), classRooms.get(), rosters.getOrDefault(classroomId, initial));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        Tick tick = tick();
+        students.accumulateAndGet(tick, LATEST);
+        if (event.type() == ChangeType.DELETED) {
+            // The student's enrollments were deleted with it, which changes the enrollment counts
+            classRooms.accumulateAndGet(tick, LATEST);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassRoomChanged(ClassRoomChangedEvent event) {
+        classRooms.accumulateAndGet(tick(), LATEST);
+        if (event.type() == ChangeType.DELETED) {
+            // The classroom stamp, which every roster includes, is newer than anything recorded for the roster
+            rosters.remove(event.classroomId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        Tick tick = tick();
+        rosters.merge(event.classroomId(), tick, LATEST);
+        classRooms.accumulateAndGet(tick, LATEST);
+    }
+
+    private Tick tick() {
+        return new Tick(clock.incrementAndGet(), System.currentTimeMillis());
+    }
+
+    private ChangeStamp stamp(Tick... ticks) {
+        Tick latest = initial;
+        for (Tick tick : ticks) {
+            latest = LATEST.apply(latest, tick);
+        }
+        return new ChangeStamp("W/\"" + epoch + "-" + latest.version() + "\"", latest.time());
+    }
+
+    private record Tick(long version, long time) {
+    }
+}
@@ -0,0 +1,347 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+
+
+/**
+ * The `ClassRoomMembershipIndex` class keeps the students of every classroom as a compressed bitmap of student IDs,
+ * so set questions across classrooms ("in both A and B", "in 3 or more classes", class sizes) are answered
+ * with bitmap operations instead of loading enrollment rows.
+ *
+ * The index is built once when the application is ready and then kept in sync by {@link EnrollmentChangedEvent}s,
+ * {@link ClassRoomChangedEvent}s and {@link StudentChangedEvent}s. Classrooms without students are not in the index
+ * and behave as empty sets. Every query returns a new bitmap that the caller owns. A reverse map from student to
+ * classrooms lets a deleted student be removed from its classrooms without visiting all others.
+ *
+ * Changes that commit while the index is rebuilt are applied to the current state and also buffered; once the
+ * enrollments are loaded they are replayed onto the new state, so the rebuild does not lose them.
+ */
+
+@Service
+public class ClassRoomMembershipIndex {
+
+    private final StudentClassroomRepository studentClassroomRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; pendingEvents is only set while a rebuild loads the enrollments
+    private final Map<Long, RoaringBitmap> students = new HashMap<>();
+    private final Map<Integer, Set<Long>> classrooms = new HashMap<>();
+    private List<Object> pendingEvents;
+
+    public ClassRoomMembershipIndex(StudentClassroomRepository studentClassroomRepository) {
+        this.studentClassroomRepository = studentClassroomRepository;
+    }
+
+
+    /**
+     * Builds the index from the database. Called once when the application is ready.
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, RoaringBitmap> builtStudents = new HashMap<>();
+        Map<Integer, Set<Long>> builtClassrooms = new HashMap<>();
+        boolean loaded = false;
+        try {
+            for (EnrollmentPair pair : studentClassroomRepository.findAllPairs()) {
+                builtStudents.computeIfAbsent(pair.classroomId(), id -> new RoaringBitmap()).add(pair.studentId());
+                builtClassrooms.computeIfAbsent(pair.studentId(), id -> new HashSet<>()).add(pair.classroomId());
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Object> replay = pendingEvents;
+                pendingEvents = null;
+                // If loading failed, the index keeps its current state
+                if (loaded) {
+                    students.clear();
+                    students.putAll(builtStudents);
+                    classrooms.clear();
+                    classrooms.putAll(builtClassrooms);
+                    replay.forEach(this::apply);
+                    // Student IDs are assigned in sequence, so long runs compress well
+                    students.values().forEach(RoaringBitmap::runOptimize);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Applies committed enrollments and removals to the index.
+     *
+     * @param event The change.
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        record(event);
+    }
+
+
+    /**
+     * Drops a deleted classroom from the index.
+     *
+     * @param event The change.
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassRoomChanged(ClassRoomChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            record(event);
+        }
+    }
+
+
+    /**
+     * Removes a deleted student from every classroom.
+     *
+     * @param event The change.
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            record(event);
+        }
+    }
+
+    /**
+     * Returns the students enrolled in every one of the given classrooms.
+     *
+     * @param classroomIds The IDs of the classrooms.
+     * @return The students in all classrooms; empty if no classroom is given.
+     */
+
+    public RoaringBitmap intersection(Collection<Long> classroomIds) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> classrooms = new ArrayList<>(classroomIds.size());
+            for (Long classroomId : classroomIds) {
+                RoaringBitmap classroom = students.get(classroomId);
+                if (classroom == null) {
+                    return new RoaringBitmap();
+                }
+                classrooms.add(classroom);
+            }
+            if (classrooms.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            // Starting from the smallest classroom keeps every intermediate result small
+            classrooms.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap result = classrooms.get(0).clone();
+            for (int i = 1; i < classrooms.size() && !result.isEmpty(); i++) {
+                result.and(classrooms.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the students enrolled in at least one of the given classrooms.
+     *
+     * @param classroomIds The IDs of the classrooms.
+     * @return The students in any of the classrooms.
+     */
+
+    public RoaringBitmap union(Collection<Long> classroomIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Long classroomId : classroomIds) {
+                RoaringBitmap classroom = students.get(classroomId);
+                if (classroom != null) {
+                    result.or(classroom);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the students enrolled in one classroom but in none of the others.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param excludedIds The IDs of the classrooms whose students are removed.
+     * @return The students of the classroom that are in none of the excluded classrooms.
+     */
+
+    public RoaringBitmap difference(long classroomId, Collection<Long> excludedIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap classroom = students.get(classroomId);
+            if (classroom == null) {
+                return new RoaringBitmap();
+            }
+            RoaringBitmap result = classroom.clone();
+            for (Long excludedId : excludedIds) {
+                RoaringBitmap excluded = students.get(excludedId);
+                if (excluded != null && !result.isEmpty()) {
+                    result.andNot(excluded);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the students enrolled in at least the given number of classrooms.
+     *
+     * @param minClassrooms The minimum number of classrooms.
+     * @return The students with that many enrollments or more.
+     */
+
+    public RoaringBitmap enrolledInAtLeast(int minClassrooms) {
+        int threshold = Math.max(minClassrooms, 1);
+        lock.readLock().lock();
+        try {
+            if (threshold > students.size()) {
+                return new RoaringBitmap();
+            }
+            // atLeast[k] holds the students seen in k or more of the classrooms processed so far
+            RoaringBitmap[] atLeast = new RoaringBitmap[threshold + 1];
+            for (int k = 1; k <= threshold; k++) {
+                atLeast[k] = new RoaringBitmap();
+            }
+            for (RoaringBitmap classroom : students.values()) {
+                for (int k = threshold; k >= 2; k--) {
+                    atLeast[k].or(RoaringBitmap.and(atLeast[k - 1], classroom));
+                }
+                atLeast[1].or(classroom);
+            }
+            return atLeast[threshold];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Returns the number of students in every classroom that has any.
+     *
+     * @return The class sizes by classroom ID, ordered by ID.
+     */
+
+    public Map<Long, Integer> sizes() {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> sizes = new TreeMap<>();
+            students.forEach((classroomId, classroom) -> sizes.put(classroomId, classroom.getCardinality()));
+            return sizes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change and, while a rebuild is loading the enrollments, buffers it for the rebuilt state.
+     */
+
+    private void record(Object event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change; the caller holds the write lock. Applying a change twice has no further effect.
+     */
+
+    private void apply(Object event) {
+        if (event instanceof EnrollmentChangedEvent enrollment) {
+            for (Integer studentId : enrollment.studentIds()) {
+                if (enrollment.type() == ChangeType.DELETED) {
+                    removeEnrollment(enrollment.classroomId(), studentId);
+                } else {
+                    students.computeIfAbsent(enrollment.classroomId(), id -> new RoaringBitmap()).add(studentId);
+                    classrooms.computeIfAbsent(studentId, id -> new HashSet<>()).add(enrollment.classroomId());
+                }
+            }
+        } else if (event instanceof ClassRoomChangedEvent classRoom) {
+            RoaringBitmap removed = students.remove(classRoom.classroomId());
+            if (removed != null) {
+                removed.forEach((int studentId) -> removeClassRoom(studentId, classRoom.classroomId()));
+            }
+        } else if (event instanceof StudentChangedEvent student) {
+            Set<Long> removed = classrooms.remove(student.studentId());
+            if (removed != null) {
+                for (Long classroomId : removed) {
+                    removeStudent(classroomId, student.studentId());
+                }
+            }
+        }
+    }
+
+    private void removeEnrollment(long classroomId, int studentId) {
+        removeStudent(classroomId, studentId);
+        removeClassRoom(studentId, classroomId);
+    }
+
+    private void removeStudent(long classroomId, int studentId) {
+        RoaringBitmap classroom = students.get(classroomId);
+        if (classroom != null) {
+            classroom.remove(studentId);
+            if (classroom.isEmpty()) {
+                students.remove(classroomId);
+            }
+        }
+    }
+
+    private void removeClassRoom(int studentId, long classroomId) {
+        Set<Long> studentClassrooms = classrooms.get(studentId);
+        if (studentClassrooms != null) {
+            studentClassrooms.remove(classroomId);
+            if (studentClassrooms.isEmpty()) {
+                classrooms.remove(studentId);
+            }
+        }
+    }
+}
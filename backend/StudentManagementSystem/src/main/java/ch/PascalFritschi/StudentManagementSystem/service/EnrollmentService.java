@@ -0,0 +1,114 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentReport;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+
+/**
+ * The `EnrollmentService` class enrolls many students into classrooms at once.
+ * Existence of students, classrooms and enrollments is checked with set-based IN queries of at most
+ * {@value QueryChunks#MAX_IDS} IDs each, and all new enrollments are inserted as JDBC batches in one transaction.
+ */
+
+@Service
+public class EnrollmentService {
+
+    private final StudentClassroomRepository studentClassroomRepository;
+    private final StudentRepository studentRepository;
+    private final ClassRoomRepository classRoomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EnrollmentService(StudentClassroomRepository studentClassroomRepository,
+                             StudentRepository studentRepository,
+                             ClassRoomRepository classRoomRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.studentClassroomRepository = studentClassroomRepository;
+        this.studentRepository = studentRepository;
+        this.classRoomRepository = classRoomRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+
+    /**
+     * Enrolls the given (student, classroom) pairs.
+     *
+     * @param pairs The pairs to enroll, in request order.
+     * @return A report listing the added, skipped (already enrolled or repeated) and invalid (unknown student or classroom) pairs.
+     */
+
+    @Transactional
+    public EnrollmentReport enroll(Collection<EnrollmentPair> pairs) {
+        List<EnrollmentPair> added = new ArrayList<>();
+        List<EnrollmentPair> skipped = new ArrayList<>();
+        List<EnrollmentPair> invalid = new ArrayList<>();
+        if (pairs.isEmpty()) {
+            return new EnrollmentReport(added, skipped, invalid);
+        }
+
+        Set<Integer> studentIds = new HashSet<>();
+        Set<Long> classroomIds = new HashSet<>();
+        for (EnrollmentPair pair : pairs) {
+            studentIds.add(pair.studentId());
+            classroomIds.add(pair.classroomId());
+        }
+
+        Set<Integer> existingStudents = new HashSet<>();
+        for (List<Integer> chunk : QueryChunks.of(studentIds)) {
+            existingStudents.addAll(studentRepository.findExistingIds(chunk));
+        }
+        Set<Long> existingClassrooms = new HashSet<>();
+        for (List<Long> chunk : QueryChunks.of(classroomIds)) {
+            existingClassrooms.addAll(classRoomRepository.findExistingIds(chunk));
+        }
+        Set<EnrollmentPair> existingPairs = new HashSet<>();
+        for (List<Integer> studentChunk : QueryChunks.of(existingStudents)) {
+            for (List<Long> classroomChunk : QueryChunks.of(existingClassrooms)) {
+                existingPairs.addAll(studentClassroomRepository.findExistingPairs(studentChunk, classroomChunk));
+            }
+        }
+
+        Set<EnrollmentPair> seen = new HashSet<>();
+        List<StudentClassroom> newEnrollments = new ArrayList<>();
+        for (EnrollmentPair pair : pairs) {
+            if (!existingStudents.contains(pair.studentId()) || !existingClassrooms.contains(pair.classroomId())) {
+                invalid.add(pair);
+            } else if (!seen.add(pair) || existingPairs.contains(pair)) {
+                skipped.add(pair);
+            } else {
+                // References are proxies, so no SELECT is issued for the student or the classroom
+                newEnrollments.add(new StudentClassroom(
+                        classRoomRepository.getReferenceById(pair.classroomId()),
+                        studentRepository.getReferenceById(pair.studentId())));
+                added.add(pair);
+            }
+        }
+
+        studentClassroomRepository.saveAll(newEnrollments);
+
+        Map<Long, List<Integer>> addedByClassroom = new LinkedHashMap<>();
+        for (EnrollmentPair pair : added) {
+            addedByClassroom.computeIfAbsent(pair.classroomId(), id -> new ArrayList<>()).add(pair.studentId());
+        }
+        addedByClassroom.forEach((classroomId, addedStudentIds) ->
+                eventPublisher.publishEvent(new EnrollmentChangedEvent(ChangeType.CREATED, classroomId, addedStudentIds)));
+        return new EnrollmentReport(added, skipped, invalid);
+    }
+}
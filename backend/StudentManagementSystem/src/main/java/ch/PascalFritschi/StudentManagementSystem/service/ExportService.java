@@ -0,0 +1,215 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+
+
+/**
+ * The `ExportService` class writes the students, classrooms and enrollments tables to an output stream as CSV or
+ * NDJSON (one JSON object per line). Like {@link StudentStreamService}, rows are read as projections off a forward-only
+ * JDBC cursor with a fetch size of 500 (a server-side cursor on MySQL with `useCursorFetch=true`) and written as they
+ * arrive, so no entities are created and the heap usage does not depend on the table size. Neither format flushes
+ * per row; the buffered output goes out as it fills up and once more when the export is complete.
+ */
+
+@Service
+public class ExportService {
+
+    /**
+     * The supported export formats.
+     */
+
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON(MediaType.APPLICATION_NDJSON);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String[] STUDENT_COLUMNS = {"id", "name", "email", "address", "phoneNumber", "birthdate",
+            "grade", "classroomId", "classroomName", "version"};
+    private static final String[] CLASSROOM_COLUMNS = {"id", "name"};
+    private static final String[] ENROLLMENT_COLUMNS = {"studentId", "classroomId"};
+
+    private final StudentRepository studentRepository;
+    private final ClassRoomRepository classRoomRepository;
+    private final StudentClassroomRepository studentClassroomRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(StudentRepository studentRepository,
+                         ClassRoomRepository classRoomRepository,
+                         StudentClassroomRepository studentClassroomRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.classRoomRepository = classRoomRepository;
+        this.studentClassroomRepository = studentClassroomRepository;
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    /**
+     * Writes all students, ordered by ID, to the given output stream. The output stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to, usually the HTTP response body.
+     * @param format       The format to write.
+     * @throws IOException If writing to the output stream fails.
+     */
+
+    public void writeStudents(OutputStream outputStream, Format format) throws IOException {
+        write(outputStream, format, STUDENT_COLUMNS, studentRepository::streamAllDetails, student -> new Object[] {
+                student.id(), student.name(), student.email(), student.address(), student.phoneNumber(),
+                student.birthdate(), student.grade(),
+                student.classRoom() == null ? null : student.classRoom().id(),
+                student.classRoom() == null ? null : student.classRoom().name(),
+                student.version()});
+    }
+
+
+    /**
+     * Writes all classrooms, ordered by ID, to the given output stream. The output stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to, usually the HTTP response body.
+     * @param format       The format to write.
+     * @throws IOException If writing to the output stream fails.
+     */
+
+    public void writeClassRooms(OutputStream outputStream, Format format) throws IOException {
+        write(outputStream, format, CLASSROOM_COLUMNS, classRoomRepository::streamAllRefs,
+                classRoom -> new Object[] {classRoom.id(), classRoom.name()});
+    }
+
+
+    /**
+     * Writes all enrollments as (student, classroom) pairs, ordered by enrollment ID, to the given output stream.
+     * The output stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to, usually the HTTP response body.
+     * @param format       The format to write.
+     * @throws IOException If writing to the output stream fails.
+     */
+
+    public void writeEnrollments(OutputStream outputStream, Format format) throws IOException {
+        write(outputStream, format, ENROLLMENT_COLUMNS, studentClassroomRepository::streamAllPairs,
+                enrollment -> new Object[] {enrollment.studentId(), enrollment.classroomId()});
+    }
+
+    /**
+     * Streams the rows inside a read-only transaction and writes each one as it is read.
+     * CSV rows are built from the given columns; NDJSON lines are the serialized rows themselves.
+     */
+
+    private <R> void write(OutputStream outputStream, Format format, String[] header, Supplier<Stream<R>> rows,
+                           Function<R, Object[]> columns) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                writeCsvLine(writer, header);
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<R> stream = rows.get()) {
+                        stream.forEach(row -> writeCsvLine(writer, columns.apply(row)));
+                    }
+                });
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                // Lines are separated by the newline written after each row
+                generator.setRootValueSeparator(null);
+                try {
+                    readOnlyTransaction.executeWithoutResult(status -> {
+                        try (Stream<R> stream = rows.get()) {
+                            stream.forEach(row -> writeJsonLine(generator, row));
+                        }
+                    });
+                } finally {
+                    generator.close();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeJsonLine(JsonGenerator generator, Object row) {
+        try {
+            lineWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(csvField(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quotes a field as RFC 4180 requires when it contains a separator, a quote or a line break.
+     */
+
+    private static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,40 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * The `QueryChunks` class splits ID collections from requests into chunks for IN lists.
+ * Every ID is a bind parameter, and MySQL rejects statements with more than 65,535 of them; smaller lists also
+ * keep the number of distinct statements Hibernate and the driver have to prepare and cache low.
+ */
+
+final class QueryChunks {
+
+    /**
+     * The maximum number of IDs bound in one IN list.
+     */
+
+    static final int MAX_IDS = 1000;
+
+    private QueryChunks() {
+    }
+
+    /**
+     * Splits the IDs into consecutive chunks of at most {@link #MAX_IDS}.
+     *
+     * @param ids The IDs, in the order the chunks should have.
+     * @return The chunks; empty if there are no IDs.
+     */
+
+    static <T> List<List<T>> of(Collection<T> ids) {
+        List<T> list = List.copyOf(ids);
+        List<List<T>> chunks = new ArrayList<>((list.size() + MAX_IDS - 1) / MAX_IDS);
+        for (int from = 0; from < list.size(); from += MAX_IDS) {
+            chunks.add(list.subList(from, Math.min(list.size(), from + MAX_IDS)));
+        }
+        return chunks;
+    }
+}
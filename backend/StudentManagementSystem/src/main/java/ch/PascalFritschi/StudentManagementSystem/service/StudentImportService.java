@@ -0,0 +1,316 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.ImportReport;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+
+/**
+ * The `StudentImportService` class imports students in bulk from CSV or NDJSON input.
+ * Every row is validated against the `Student` constraints; valid rows are inserted in JDBC batches
+ * of `student.import.batch-size`, with one transaction per `student.import.chunk-size` rows.
+ * Invalid rows are reported with their line number. If the database rejects a chunk, its rows are retried one by one,
+ * each in its own transaction, so only the rows the database rejects themselves are reported and the rest is imported.
+ * Without JPA (`inmemory` profile) each chunk is saved with {@link StudentRepository#saveAll(Iterable)} instead.
+ */
+
+@Service
+public class StudentImportService {
+
+    /**
+     * The CSV columns understood by the import. The header row decides their order in the file.
+     */
+
+    public static final List<String> CSV_COLUMNS = List.of("name", "email", "address", "phoneNumber", "birthdate", "grade");
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int chunkSize;
+    private final StudentRepository studentRepository;
+    private final EntityManager entityManager;
+
+    public StudentImportService(ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                StudentRepository studentRepository,
+                                ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                @Value("${student.import.batch-size:50}") int batchSize,
+                                @Value("${student.import.chunk-size:1000}") int chunkSize) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        this.studentRepository = studentRepository;
+        this.entityManager = factory == null ? null : SharedEntityManagerCreator.createSharedEntityManager(factory);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+
+    /**
+     * Imports students from CSV. The first line must be a header naming the columns (see {@link #CSV_COLUMNS}).
+     * Fields may be enclosed in double quotes; quoted fields cannot span several lines.
+     *
+     * @param inputStream The CSV input, UTF-8 encoded.
+     * @return The import report.
+     * @throws IOException If the input cannot be read or the header is invalid.
+     */
+
+    public ImportReport importCsv(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return new ImportReport();
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> headerFields = parseCsvLine(header);
+        for (int i = 0; i < headerFields.size(); i++) {
+            String column = headerFields.get(i).trim();
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IOException("Unknown CSV column: " + column);
+            }
+            columns.put(column, i);
+        }
+
+        long[] lineNumber = {1};
+        return importRows(() -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                List<String> fields = parseCsvLine(line);
+                Student student = new Student();
+                student.setName(field(fields, columns, "name"));
+                student.setEmail(field(fields, columns, "email"));
+                student.setAddress(field(fields, columns, "address"));
+                student.setPhoneNumber(field(fields, columns, "phoneNumber"));
+                String birthdate = field(fields, columns, "birthdate");
+                student.setBirthdate(birthdate == null ? null : LocalDate.parse(birthdate));
+                student.setGrade(field(fields, columns, "grade"));
+                return new ImportRow(lineNumber[0], student, null);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                return new ImportRow(lineNumber[0], null, e.getMessage());
+            }
+        });
+    }
+
+
+    /**
+     * Imports students from NDJSON, one JSON object per line with the same properties as a `Student`.
+     * IDs and classroom references in the input are ignored.
+     *
+     * @param inputStream The NDJSON input, UTF-8 encoded.
+     * @return The import report.
+     * @throws IOException If the input cannot be read.
+     */
+
+    public ImportReport importNdjson(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long[] lineNumber = {0};
+        return importRows(() -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                Student student = objectMapper.readValue(line, Student.class);
+                student.setId(0);
+                student.setClassRoom(null);
+                return new ImportRow(lineNumber[0], student, null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow(lineNumber[0], null, e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportReport importRows(RowReader rowReader) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Student> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        ImportRow row;
+        while ((row = rowReader.next()) != null) {
+            if (row.error() != null) {
+                report.addError(row.line(), List.of(row.error()));
+                continue;
+            }
+
+            Set<ConstraintViolation<Student>> violations = validator.validate(row.student());
+            if (!violations.isEmpty()) {
+                List<String> messages = new ArrayList<>();
+                for (ConstraintViolation<Student> violation : violations) {
+                    messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+                }
+                report.addError(row.line(), messages);
+                continue;
+            }
+
+            chunk.add(row.student());
+            chunkLines.add(row.line());
+            if (chunk.size() == chunkSize) {
+                persistChunk(chunk, chunkLines, report);
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, chunkLines, report);
+        }
+        return report;
+    }
+
+    private void persistChunk(List<Student> chunk, List<Long> chunkLines, ImportReport report) {
+        try {
+            saveChunk(chunk);
+            report.addImported(chunk.size());
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            // Find the offending rows; the others of the chunk are still imported
+            for (int i = 0; i < chunk.size(); i++) {
+                Student student = chunk.get(i);
+                // The failed attempt may have assigned an ID and version
+                student.setId(0);
+                student.setVersion(null);
+                try {
+                    saveChunk(List.of(student));
+                    report.addImported(1);
+                } catch (PersistenceException | DataAccessException | TransactionException rowFailure) {
+                    report.addError(chunkLines.get(i), List.of("Rejected by the database: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the students in one transaction and publishes their creation.
+     */
+
+    private void saveChunk(List<Student> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (entityManager == null) {
+                    studentRepository.saveAll(chunk);
+                } else {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                    for (Student student : chunk) {
+                        entityManager.persist(student);
+                    }
+                    entityManager.flush();
+                }
+                for (Student student : chunk) {
+                    // Delivered to listeners when the chunk commits
+                    eventPublisher.publishEvent(new StudentChangedEvent(ChangeType.CREATED, student.getId(),
+                            student.getName(), student.getEmail()));
+                }
+            });
+        } finally {
+            // Detach the chunk so the persistence context does not grow over the whole import
+            if (entityManager != null) {
+                entityManager.clear();
+            }
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line into its fields, honouring double-quoted fields and escaped quotes ("").
+     */
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record ImportRow(long line, Student student, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        ImportRow next() throws IOException;
+    }
+}
@@ -0,0 +1,236 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentPatchRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+
+/**
+ * The `StudentPatchService` class applies JSON Merge Patches (RFC 7396) to students: a member sets that column,
+ * a member with value `null` clears it, and columns that are not mentioned keep their value. The patched columns
+ * are validated one by one against the constraints of {@link Student} and written with a single UPDATE of exactly
+ * those columns, so the student is neither loaded nor merged before the update.
+ * The student's own classroom is patched as `"classRoom": {"id": 3}`, or `null` to remove it; the classroom must exist.
+ * A `version` member is not a column but the version the client read; if it is given, a newer student is not
+ * overwritten. `PUT /api/student/update` is handled the same way, with every column set and the version required.
+ */
+
+@Service
+public class StudentPatchService {
+
+    private static final String VERSION = "version";
+    private static final String CLASS_ROOM = "classRoom";
+
+    private final StudentRepository studentRepository;
+    private final ClassRoomRepository classRoomRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StudentPatchService(StudentRepository studentRepository,
+                               ClassRoomRepository classRoomRepository,
+                               ObjectMapper objectMapper,
+                               Validator validator,
+                               ApplicationEventPublisher eventPublisher) {
+        this.studentRepository = studentRepository;
+        this.classRoomRepository = classRoomRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+
+    /**
+     * Applies a merge patch to one student.
+     *
+     * @param studentId The ID of the student.
+     * @param patch     The merge patch, a JSON object.
+     * @return The student after the update, or an empty Optional if the student does not exist.
+     * @throws IllegalArgumentException                If the patch is not an object, names an unknown or read-only
+     *                                                 column, or sets an invalid value.
+     * @throws ObjectOptimisticLockingFailureException If the patch carries a version and the student has a newer one.
+     */
+
+    @Transactional
+    public Optional<StudentDetail> patchStudent(int studentId, JsonNode patch) {
+        Map<String, Object> columns = toColumns(patch);
+        Long expectedVersion = null;
+        if (patch.has(VERSION)) {
+            if (!patch.get(VERSION).canConvertToLong()) {
+                throw new IllegalArgumentException("version: must be a number");
+            }
+            expectedVersion = patch.get(VERSION).asLong();
+        }
+        if (columns.isEmpty()) {
+            // An empty patch changes nothing
+            return studentRepository.findDetailById(studentId);
+        }
+
+        return update(studentId, expectedVersion, columns);
+    }
+
+    private Optional<StudentDetail> update(int studentId, Long expectedVersion, Map<String, Object> columns) {
+        if (studentRepository.updateColumns(List.of(studentId), expectedVersion, columns) == 0) {
+            if (expectedVersion != null && studentRepository.existsById(studentId)) {
+                throw new ObjectOptimisticLockingFailureException(Student.class, studentId);
+            }
+            return Optional.empty();
+        }
+        Optional<StudentDetail> patched = studentRepository.findDetailById(studentId);
+        patched.ifPresent(student -> eventPublisher.publishEvent(
+                new StudentChangedEvent(ChangeType.UPDATED, student.id(), student.name(), student.email())));
+        return patched;
+    }
+
+
+    /**
+     * Replaces all columns of a student with those of the given one, if the student still has the given version.
+     * The student is written with a single UPDATE instead of a merge, so its enrollments, which are not part of
+     * the request, are kept. Its own classroom is set to the given one by ID, or removed if none is given.
+     *
+     * @param student The new state of the student, with the ID and the version it was read with.
+     * @return The student after the update, or an empty Optional if the student does not exist.
+     * @throws IllegalArgumentException                If the student is invalid or its classroom does not exist.
+     * @throws ObjectOptimisticLockingFailureException If the student has a newer version.
+     */
+
+    @Transactional
+    public Optional<StudentDetail> replaceStudent(Student student) {
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Student> violation = violations.iterator().next();
+            throw new IllegalArgumentException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("name", student.getName());
+        columns.put("email", student.getEmail());
+        columns.put("address", student.getAddress());
+        columns.put("phoneNumber", student.getPhoneNumber());
+        columns.put("birthdate", student.getBirthdate());
+        columns.put("grade", student.getGrade());
+        columns.put(CLASS_ROOM, student.getClassRoom() == null ? null : classRoom(student.getClassRoom().getId()));
+        return update(student.getId(), student.getVersion(), columns);
+    }
+
+
+    /**
+     * Applies the same merge patch to every student whose own classroom is the given one, e.g. to move a whole class
+     * to the next grade. The students are updated with one UPDATE statement filtered by the classroom, without
+     * reading their IDs first, and then read back once for the change events; a `version` member is not allowed.
+     *
+     * @param classroomId The ID of the classroom.
+     * @param patch       The merge patch, a JSON object.
+     * @return The number of updated students.
+     * @throws IllegalArgumentException If the patch is not an object, carries a version, names an unknown or
+     *                                  read-only column, or sets an invalid value.
+     */
+
+    @Transactional
+    public int patchClassRoomStudents(long classroomId, JsonNode patch) {
+        Map<String, Object> columns = toColumns(patch);
+        if (patch.has(VERSION)) {
+            throw new IllegalArgumentException("version: not allowed when patching several students");
+        }
+        if (columns.isEmpty()) {
+            return 0;
+        }
+
+        int updated = studentRepository.updateColumnsByClassRoom(classroomId, columns);
+        if (updated == 0) {
+            return 0;
+        }
+        for (StudentSearchRow student : studentRepository.findSearchRowsByClassRoomId(classroomId)) {
+            eventPublisher.publishEvent(new StudentChangedEvent(ChangeType.UPDATED, student.id(), student.name(), student.email()));
+        }
+        return updated;
+    }
+
+    /**
+     * Converts the members of a merge patch, other than `version`, to validated column values.
+     */
+
+    private Map<String, Object> toColumns(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            String column = member.getKey();
+            if (column.equals(VERSION)) {
+                continue;
+            }
+            if (!StudentPatchRepository.PATCHABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException(column + ": cannot be patched");
+            }
+            Object value = toValue(column, member.getValue());
+            Set<ConstraintViolation<Student>> violations = validator.validateValue(Student.class, column, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(column + ": " + violations.iterator().next().getMessage());
+            }
+            columns.put(column, value);
+        }
+        return columns;
+    }
+
+    private Object toValue(String column, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (column.equals(CLASS_ROOM)) {
+            if (!value.isObject() || !value.path("id").canConvertToLong()) {
+                throw new IllegalArgumentException(column + ": must be an object with the ID of the classroom");
+            }
+            return classRoom(value.get("id").asLong());
+        }
+        if (value.isContainerNode()) {
+            throw new IllegalArgumentException(column + ": must be a single value");
+        }
+        Class<?> type = column.equals("birthdate") ? LocalDate.class : String.class;
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(column + ": " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Looks up the classroom a student is moved to, from the cache if possible, so a missing one is a bad request
+     * rather than a constraint violation.
+     */
+
+    private ClassRoom classRoom(Long classroomId) {
+        if (classroomId == null) {
+            throw new IllegalArgumentException(CLASS_ROOM + ": must have an ID");
+        }
+        return classRoomRepository.findById(classroomId)
+                .orElseThrow(() -> new IllegalArgumentException(CLASS_ROOM + ": classroom " + classroomId + " does not exist"));
+    }
+}
@@ -0,0 +1,374 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchHit;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+
+
+/**
+ * The `StudentSearchIndex` class is an in-memory n-gram inverted index over the names and emails of all students.
+ *
+ * Every word of a name or email (lower-cased, accents removed) is indexed by its trigrams and by its first letter,
+ * with a `^` marker for the word start, so a query can match any part of a word ("ann" finds "Johanna")
+ * or the beginning of a word from the first letter on ("j" finds "John"). Queries of four or more characters that
+ * do not match exactly fall back to trigram similarity, which tolerates typos ("jonh" finds "John").
+ *
+ * The index is built once when the application is ready and then kept in sync by {@link StudentChangedEvent}s,
+ * so searches never touch the database. Changes that commit while the index is rebuilt are applied to the current
+ * state and also buffered; once the students are loaded they are replayed onto the new state, so the rebuild does
+ * not lose them.
+ */
+
+@Service
+public class StudentSearchIndex {
+
+    private static final char WORD_START = '^';
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Fuzzy hits need at least this share of the grams of every query word.
+     */
+
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private final StudentRepository studentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; pendingEvents is only set while a rebuild loads the students
+    private final Map<Integer, IndexedStudent> students = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private List<StudentChangedEvent> pendingEvents;
+
+    public StudentSearchIndex(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+
+    /**
+     * Builds the index from the database. Called once when the application is ready.
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<StudentSearchRow> rows = null;
+        try {
+            rows = studentRepository.findAllSearchRows();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<StudentChangedEvent> replay = pendingEvents;
+                pendingEvents = null;
+                // If loading failed, the index keeps its current state
+                if (rows != null) {
+                    students.clear();
+                    postings.clear();
+                    for (StudentSearchRow row : rows) {
+                        add(row.id(), row.name(), row.email());
+                    }
+                    replay.forEach(this::apply);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Applies a committed student change to the index.
+     *
+     * @param event The change.
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Searches students by (partial) name or email.
+     * Every word of the query has to match; results are ranked by where and how well the words match.
+     *
+     * @param query The search text.
+     * @param limit The maximum number of hits.
+     * @return The best hits, best first.
+     */
+
+    public List<StudentSearchHit> search(String query, int limit) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<StudentSearchHit> best = new PriorityQueue<>(Comparator.comparingDouble(StudentSearchHit::score));
+        lock.readLock().lock();
+        try {
+            Set<Integer> exactMatches = new HashSet<>();
+            for (Integer id : candidates(queryWords.get(0))) {
+                IndexedStudent student = students.get(id);
+                double score = score(student, queryWords);
+                if (score > 0) {
+                    exactMatches.add(id);
+                    offer(best, new StudentSearchHit(id, student.name(), student.email(), score), limit);
+                }
+            }
+
+            if (exactMatches.size() < limit) {
+                addFuzzyMatches(queryWords, exactMatches, best, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<StudentSearchHit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(StudentSearchHit::score).reversed()
+                .thenComparingInt(StudentSearchHit::id));
+        return hits;
+    }
+
+    /**
+     * Returns the number of indexed students.
+     */
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return students.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change; the caller holds the write lock. Applying a change twice has no further effect.
+     */
+
+    private void apply(StudentChangedEvent event) {
+        remove(event.studentId());
+        if (event.type() != ChangeType.DELETED) {
+            add(event.studentId(), event.name(), event.email());
+        }
+    }
+
+    private void add(int id, String name, String email) {
+        List<String> nameWords = words(name);
+        List<String> emailWords = words(email);
+        Set<String> grams = new HashSet<>();
+        for (String word : nameWords) {
+            addGrams(word, grams);
+        }
+        for (String word : emailWords) {
+            addGrams(word, grams);
+        }
+
+        students.put(id, new IndexedStudent(id, name, email, nameWords, emailWords, grams));
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        IndexedStudent student = students.remove(id);
+        if (student == null) {
+            return;
+        }
+        for (String gram : student.grams()) {
+            Set<Integer> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the students whose words may contain the given query word: the smallest posting list among its grams.
+     */
+
+    private Set<Integer> candidates(String queryWord) {
+        Set<Integer> smallest = null;
+        for (String gram : queryGrams(queryWord)) {
+            Set<Integer> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest == null ? Collections.emptySet() : smallest;
+    }
+
+    /**
+     * Adds the students that match every query word approximately: words of four or more letters need at least
+     * {@link #MIN_SIMILARITY} of their grams in the student's grams, shorter words still have to match exactly.
+     */
+
+    private void addFuzzyMatches(List<String> queryWords, Set<Integer> exclude, PriorityQueue<StudentSearchHit> best, int limit) {
+        String longest = Collections.max(queryWords, Comparator.comparingInt(String::length));
+        if (longest.length() < 4) {
+            return;
+        }
+        Set<String> longestGrams = new HashSet<>();
+        addGrams(longest, longestGrams);
+
+        Set<Integer> candidates = new HashSet<>();
+        for (String gram : longestGrams) {
+            candidates.addAll(postings.getOrDefault(gram, Collections.emptySet()));
+        }
+        candidates.removeAll(exclude);
+
+        for (Integer id : candidates) {
+            IndexedStudent student = students.get(id);
+            double totalSimilarity = 0;
+            for (String queryWord : queryWords) {
+                double similarity = similarity(student, queryWord);
+                if (similarity < MIN_SIMILARITY) {
+                    totalSimilarity = 0;
+                    break;
+                }
+                totalSimilarity += similarity;
+            }
+            if (totalSimilarity > 0) {
+                // Scaled below every exact match
+                double score = 0.3 * totalSimilarity / queryWords.size();
+                offer(best, new StudentSearchHit(student.id(), student.name(), student.email(), score), limit);
+            }
+        }
+    }
+
+    private static double similarity(IndexedStudent student, String queryWord) {
+        if (queryWord.length() < 4) {
+            return score(student, List.of(queryWord)) > 0 ? 1.0 : 0.0;
+        }
+        Set<String> grams = new HashSet<>();
+        addGrams(queryWord, grams);
+        int shared = 0;
+        for (String gram : grams) {
+            if (student.grams().contains(gram)) {
+                shared++;
+            }
+        }
+        return shared / (double) grams.size();
+    }
+
+    private static void offer(PriorityQueue<StudentSearchHit> best, StudentSearchHit hit, int limit) {
+        if (best.size() < limit) {
+            best.add(hit);
+        } else if (best.peek().score() < hit.score()) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+
+    /**
+     * Scores a student against all query words; 0 if any word does not match.
+     */
+
+    private static double score(IndexedStudent student, List<String> queryWords) {
+        double total = 0;
+        for (String queryWord : queryWords) {
+            double wordScore = Math.max(score(student.nameWords(), queryWord, 1.0), score(student.emailWords(), queryWord, 0.5));
+            if (wordScore == 0) {
+                return 0;
+            }
+            total += wordScore;
+        }
+        // Prefers shorter names among equally good matches
+        return total + 1.0 / (10 + student.nameWords().size());
+    }
+
+    private static double score(List<String> words, String queryWord, double weight) {
+        double best = 0;
+        for (String word : words) {
+            if (word.equals(queryWord)) {
+                return weight;
+            } else if (word.startsWith(queryWord)) {
+                best = Math.max(best, 0.8 * weight);
+            } else if (queryWord.length() >= 3 && word.contains(queryWord)) {
+                best = Math.max(best, 0.5 * weight);
+            }
+        }
+        return best;
+    }
+
+    private static List<String> queryGrams(String queryWord) {
+        if (queryWord.length() >= 3) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + 3 <= queryWord.length(); i++) {
+                grams.add(queryWord.substring(i, i + 3));
+            }
+            return new ArrayList<>(grams);
+        }
+        // Short words only match the beginning of a word
+        return List.of(WORD_START + queryWord);
+    }
+
+    private static void addGrams(String word, Set<String> grams) {
+        String marked = WORD_START + word;
+        grams.add(marked.substring(0, 2));
+        for (int i = 0; i + 3 <= marked.length(); i++) {
+            grams.add(marked.substring(i, i + 3));
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private record IndexedStudent(int id, String name, String email, List<String> nameWords, List<String> emailWords,
+            Set<String> grams) {
+    }
+}
@@ -0,0 +1,80 @@
+package ch.PascalFritschi.StudentManagementSystem.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+
+
+/**
+ * The `StudentStreamService` class writes the complete student table to an output stream as a JSON array.
+ * Rows are read as {@link StudentDetail} projections and serialized one by one as they come off the JDBC cursor;
+ * no entities are created, so the heap usage stays flat regardless of the table size. Rows are not flushed one
+ * by one: the generator hands its buffer on whenever it fills up and the stream is flushed once at the end.
+ */
+
+@Service
+public class StudentStreamService {
+
+    private final StudentRepository studentRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StudentStreamService(StudentRepository studentRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    /**
+     * Writes all students, ordered by ID, as a JSON array to the given output stream.
+     * The output stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to, usually the HTTP response body.
+     * @throws IOException If writing to the output stream fails.
+     */
+
+    public void writeAllStudents(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        try {
+            generator.writeStartArray();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<StudentDetail> students = studentRepository.streamAllDetails()) {
+                    students.forEach(student -> writeStudent(generator, student));
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+    }
+
+    private void writeStudent(JsonGenerator generator, StudentDetail student) {
+        try {
+            rowWriter.writeValue(generator, student);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
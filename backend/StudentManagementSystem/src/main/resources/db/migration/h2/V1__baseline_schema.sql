@@ -0,0 +1,33 @@
+-- H2 version of the baseline schema, used by the tests and the benchmarks.
+
+CREATE TABLE class_rooms (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE students (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    birthdate DATE,
+    email VARCHAR(255),
+    grade VARCHAR(255),
+    name VARCHAR(255),
+    phone_number VARCHAR(255),
+    classroom_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_students_classroom FOREIGN KEY (classroom_id) REFERENCES class_rooms (id)
+);
+
+CREATE TABLE student_classrooms (
+    id BIGINT NOT NULL,
+    classroom_id BIGINT,
+    student_id INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_student_classrooms_classroom FOREIGN KEY (classroom_id) REFERENCES class_rooms (id),
+    CONSTRAINT fk_student_classrooms_student FOREIGN KEY (student_id) REFERENCES students (id)
+);
+
+CREATE SEQUENCE class_room_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE student_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE student_classroom_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,9 @@
+-- H2 version of the lookup indexes; see the MySQL script for what each one serves.
+
+CREATE UNIQUE INDEX uk_student_classrooms_student_classroom ON student_classrooms (student_id, classroom_id);
+
+CREATE INDEX idx_student_classrooms_classroom_student ON student_classrooms (classroom_id, student_id);
+
+CREATE UNIQUE INDEX uk_class_rooms_name ON class_rooms (name);
+
+CREATE INDEX idx_students_name ON students (name);
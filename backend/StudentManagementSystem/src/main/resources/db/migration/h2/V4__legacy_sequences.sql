@@ -0,0 +1,14 @@
+-- The entities draw their IDs from the sequences that Hibernate created for the former AUTO strategy.
+-- The pooled optimizer hands out value - 49 .. value, so the next value must be at least MAX(id) + 50.
+
+CREATE SEQUENCE IF NOT EXISTS class_rooms_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS students_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS student_classrooms_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE class_rooms_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM class_rooms);
+ALTER SEQUENCE students_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM students);
+ALTER SEQUENCE student_classrooms_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM student_classrooms);
+
+DROP SEQUENCE class_room_seq;
+DROP SEQUENCE student_seq;
+DROP SEQUENCE student_classroom_seq;
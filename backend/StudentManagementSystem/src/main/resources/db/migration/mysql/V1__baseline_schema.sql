@@ -0,0 +1,40 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Databases created that way already have these tables and are baselined at version 0,
+-- so every statement is guarded and this script only fills in what is missing.
+
+CREATE TABLE IF NOT EXISTS class_rooms (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS students (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    birthdate DATE,
+    email VARCHAR(255),
+    grade VARCHAR(255),
+    name VARCHAR(255),
+    phone_number VARCHAR(255),
+    classroom_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_students_classroom FOREIGN KEY (classroom_id) REFERENCES class_rooms (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS student_classrooms (
+    id BIGINT NOT NULL,
+    classroom_id BIGINT,
+    student_id INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_student_classrooms_classroom FOREIGN KEY (classroom_id) REFERENCES class_rooms (id),
+    CONSTRAINT fk_student_classrooms_student FOREIGN KEY (student_id) REFERENCES students (id)
+) ENGINE = InnoDB;
+
+-- MySQL has no sequences; Hibernate emulates them with one-row tables
+CREATE TABLE IF NOT EXISTS class_room_seq (next_val BIGINT) ENGINE = InnoDB;
+CREATE TABLE IF NOT EXISTS student_seq (next_val BIGINT) ENGINE = InnoDB;
+CREATE TABLE IF NOT EXISTS student_classroom_seq (next_val BIGINT) ENGINE = InnoDB;
+
+INSERT INTO class_room_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM class_room_seq);
+INSERT INTO student_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM student_seq);
+INSERT INTO student_classroom_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM student_classroom_seq);
@@ -0,0 +1,14 @@
+-- Indexes for the lookups by name and by enrollment.
+-- The unique indexes fail on databases that already contain duplicates; remove those first.
+
+-- existsByStudentIdAndClassRoomId / findByStudentIdAndClassRoomId, one enrollment per student and classroom
+CREATE UNIQUE INDEX uk_student_classrooms_student_classroom ON student_classrooms (student_id, classroom_id);
+
+-- findByClassRoomId and the roster query, which only read student_id
+CREATE INDEX idx_student_classrooms_classroom_student ON student_classrooms (classroom_id, student_id);
+
+-- ClassRoomRepository.findByName, one classroom per name
+CREATE UNIQUE INDEX uk_class_rooms_name ON class_rooms (name);
+
+-- StudentRepository.findByName
+CREATE INDEX idx_students_name ON students (name);
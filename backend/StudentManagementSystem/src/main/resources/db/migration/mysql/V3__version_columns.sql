@@ -0,0 +1,7 @@
+-- Optimistic locking versions (@Version) of the entities; existing rows start at 0.
+
+ALTER TABLE students ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE class_rooms ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE student_classrooms ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- The entities draw their IDs from the sequence tables that Hibernate created for the former AUTO strategy.
+-- Databases that predate Flyway already hold them with advanced values; new databases get them here.
+-- The pooled optimizer hands out next_val - 49 .. next_val, so next_val must be at least MAX(id) + 50.
+-- IDs that this version drew from the tables of the baseline are covered by MAX(id) as well.
+
+CREATE TABLE IF NOT EXISTS class_rooms_seq (next_val BIGINT) ENGINE = InnoDB;
+CREATE TABLE IF NOT EXISTS students_seq (next_val BIGINT) ENGINE = InnoDB;
+CREATE TABLE IF NOT EXISTS student_classrooms_seq (next_val BIGINT) ENGINE = InnoDB;
+
+INSERT INTO class_rooms_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM class_rooms_seq);
+INSERT INTO students_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM students_seq);
+INSERT INTO student_classrooms_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM student_classrooms_seq);
+
+UPDATE class_rooms_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM class_rooms));
+UPDATE students_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM students));
+UPDATE student_classrooms_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM student_classrooms));
+
+DROP TABLE class_room_seq;
+DROP TABLE student_seq;
+DROP TABLE student_classroom_seq;
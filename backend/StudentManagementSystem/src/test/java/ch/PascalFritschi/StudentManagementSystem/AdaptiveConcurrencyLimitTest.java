@@ -0,0 +1,169 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import ch.PascalFritschi.StudentManagementSystem.config.AdaptiveConcurrencyFilter;
+import ch.PascalFritschi.StudentManagementSystem.config.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifies how the adaptive concurrency limit reacts to latency and failures, and that the filter
+ * rejects reads and writes against separate limits.
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+
+    /**
+     * Requests over the limit are rejected at once.
+     */
+    @Test
+    public void whenLimitReached_thenRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.state().rejected()).isEqualTo(1);
+        assertThat(limit.state().inFlight()).isEqualTo(2);
+    }
+
+
+    /**
+     * The limit grows while the latency stays at its usual level and shrinks when it rises.
+     */
+    @Test
+    public void whenLatencyRises_thenLimitShrinks() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 2, 100);
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limit, 10);
+        }
+        int grown = limit.limit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limit, 100);
+        }
+        assertThat(limit.limit()).isLessThan(grown / 2);
+    }
+
+
+    /**
+     * Failed requests cut the limit, but never below the minimum.
+     */
+    @Test
+    public void whenRequestsFail_thenLimitBacksOff() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 3, 100);
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertThat(limit.limit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+        assertThat(limit.limit()).isEqualTo(3);
+        assertThat(limit.state().failed()).isEqualTo(51);
+    }
+
+
+    /**
+     * A saturated read budget rejects further reads with 503 and Retry-After, while writes still pass.
+     */
+    @Test
+    public void whenReadsSaturated_thenWritesStillAdmitted() throws Exception {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        beans.addBean("meterRegistry", registry);
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(1, 1, 1, 1,
+                List.of("/api/student"), List.of("http://localhost:3000"), beans.getBeanProvider(MeterRegistry.class));
+        MockHttpServletResponse rejectedRead = new MockHttpServletResponse();
+        MockHttpServletResponse admittedWrite = new MockHttpServletResponse();
+        MockHttpServletResponse unlimited = new MockHttpServletResponse();
+
+        // The nested requests run while the outer read holds the only read permit
+        filter.doFilter(request("GET", "/api/student"), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(request("GET", "/api/student/search"), rejectedRead, (nested, nestedResponse) -> { });
+            filter.doFilter(request("POST", "/api/student"), admittedWrite, (nested, nestedResponse) -> { });
+            filter.doFilter(request("GET", "/api/classroom/getClassrooms"), unlimited, (nested, nestedResponse) -> { });
+        });
+
+        assertThat(rejectedRead.getStatus()).isEqualTo(503);
+        assertThat(rejectedRead.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(admittedWrite.getStatus()).isEqualTo(200);
+        assertThat(unlimited.getStatus()).isEqualTo(200);
+        assertThat(filter.states()).extracting("budget", "rejected").containsExactly(
+                Tuple.tuple("read", 1L), Tuple.tuple("write", 0L));
+        assertThat(registry.get("http.server.concurrency.rejected").tag("budget", "read").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+
+    /**
+     * While the read budget is saturated, preflights and paths that only share a prefix still pass, and a rejected
+     * cross-origin read carries the CORS headers the frontend needs to see the 503.
+     */
+    @Test
+    public void whenCrossOriginReadRejected_thenCorsHeadersSet() throws Exception {
+        AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(1, 1, 1, 1,
+                List.of("/api/student"), List.of("http://localhost:3000"), new StaticListableBeanFactory()
+                        .getBeanProvider(MeterRegistry.class));
+        MockHttpServletResponse rejectedRead = new MockHttpServletResponse();
+        MockHttpServletResponse preflight = new MockHttpServletResponse();
+        MockHttpServletResponse otherPath = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/student"), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(crossOrigin(request("GET", "/api/student/1")), rejectedRead, (nested, nestedResponse) -> { });
+
+            MockHttpServletRequest options = crossOrigin(request("OPTIONS", "/api/student/1"));
+            options.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET");
+            filter.doFilter(options, preflight, (nested, nestedResponse) -> { });
+
+            filter.doFilter(request("GET", "/api/studentXyz"), otherPath, (nested, nestedResponse) -> { });
+        });
+
+        assertThat(rejectedRead.getStatus()).isEqualTo(503);
+        assertThat(rejectedRead.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo("http://localhost:3000");
+        assertThat(rejectedRead.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).isEqualTo("true");
+        assertThat(preflight.getStatus()).isEqualTo(200);
+        assertThat(otherPath.getStatus()).isEqualTo(200);
+        assertThat(filter.states()).extracting("budget", "rejected").containsExactly(
+                Tuple.tuple("read", 1L), Tuple.tuple("write", 0L));
+    }
+
+    /**
+     * Admits as many requests as the limit allows and completes them all with the given latency.
+     */
+    private static void saturate(AdaptiveConcurrencyLimit limit, long latencyMillis) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis), false);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private static MockHttpServletRequest crossOrigin(MockHttpServletRequest request) {
+        request.addHeader(HttpHeaders.ORIGIN, "http://localhost:3000");
+        return request;
+    }
+}
@@ -0,0 +1,185 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+/**
+ * Verifies that the bulk deletes remove the rows with their enrollments, and that the caches and the other endpoints
+ * see the deletion. Each subclass runs the tests against one storage backend.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public abstract class BulkDeleteTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected StudentRepository studentRepository;
+
+    @Autowired
+    protected ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    protected StudentClassroomRepository studentClassroomRepository;
+
+
+    /**
+     * Deleting students by filter removes them with all their enrollments.
+     */
+    @Test
+    public void whenStudentsDeletedByFilter_thenStudentsAndEnrollmentsGone() throws Exception {
+        String grade = UUID.randomUUID().toString();
+        ClassRoom first = saveClassRoom();
+        ClassRoom second = saveClassRoom();
+        List<Integer> studentIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Student student = saveStudent(grade, null);
+            studentClassroomRepository.save(new StudentClassroom(first, student));
+            studentClassroomRepository.save(new StudentClassroom(second, student));
+            studentIds.add(student.getId());
+        }
+        // Puts a student into the cache
+        assertThat(studentRepository.findById(studentIds.get(0).longValue())).isNotNull();
+
+        mockMvc.perform(delete("/api/student/deleteWhere").param("grade", grade))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(20))
+                .andExpect(jsonPath("$.enrollmentsDeleted").value(40));
+
+        assertThat(studentRepository.findById(studentIds.get(0).longValue())).isNull();
+        assertThat(studentRepository.findExistingIds(studentIds)).isEmpty();
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(first.getId())).isEmpty();
+        assertThat(classRoomRepository.findAllSummaries())
+                .anySatisfy(summary -> {
+                    assertThat(summary.id()).isEqualTo(second.getId());
+                    assertThat(summary.studentCount()).isZero();
+                });
+    }
+
+
+    /**
+     * Students are deleted by ID list; unknown IDs are ignored and a filter without criteria is rejected.
+     */
+    @Test
+    public void whenStudentsDeletedById_thenOnlyExistingCounted() throws Exception {
+        Student student = saveStudent(null, null);
+
+        mockMvc.perform(post("/api/student/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + student.getId() + ", -1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.enrollmentsDeleted").value(0));
+        mockMvc.perform(delete("/api/student/delete").param("studentId", String.valueOf(student.getId())))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/student/deleteWhere")).andExpect(status().isBadRequest());
+    }
+
+
+    /**
+     * ID lists longer than one IN chunk are split, and lists over `bulk-delete.max-ids` are refused without deleting.
+     */
+    @Test
+    public void whenManyIdsGiven_thenChunkedOrRefused() throws Exception {
+        Student first = saveStudent(null, null);
+        Student second = saveStudent(null, null);
+        String ids = IntStream.rangeClosed(1, 2500).mapToObj(i -> String.valueOf(-i)).collect(Collectors.joining(", "));
+
+        mockMvc.perform(post("/api/student/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + first.getId() + ", " + ids + ", " + second.getId() + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        Student kept = saveStudent(null, null);
+        String tooMany = IntStream.rangeClosed(1, 10000).mapToObj(i -> String.valueOf(-i)).collect(Collectors.joining(", "));
+        mockMvc.perform(post("/api/student/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + kept.getId() + ", " + tooMany + "]"))
+                .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/api/classroom/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + tooMany + ", -10001]"))
+                .andExpect(status().isPayloadTooLarge());
+        assertThat(studentRepository.existsById(kept.getId())).isTrue();
+    }
+
+
+    /**
+     * Classrooms are deleted with their enrollments, and the students stay.
+     */
+    @Test
+    public void whenClassRoomsDeleted_thenEnrollmentsDeletedWithThem() throws Exception {
+        ClassRoom first = saveClassRoom();
+        ClassRoom second = saveClassRoom();
+        Student student = saveStudent(null, null);
+        studentClassroomRepository.save(new StudentClassroom(first, student));
+        studentClassroomRepository.save(new StudentClassroom(second, student));
+        assertThat(classRoomRepository.findById(first.getId())).isPresent();
+
+        mockMvc.perform(post("/api/classroom/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + first.getId() + ", " + second.getId() + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.enrollmentsDeleted").value(2));
+
+        assertThat(classRoomRepository.findById(first.getId())).isEmpty();
+        assertThat(classRoomRepository.findByName(second.getName())).isEmpty();
+        assertThat(studentClassroomRepository.findClassRoomIdsByStudentId(student.getId())).isEmpty();
+        assertThat(studentRepository.existsById(student.getId())).isTrue();
+    }
+
+
+    /**
+     * A classroom that is still a student's own classroom cannot be deleted; nothing else of the request is deleted either.
+     */
+    @Test
+    public void whenClassRoomStillAssigned_thenConflictAndNothingDeleted() throws Exception {
+        ClassRoom assigned = saveClassRoom();
+        ClassRoom free = saveClassRoom();
+        Student student = saveStudent(null, assigned);
+        studentClassroomRepository.save(new StudentClassroom(free, student));
+
+        mockMvc.perform(post("/api/classroom/deleteBulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + free.getId() + ", " + assigned.getId() + "]"))
+                .andExpect(status().isConflict());
+
+        assertThat(classRoomRepository.findExistingIds(List.of(assigned.getId(), free.getId())))
+                .containsExactlyInAnyOrder(assigned.getId(), free.getId());
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(free.getId())).containsExactly(student.getId());
+    }
+
+    protected ClassRoom saveClassRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Bulk " + UUID.randomUUID());
+        return classRoomRepository.save(classRoom);
+    }
+
+    protected Student saveStudent(String grade, ClassRoom classRoom) {
+        Student student = new Student();
+        student.setName("Bulk " + UUID.randomUUID());
+        student.setGrade(grade);
+        student.setClassRoom(classRoom);
+        return studentRepository.save(student);
+    }
+}
@@ -0,0 +1,126 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentReport;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+import ch.PascalFritschi.StudentManagementSystem.service.EnrollmentService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifies that bulk enrollments look up students, classrooms and enrollments with a few set-based queries,
+ * also for more IDs than fit into one IN list.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BulkEnrollmentTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private StudentClassroomRepository studentClassroomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+
+    /**
+     * New pairs are added; enrolled and repeated pairs are skipped; pairs with an unknown student or classroom are invalid.
+     */
+    @Test
+    public void whenPairsEnrolled_thenAddedSkippedAndInvalidReported() throws Exception {
+        ClassRoom classRoom = saveClassRoom();
+        Student enrolled = saveStudent();
+        Student student = saveStudent();
+        studentClassroomRepository.save(new StudentClassroom(classRoom, enrolled));
+
+        mockMvc.perform(post("/api/studentclassroom/bulk/" + classRoom.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + student.getId() + ", " + enrolled.getId() + ", " + student.getId() + ", -1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added[0].studentId").value(student.getId()))
+                .andExpect(jsonPath("$.skipped.length()").value(2))
+                .andExpect(jsonPath("$.invalid[0].studentId").value(-1));
+
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId()))
+                .containsExactlyInAnyOrder(enrolled.getId(), student.getId());
+    }
+
+
+    /**
+     * A request with more student IDs than one IN list holds is checked chunk by chunk,
+     * with one query per chunk instead of one per pair.
+     */
+    @Test
+    public void whenMoreIdsThanOneChunk_thenOneQueryPerChunk() {
+        ClassRoom classRoom = saveClassRoom();
+        Student student = saveStudent();
+        List<EnrollmentPair> pairs = new ArrayList<>();
+        pairs.add(new EnrollmentPair(student.getId(), classRoom.getId()));
+        for (int i = 1; i < 2500; i++) {
+            pairs.add(new EnrollmentPair(-i, classRoom.getId()));
+        }
+
+        statistics.clear();
+        EnrollmentReport report = enrollmentService.enroll(pairs);
+
+        assertThat(report.added()).containsExactly(new EnrollmentPair(student.getId(), classRoom.getId()));
+        assertThat(report.invalid()).hasSize(2499);
+        // Three chunks of student IDs, one of classroom IDs and one of enrollments
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(5);
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId()))
+                .containsExactly(student.getId());
+    }
+
+    private ClassRoom saveClassRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Enroll " + UUID.randomUUID());
+        return classRoomRepository.save(classRoom);
+    }
+
+    private Student saveStudent() {
+        Student student = new Student();
+        student.setName("Enroll " + UUID.randomUUID());
+        return studentRepository.save(student);
+    }
+}
@@ -0,0 +1,228 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeFeed;
+
+/**
+ * Subscribes to the Server-Sent Events change feeds and checks what they deliver after each committed change.
+ * Events are written by a background thread, so the assertions wait for the expected text to arrive.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ChangeFeedTest {
+
+    private static final AtomicInteger RUN = new AtomicInteger();
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+
+    /**
+     * A classroom feed reports enrollments into the classroom and updates of its students, but not other classrooms.
+     */
+    @Test
+    public void whenStudentEnrolledAndUpdated_thenClassRoomFeedReceivesBoth() throws Exception {
+        long classroomId = createClassRoom().get("id").asLong();
+        long otherClassroomId = createClassRoom().get("id").asLong();
+        JsonNode student = createStudent();
+        int studentId = student.get("id").asInt();
+
+        MockHttpServletResponse feed = subscribe("/api/changes/classroom/" + classroomId, null);
+
+        enroll(studentId, otherClassroomId);
+        enroll(studentId, classroomId);
+        awaitContent(feed, "event:enrollment\ndata:{\"type\":\"CREATED\",\"classroomId\":" + classroomId
+                + ",\"studentIds\":[" + studentId + "]}");
+
+        ((ObjectNode) student).put("grade", "4");
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(student.toString()))
+                .andExpect(status().isOk());
+        awaitContent(feed, "event:student\ndata:{\"type\":\"UPDATED\",\"studentId\":" + studentId);
+
+        assertThat(feed.getContentAsString()).doesNotContain("\"classroomId\":" + otherClassroomId + ",");
+    }
+
+
+    /**
+     * A client reconnecting with `Last-Event-ID` receives only the events it missed.
+     */
+    @Test
+    public void whenReconnectingWithLastEventId_thenMissedEventsReplayed() throws Exception {
+        MockHttpServletResponse feed = subscribe("/api/changes", null);
+        JsonNode first = createStudent();
+        String firstEvent = "\"studentId\":" + first.get("id").asInt() + ",";
+        awaitContent(feed, firstEvent);
+        String lastEventId = lastEventId(feed.getContentAsString());
+
+        JsonNode missed = createStudent();
+        MockHttpServletResponse resumed = subscribe("/api/changes", lastEventId);
+
+        awaitContent(resumed, "\"studentId\":" + missed.get("id").asInt() + ",");
+        assertThat(resumed.getContentAsString()).doesNotContain(firstEvent);
+    }
+
+
+    /**
+     * An event ID that is not in the replay buffer, e.g. from before a restart, makes the client reload.
+     */
+    @Test
+    public void whenLastEventIdUnknown_thenReset() throws Exception {
+        MockHttpServletResponse feed = subscribe("/api/changes", "previous-process-42");
+
+        awaitContent(feed, "event:reset\n");
+    }
+
+
+    /**
+     * The classrooms of an updated student are only looked up while somebody follows a classroom.
+     */
+    @Test
+    public void whenNoClassRoomFeedOpen_thenNoLookup() throws Exception {
+        StudentClassroomRepository studentClassroomRepository = mock(StudentClassroomRepository.class);
+        ChangeFeed changeFeed = new ChangeFeed(studentClassroomRepository, objectMapper, 16,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), 4, 2, Duration.ofSeconds(10));
+        StudentChangedEvent update = new StudentChangedEvent(ChangeType.UPDATED, 1, "Feed", null);
+        try {
+            changeFeed.subscribe(null, null);
+            changeFeed.onStudentChanged(update);
+            verifyNoInteractions(studentClassroomRepository);
+
+            // The subscription is registered by the dispatcher thread
+            changeFeed.subscribe(7L, null);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (mockingDetails(studentClassroomRepository).getInvocations().isEmpty()) {
+                assertThat(System.currentTimeMillis()).isLessThan(deadline);
+                changeFeed.onStudentChanged(update);
+                Thread.sleep(20);
+            }
+            verify(studentClassroomRepository, atLeastOnce()).findClassRoomIdsByStudentId(1);
+        } finally {
+            changeFeed.shutdown();
+        }
+    }
+
+
+    /**
+     * However many clients are subscribed, their events are written by the configured number of writer threads.
+     */
+    @Test
+    public void whenManySubscribers_thenWriterThreadsBounded() throws Exception {
+        ChangeFeed changeFeed = new ChangeFeed(mock(StudentClassroomRepository.class), objectMapper, 16,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), 4, 2, Duration.ofSeconds(10));
+        long writersBefore = writerThreads();
+        try {
+            for (int i = 0; i < 50; i++) {
+                changeFeed.subscribe(null, null);
+            }
+            for (int i = 0; i < 3; i++) {
+                changeFeed.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 1, List.of(i)));
+                Thread.sleep(50);
+            }
+            assertThat(writerThreads() - writersBefore).isBetween(1L, 2L);
+        } finally {
+            changeFeed.shutdown();
+        }
+    }
+
+
+    @Test
+    public void whenClassRoomMissing_thenNotFound() throws Exception {
+        mockMvc.perform(get("/api/changes/classroom/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletResponse subscribe(String path, String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder subscription = get(path).accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            subscription.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(subscription)
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertThat(System.currentTimeMillis()).as("waiting for %s in %s", expected, response.getContentAsString())
+                    .isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static long writerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("change-feed-writer"))
+                .count();
+    }
+
+    private String lastEventId(String content) {
+        Matcher matcher = EVENT_ID.matcher(content);
+        String id = null;
+        while (matcher.find()) {
+            id = matcher.group(1);
+        }
+        assertThat(id).isNotNull();
+        return id;
+    }
+
+    private void enroll(int studentId, long classroomId) throws Exception {
+        mockMvc.perform(post("/api/studentclassroom/add/" + studentId + "/" + classroomId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode createClassRoom() throws Exception {
+        String body = mockMvc.perform(post("/api/classroom/createClassroom").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Feed " + RUN.incrementAndGet() + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode createStudent() throws Exception {
+        String body = mockMvc.perform(post("/api/student").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Feed student " + RUN.incrementAndGet() + "\",\"grade\":\"1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,164 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.JournalEntry;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.service.ChangeJournal;
+
+/**
+ * Writes change events to a journal with tiny segments, so every test spans several segment files.
+ */
+public class ChangeJournalTest {
+
+    private static final Instant END = Instant.ofEpochMilli(Long.MAX_VALUE);
+
+    @TempDir
+    private Path directory;
+
+    private ChangeJournal journal;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        journal = open(Duration.ofDays(1));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        journal.close();
+    }
+
+
+    @Test
+    public void whenStudentEnrolledAndRemoved_thenEnrollmentHistoryNewestFirst() throws Exception {
+        journal.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, 7, "Jane Doe", "jane@example.com"));
+        journal.onClassRoomChanged(new ClassRoomChangedEvent(ChangeType.CREATED, 3));
+        journal.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 3, List.of(7, 8)));
+        journal.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 4, List.of(8)));
+        journal.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.DELETED, 3, List.of(7)));
+
+        List<JournalEntry> history = await(() -> journal.findByStudent(7, "enrollment", Instant.EPOCH, END, 100), 2);
+
+        assertThat(history).extracting(JournalEntry::change).containsExactly(
+                "{\"type\":\"DELETED\",\"classroomId\":3,\"studentIds\":[7]}",
+                "{\"type\":\"CREATED\",\"classroomId\":3,\"studentIds\":[7,8]}");
+        assertThat(journal.findByStudent(7, null, Instant.EPOCH, END, 100)).hasSize(3);
+        assertThat(journal.findByStudent(7, null, Instant.EPOCH, END, 1)).extracting(JournalEntry::change)
+                .containsExactly("{\"type\":\"DELETED\",\"classroomId\":3,\"studentIds\":[7]}");
+        assertThat(journal.findByClassRoom(3, null, Instant.EPOCH, END, 100))
+                .extracting(JournalEntry::kind).containsExactly("enrollment", "enrollment", "classroom");
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+    }
+
+
+    @Test
+    public void whenQueryingTimeRange_thenOnlyEntriesInRange() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            journal.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, i, "Student " + i, null));
+        }
+        List<JournalEntry> all = await(() -> journal.findBetween(null, Instant.EPOCH, END, 100), 20);
+        assertThat(all).extracting(JournalEntry::time).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(all.get(0).change()).contains("\"studentId\":20,");
+        Instant middle = all.get(10).time();
+
+        List<JournalEntry> later = journal.findBetween("student", middle, END, 100);
+        assertThat(later).isNotEmpty().allMatch(entry -> !entry.time().isBefore(middle));
+        assertThat(journal.findBetween(null, Instant.EPOCH, middle, 100))
+                .hasSize(all.size() - later.size());
+        assertThat(journal.findBetween(null, Instant.EPOCH, END, 5)).isEqualTo(all.subList(0, 5));
+    }
+
+
+    @Test
+    public void whenReopened_thenIndexRebuiltAndAppendingContinues() throws Exception {
+        journal.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 5, List.of(1, 2, 3)));
+        journal.onStudentChanged(new StudentChangedEvent(ChangeType.UPDATED, 2, "Renamed", null));
+        await(() -> journal.findByStudent(2, null, Instant.EPOCH, END, 100), 2);
+        journal.close();
+
+        journal = open(Duration.ofDays(1));
+        assertThat(journal.findByStudent(2, null, Instant.EPOCH, END, 100)).hasSize(2);
+        journal.onStudentChanged(new StudentChangedEvent(ChangeType.DELETED, 2, null, null));
+        List<JournalEntry> changes = await(() -> journal.findByStudent(2, "student", Instant.EPOCH, END, 100), 2);
+        assertThat(changes.get(0).change()).contains("\"DELETED\"");
+    }
+
+
+    /**
+     * Segments older than the retention are deleted as soon as the journal moves on to a new segment,
+     * and their entries are no longer found.
+     */
+    @Test
+    public void whenSegmentsExpire_thenDeletedAndNoLongerIndexed() throws Exception {
+        journal.close();
+        journal = open(Duration.ofMillis(50));
+        // Fills the first segment, so the following changes go to new ones
+        journal.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, 1, "Expired ".repeat(18), null));
+        await(() -> journal.findByStudent(1, null, Instant.EPOCH, END, 100), 1);
+        Thread.sleep(100);
+
+        for (int i = 2; i <= 10; i++) {
+            journal.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, i, "Student " + i, null));
+        }
+        await(() -> journal.findByStudent(10, null, Instant.EPOCH, END, 100), 1);
+
+        assertThat(journal.findByStudent(1, null, Instant.EPOCH, END, 100)).isEmpty();
+        assertThat(journal.findBetween(null, Instant.EPOCH, END, 100))
+                .noneMatch(entry -> entry.change().contains("\"studentId\":1,"));
+        assertThat(segmentFiles()).noneMatch(file -> file.getFileName().toString().equals("segment-000000.journal"));
+    }
+
+
+    @Test
+    public void whenKindUnknown_thenRejected() {
+        assertThatThrownBy(() -> journal.findBetween("grade", Instant.EPOCH, END, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ChangeJournal open(Duration retention) throws Exception {
+        return new ChangeJournal(new ObjectMapper(), directory, DataSize.ofBytes(256), Duration.ofMillis(10), 1024,
+                Duration.ofMillis(100), retention);
+    }
+
+    /**
+     * Waits until the writer thread has appended the expected number of entries.
+     */
+    private List<JournalEntry> await(Supplier<List<JournalEntry>> query, int expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<JournalEntry> entries = query.get();
+        while (entries.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            entries = query.get();
+        }
+        assertThat(entries).hasSize(expected);
+        return entries;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.ClassRoomChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.EnrollmentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.service.ClassRoomMembershipIndex;
+
+public class ClassRoomMembershipIndexTest {
+
+    private ClassRoomMembershipIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        StudentClassroomRepository studentClassroomRepository = mock(StudentClassroomRepository.class);
+        when(studentClassroomRepository.findAllPairs()).thenReturn(List.of(
+                new EnrollmentPair(1, 10), new EnrollmentPair(2, 10), new EnrollmentPair(3, 10),
+                new EnrollmentPair(2, 20), new EnrollmentPair(3, 20), new EnrollmentPair(4, 20),
+                new EnrollmentPair(3, 30)));
+        index = new ClassRoomMembershipIndex(studentClassroomRepository);
+        index.rebuild();
+    }
+
+
+    /**
+     * Intersection, union and difference combine the rosters; unknown classrooms are empty.
+     */
+    @Test
+    public void whenCombiningClassRooms_thenSetOperationsApply() {
+        assertThat(index.intersection(List.of(10L, 20L)).toArray()).containsExactly(2, 3);
+        assertThat(index.intersection(List.of(10L, 20L, 30L)).toArray()).containsExactly(3);
+        assertThat(index.intersection(List.of(10L, 99L)).isEmpty()).isTrue();
+        assertThat(index.union(List.of(10L, 20L, 99L)).toArray()).containsExactly(1, 2, 3, 4);
+        assertThat(index.difference(20, List.of(10L)).toArray()).containsExactly(4);
+        assertThat(index.difference(10, List.of(20L, 30L)).toArray()).containsExactly(1);
+    }
+
+
+    /**
+     * Students are counted by the number of classrooms they are enrolled in.
+     */
+    @Test
+    public void whenCountingEnrollmentsPerStudent_thenThresholdApplies() {
+        assertThat(index.enrolledInAtLeast(1).toArray()).containsExactly(1, 2, 3, 4);
+        assertThat(index.enrolledInAtLeast(2).toArray()).containsExactly(2, 3);
+        assertThat(index.enrolledInAtLeast(3).toArray()).containsExactly(3);
+        assertThat(index.enrolledInAtLeast(4).isEmpty()).isTrue();
+        assertThat(index.sizes()).isEqualTo(Map.of(10L, 3, 20L, 3, 30L, 1));
+    }
+
+
+    /**
+     * A query result belongs to the caller; changing it does not change the index.
+     */
+    @Test
+    public void whenResultModified_thenIndexUnchanged() {
+        index.intersection(List.of(30L)).add(5);
+        index.union(List.of(30L)).add(5);
+
+        assertThat(index.sizes()).containsEntry(30L, 1);
+    }
+
+
+    /**
+     * Change events keep the index in sync without a rebuild.
+     */
+    @Test
+    public void whenEnrollmentsChange_thenIndexFollows() {
+        index.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 30, List.of(1, 4)));
+        index.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.DELETED, 10, List.of(2)));
+        index.onStudentChanged(new StudentChangedEvent(ChangeType.DELETED, 3, null, null));
+        index.onClassRoomChanged(new ClassRoomChangedEvent(ChangeType.DELETED, 20));
+        index.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 40, List.of(1)));
+
+        assertThat(index.sizes()).isEqualTo(Map.of(10L, 1, 30L, 2, 40L, 1));
+        assertThat(index.intersection(List.of(10L, 30L, 40L)).toArray()).containsExactly(1);
+        assertThat(index.enrolledInAtLeast(2).toArray()).containsExactly(1);
+    }
+
+
+    /**
+     * Changes that commit while a rebuild loads the enrollments survive the swap to the loaded state.
+     */
+    @Test
+    public void whenChangedDuringRebuild_thenChangesKept() {
+        StudentClassroomRepository studentClassroomRepository = mock(StudentClassroomRepository.class);
+        ClassRoomMembershipIndex rebuilding = new ClassRoomMembershipIndex(studentClassroomRepository);
+        when(studentClassroomRepository.findAllPairs()).thenAnswer(invocation -> {
+            // The snapshot was read before these changes committed
+            rebuilding.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 10, List.of(5)));
+            rebuilding.onStudentChanged(new StudentChangedEvent(ChangeType.DELETED, 2, null, null));
+            return List.of(new EnrollmentPair(1, 10), new EnrollmentPair(2, 10), new EnrollmentPair(2, 20));
+        });
+
+        rebuilding.rebuild();
+
+        assertThat(rebuilding.union(List.of(10L, 20L)).toArray()).containsExactly(1, 5);
+        assertThat(rebuilding.sizes()).isEqualTo(Map.of(10L, 2));
+    }
+
+
+    /**
+     * Queries over tens of thousands of students do not need to touch the individual enrollments.
+     */
+    @Test
+    public void whenRostersAreLarge_thenQueriesStayExact() {
+        List<Integer> even = new ArrayList<>();
+        List<Integer> all = new ArrayList<>();
+        for (int studentId = 1; studentId <= 50_000; studentId++) {
+            all.add(studentId);
+            if (studentId % 2 == 0) {
+                even.add(studentId);
+            }
+        }
+        index.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 100, all));
+        index.onEnrollmentChanged(new EnrollmentChangedEvent(ChangeType.CREATED, 200, even));
+
+        assertThat(index.intersection(List.of(100L, 200L)).getCardinality()).isEqualTo(25_000);
+        assertThat(index.difference(100, List.of(200L)).getCardinality()).isEqualTo(25_000);
+        assertThat(index.union(List.of(100L, 200L)).getCardinality()).isEqualTo(50_000);
+    }
+}
@@ -0,0 +1,85 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+public class ClassRoomRosterQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentClassroomRepository studentClassroomRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+
+    /**
+     * Verifies that loading a roster costs the same number of statements for 1, 10 and 40 students.
+     *
+     * Persists one classroom per roster size, clears the persistence context so nothing is served from it,
+     * then counts the prepared statements issued by the roster query.
+     */
+    @Test
+    public void whenRosterGrows_thenStatementCountStaysConstant() {
+        long[] rosterSizes = {1, 10, 40};
+        long[] statementCounts = new long[rosterSizes.length];
+
+        for (int i = 0; i < rosterSizes.length; i++) {
+            Long classroomId = createClassRoomWithStudents("Class " + i, rosterSizes[i]);
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+
+            List<StudentSummary> roster = studentClassroomRepository.findStudentsByClassRoomId(classroomId);
+
+            assertThat(roster).hasSize((int) rosterSizes[i]);
+            statementCounts[i] = statistics.getPrepareStatementCount();
+        }
+
+        assertThat(statementCounts).containsOnly(1L);
+    }
+
+    private Long createClassRoomWithStudents(String name, long studentCount) {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName(name);
+        entityManager.persist(classRoom);
+
+        for (int i = 0; i < studentCount; i++) {
+            Student student = new Student();
+            student.setName(name + " student " + i);
+            entityManager.persist(student);
+            entityManager.persist(new StudentClassroom(classRoom, student));
+        }
+        return classRoom.getId();
+    }
+}
@@ -0,0 +1,167 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifies the ETag/Last-Modified handling of the polled endpoints and optimistic locking of student updates.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConditionalRequestTest {
+
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+
+    /**
+     * An unchanged classroom list is answered with 304 and no SQL; creating a classroom changes the ETag.
+     */
+    @Test
+    public void whenClassRoomListUnchanged_thenNotModifiedWithoutQuery() throws Exception {
+        String eTag = eTagOf("/api/classroom/getClassrooms");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/classroom/getClassrooms").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        createClassRoom();
+
+        mockMvc.perform(get("/api/classroom/getClassrooms").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        assertThat(eTagOf("/api/classroom/getClassrooms")).isNotEqualTo(eTag);
+    }
+
+
+    /**
+     * The student list ETag changes when a student is added or updated.
+     */
+    @Test
+    public void whenStudentChanges_thenStudentListETagChanges() throws Exception {
+        String before = eTagOf("/api/student");
+        mockMvc.perform(get("/api/student").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+
+        JsonNode student = createStudent();
+        String afterCreate = eTagOf("/api/student");
+        assertThat(afterCreate).isNotEqualTo(before);
+
+        ((ObjectNode) student).put("grade", "5");
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(student.toString()))
+                .andExpect(status().isOk());
+        assertThat(eTagOf("/api/student")).isNotEqualTo(afterCreate);
+    }
+
+
+    /**
+     * A roster ETag changes when a student is enrolled, and conditional requests with the new ETag get 304.
+     */
+    @Test
+    public void whenStudentEnrolled_thenRosterETagChanges() throws Exception {
+        long classroomId = createClassRoom().get("id").asLong();
+        String roster = "/api/classroom/" + classroomId + "/students";
+        String before = eTagOf(roster);
+
+        int studentId = createStudent().get("id").asInt();
+        String afterCreate = eTagOf(roster);
+        mockMvc.perform(post("/api/studentclassroom/add/" + studentId + "/" + classroomId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+
+        String afterEnroll = eTagOf(roster);
+        assertThat(afterEnroll).isNotEqualTo(before).isNotEqualTo(afterCreate);
+        mockMvc.perform(get(roster).header(HttpHeaders.IF_NONE_MATCH, afterEnroll))
+                .andExpect(status().isNotModified());
+    }
+
+
+    /**
+     * An update carrying an outdated version is rejected instead of overwriting the newer state.
+     */
+    @Test
+    public void whenUpdatingWithStaleVersion_thenConflict() throws Exception {
+        JsonNode created = createStudent();
+        assertThat(created.get("version").asLong()).isZero();
+
+        ObjectNode firstEdit = created.deepCopy();
+        firstEdit.put("grade", "2");
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(firstEdit.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        ObjectNode concurrentEdit = created.deepCopy();
+        concurrentEdit.put("grade", "3");
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(concurrentEdit.toString()))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/student/search").param("studentId", created.get("id").asText()))
+                .andExpect(jsonPath("$.grade").value("2"))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    private String eTagOf(String path) throws Exception {
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/\"");
+        return eTag;
+    }
+
+    private JsonNode createClassRoom() throws Exception {
+        String body = mockMvc.perform(post("/api/classroom/createClassroom").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Conditional " + RUN.incrementAndGet() + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode createStudent() throws Exception {
+        String body = mockMvc.perform(post("/api/student").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Conditional student " + RUN.incrementAndGet() + "\",\"grade\":\"1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,202 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.service.EnrollmentService;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentStreamService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements each read endpoint issues, including those triggered while serializing the response.
+ * The read endpoints select column-limited projections, so the count does not depend on the data:
+ * with the former eager associations every list issued an extra SELECT per distinct classroom and per roster.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EndpointQueryCountTest {
+
+    private static final int STUDENTS = 8;
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private StudentStreamService studentStreamService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private List<Integer> studentIds;
+    private Long classroomId;
+
+    /**
+     * Seeds a home room, a classroom with all students enrolled, and students whose own classroom is the home room.
+     */
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int run = RUN.incrementAndGet();
+
+        ClassRoom homeRoom = new ClassRoom();
+        homeRoom.setName("Home room " + run);
+        homeRoom = classRoomRepository.save(homeRoom);
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Query count " + run);
+        classroomId = classRoomRepository.save(classRoom).getId();
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName("Query count student " + i);
+            student.setClassRoom(homeRoom);
+            students.add(student);
+        }
+        studentIds = new ArrayList<>();
+        List<EnrollmentPair> pairs = new ArrayList<>();
+        for (Student student : studentRepository.saveAll(students)) {
+            studentIds.add(student.getId());
+            pairs.add(new EnrollmentPair(student.getId(), classroomId));
+        }
+        enrollmentService.enroll(pairs);
+    }
+
+
+    @Test
+    public void whenListingStudents_thenOneStatement() throws Exception {
+        count(get("/api/student")
+                .param("after", String.valueOf(studentIds.get(0) - 1))
+                .param("size", String.valueOf(STUDENTS)))
+                .andExpect(jsonPath("$.length()").value(STUDENTS))
+                .andExpect(jsonPath("$[0].classRoom.name").exists())
+                .andExpect(jsonPath("$[0].classRoom.studentClassrooms").doesNotExist());
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void whenFindingStudentById_thenOneStatement() throws Exception {
+        count(get("/api/student/search").param("studentId", String.valueOf(studentIds.get(0))))
+                .andExpect(jsonPath("$.classRoom.name").exists());
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void whenListingClassRooms_thenOneStatement() throws Exception {
+        count(get("/api/classroom/getClassrooms"))
+                .andExpect(jsonPath("$[?(@.id == " + classroomId + ")].studentCount").value(STUDENTS));
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void whenListingEnrollmentsOfClassRoom_thenOneStatement() throws Exception {
+        count(get("/api/studentclassroom/getAll/" + classroomId))
+                .andExpect(jsonPath("$.length()").value(STUDENTS))
+                .andExpect(jsonPath("$[0].student.classRoom.name").exists());
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void whenListingRoster_thenExistenceCheckAndOneStatement() throws Exception {
+        count(get("/api/classroom/" + classroomId + "/students"))
+                .andExpect(jsonPath("$.length()").value(STUDENTS))
+                .andExpect(jsonPath("$[0].classRoom.name").exists());
+
+        assertThat(statements()).isEqualTo(2);
+    }
+
+
+    @Test
+    public void whenStreamingStudents_thenOneStatement() throws Exception {
+        statistics.clear();
+        MvcResult started = mockMvc.perform(get("/api/student/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + studentIds.get(0) + ")].classRoom.name").isNotEmpty());
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+
+    /**
+     * The rows are not flushed one by one; the output stream is only flushed once, at the end.
+     */
+    @Test
+    public void whenStreamingStudents_thenFlushedOnce() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream body = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        studentStreamService.writeAllStudents(body);
+
+        assertThat(objectMapper.readTree(body.toByteArray()).size()).isGreaterThanOrEqualTo(STUDENTS);
+        assertThat(flushes).hasValue(1);
+    }
+
+    /**
+     * Performs the request with fresh statistics and expects a successful response.
+     */
+    private ResultActions count(RequestBuilder request) throws Exception {
+        statistics.clear();
+        return mockMvc.perform(request).andExpect(status().isOk());
+    }
+
+    private long statements() {
+        return statistics.getPrepareStatementCount();
+    }
+}
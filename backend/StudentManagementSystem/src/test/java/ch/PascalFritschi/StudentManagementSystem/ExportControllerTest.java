@@ -0,0 +1,146 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+import ch.PascalFritschi.StudentManagementSystem.service.ExportService;
+
+/**
+ * Verifies the CSV and NDJSON table exports.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private StudentClassroomRepository studentClassroomRepository;
+
+    @Autowired
+    private ExportService exportService;
+
+
+    /**
+     * Every student is one CSV line; fields with separators or quotes are quoted.
+     */
+    @Test
+    public void whenStudentsExportedAsCsv_thenFieldsQuotedWhereNeeded() throws Exception {
+        Student student = new Student();
+        student.setName("Doe, \"Jo\" " + UUID.randomUUID());
+        student.setEmail("jo@school.ch");
+        student = studentRepository.save(student);
+
+        List<String> lines = export("/api/export/students?format=csv", "students.csv");
+
+        assertThat(lines.get(0)).isEqualTo("id,name,email,address,phoneNumber,birthdate,grade,classroomId,classroomName,version");
+        assertThat(lines).contains(student.getId() + ",\"" + student.getName().replace("\"", "\"\"") + "\",jo@school.ch,,,,,,,0");
+    }
+
+
+    /**
+     * Every classroom and enrollment is one JSON object per line.
+     */
+    @Test
+    public void whenEnrollmentsExportedAsNdjson_thenOneObjectPerLine() throws Exception {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Export " + UUID.randomUUID());
+        classRoom = classRoomRepository.save(classRoom);
+        Student student = new Student();
+        student.setName("Export " + UUID.randomUUID());
+        student = studentRepository.save(student);
+        studentClassroomRepository.save(new StudentClassroom(classRoom, student));
+
+        List<String> classRooms = export("/api/export/classrooms", "classrooms.ndjson");
+        assertThat(classRooms).contains(objectMapper.createObjectNode()
+                .put("id", classRoom.getId()).put("name", classRoom.getName()).toString());
+
+        List<String> enrollments = export("/api/export/enrollments?format=ndjson", "enrollments.ndjson");
+        assertThat(enrollments).allSatisfy(line -> assertThat(objectMapper.readTree(line).isObject()).isTrue());
+        JsonNode last = objectMapper.readTree(enrollments.get(enrollments.size() - 1));
+        assertThat(last.get("studentId").asInt()).isEqualTo(student.getId());
+        assertThat(last.get("classroomId").asLong()).isEqualTo(classRoom.getId());
+    }
+
+
+    /**
+     * NDJSON lines are not flushed one by one; the output stream is only flushed once, at the end.
+     */
+    @Test
+    public void whenExportedAsNdjson_thenFlushedOnce() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            ClassRoom classRoom = new ClassRoom();
+            classRoom.setName("Export " + UUID.randomUUID());
+            classRoomRepository.save(classRoom);
+        }
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream body = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        exportService.writeClassRooms(body, ExportService.Format.NDJSON);
+
+        assertThat(body.toString(StandardCharsets.UTF_8).split("\n")).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(flushes).hasValue(1);
+    }
+
+
+    /**
+     * Unknown formats are rejected before anything is streamed.
+     */
+    @Test
+    public void whenFormatUnknown_thenBadRequest() throws Exception {
+        mockMvc.perform(get("/api/export/students?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    private List<String> export(String path, String fileName) throws Exception {
+        MvcResult started = mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        return Arrays.asList(body.split("\r?\n"));
+    }
+}
@@ -0,0 +1,13 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import org.springframework.test.context.ActiveProfiles;
+
+
+/**
+ * Runs the bulk delete tests against the in-memory repositories of the `inmemory` profile, which cannot roll back
+ * a failed delete.
+ */
+
+@ActiveProfiles("inmemory")
+public class InMemoryBulkDeleteTest extends BulkDeleteTest {
+}
@@ -0,0 +1,65 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.inmemory.InMemoryStudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+
+/**
+ * Runs the storage contract against the in-memory repositories of the `inmemory` profile, and checks that
+ * readers see both sides of every enrollment while writers add to the indexes.
+ */
+
+@ActiveProfiles("inmemory")
+public class InMemoryStorageTest extends StorageContractTest {
+
+    @Test
+    public void whenInMemoryProfileActive_thenInMemoryRepositoriesUsed() {
+        assertThat(studentRepository).isInstanceOf(InMemoryStudentRepository.class);
+    }
+
+
+    @Test
+    public void whenReadersRunDuringWrites_thenEveryEnrollmentSeenFromBothSides() throws Exception {
+        ClassRoom classRoom = classRoom();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        studentClassroomRepository.save(new StudentClassroom(classRoom, student(null)));
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 4; reader++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        for (Integer studentId : studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId())) {
+                            assertThat(studentClassroomRepository.findClassRoomIdsByStudentId(studentId)).contains(classRoom.getId());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId())).hasSize(200);
+        assertThat(studentClassroomRepository.findByClassRoomId(classRoom.getId())).hasSize(200);
+    }
+}
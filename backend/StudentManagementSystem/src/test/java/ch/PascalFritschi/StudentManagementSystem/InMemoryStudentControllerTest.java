@@ -0,0 +1,12 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import org.springframework.test.context.ActiveProfiles;
+
+
+/**
+ * Runs the student controller tests against the in-memory repositories of the `inmemory` profile.
+ */
+
+@ActiveProfiles("inmemory")
+public class InMemoryStudentControllerTest extends StudentControllerTest {
+}
@@ -0,0 +1,89 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs the bulk delete tests against the default JPA repositories, and verifies that the deletes run a fixed number
+ * of statements without loading entities and clear the caches only when they commit.
+ */
+public class JpaBulkDeleteTest extends BulkDeleteTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+
+    /**
+     * Deleting students by filter takes the same few statements for any number of students and enrollments.
+     */
+    @Test
+    public void whenStudentsDeletedByFilter_thenSetBasedStatementsOnly() throws Exception {
+        String grade = UUID.randomUUID().toString();
+        ClassRoom first = saveClassRoom();
+        ClassRoom second = saveClassRoom();
+        for (int i = 0; i < 20; i++) {
+            Student student = saveStudent(grade, null);
+            studentClassroomRepository.save(new StudentClassroom(first, student));
+            studentClassroomRepository.save(new StudentClassroom(second, student));
+        }
+
+        statistics.clear();
+        mockMvc.perform(delete("/api/student/deleteWhere").param("grade", grade))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(20))
+                .andExpect(jsonPath("$.enrollmentsDeleted").value(40));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+
+    /**
+     * The student cache is cleared when the delete commits, not when it is issued: a student cached again by a
+     * concurrent reader before the commit does not outlive the delete.
+     */
+    @Test
+    public void whenReadBeforeCommit_thenCacheClearedOnCommit() {
+        Student student = saveStudent(null, null);
+        long id = student.getId();
+        assertThat(studentRepository.findById(id)).isNotNull();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            studentRepository.deleteByIds(List.of(student.getId()));
+            // The delete is not committed yet, so another transaction still reads and caches the student
+            assertThat(CompletableFuture.supplyAsync(() -> studentRepository.findById(id)).join()).isNotNull();
+        });
+
+        assertThat(studentRepository.findById(id)).isNull();
+    }
+}
@@ -0,0 +1,9 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+
+/**
+ * Runs the storage contract against the default JPA repositories.
+ */
+
+public class JpaStorageTest extends StorageContractTest {
+}
@@ -0,0 +1,96 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.config.CacheConfig;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+/**
+ * Verifies that enrollment changes evict the cached classroom, so its roster is never served stale.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LookupCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+
+    /**
+     * Adding a student to a classroom and removing them again each evict the classroom that was read before.
+     */
+    @Test
+    public void whenStudentEnrolledOrRemoved_thenClassRoomEvicted() throws Exception {
+        ClassRoom classRoom = saveClassRoom();
+        Student student = saveStudent();
+        Cache classrooms = cacheManager.getCache(CacheConfig.CLASSROOMS);
+
+        assertThat(classRoomRepository.findById(classRoom.getId())).isPresent();
+        assertThat(classrooms.get(classRoom.getId())).isNotNull();
+        mockMvc.perform(post("/api/studentclassroom/add/" + student.getId() + "/" + classRoom.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+        assertThat(classrooms.get(classRoom.getId())).isNull();
+
+        assertThat(classRoomRepository.findById(classRoom.getId())).isPresent();
+        assertThat(classrooms.get(classRoom.getId())).isNotNull();
+        mockMvc.perform(delete("/api/studentclassroom/remove/" + student.getId() + "/" + classRoom.getId()))
+                .andExpect(status().isNoContent());
+        assertThat(classrooms.get(classRoom.getId())).isNull();
+    }
+
+
+    /**
+     * A bulk enrollment evicts the cached classrooms as well.
+     */
+    @Test
+    public void whenStudentsEnrolledInBulk_thenClassRoomEvicted() throws Exception {
+        ClassRoom classRoom = saveClassRoom();
+        Student student = saveStudent();
+        Cache classrooms = cacheManager.getCache(CacheConfig.CLASSROOMS);
+
+        assertThat(classRoomRepository.findById(classRoom.getId())).isPresent();
+        mockMvc.perform(post("/api/studentclassroom/bulk/" + classRoom.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + student.getId() + "]"))
+                .andExpect(status().isOk());
+        assertThat(classrooms.get(classRoom.getId())).isNull();
+    }
+
+    private ClassRoom saveClassRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Cache " + UUID.randomUUID());
+        return classRoomRepository.save(classRoom);
+    }
+
+    private Student saveStudent() {
+        Student student = new Student();
+        student.setName("Cache " + UUID.randomUUID());
+        return studentRepository.save(student);
+    }
+}
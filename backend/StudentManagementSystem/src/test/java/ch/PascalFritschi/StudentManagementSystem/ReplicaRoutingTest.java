@@ -0,0 +1,202 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.config.ReplicaRoutingDataSource;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Runs the application against two embedded databases, the usual one as primary and a second one as its replica.
+ * The replica is never written by the application, so where a read was served from tells the two apart.
+ */
+@SpringBootTest(properties = {
+        "datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "datasource.replicas.read-your-writes-window=5s"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:StudentManagementReplica;DB_CLOSE_DELAY=-1";
+
+    private static final int REPLICA_ONLY_ID = 900001;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    public static void setUpReplica() throws Exception {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2").load().migrate();
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("MERGE INTO students (id, name, version) KEY (id) VALUES ("
+                    + REPLICA_ONLY_ID + ", 'Replica Only', 0)");
+        }
+    }
+
+
+    @Test
+    public void whenReading_thenServedByReplica() throws Exception {
+        mockMvc.perform(get("/api/student/search").param("studentId", String.valueOf(REPLICA_ONLY_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica Only"));
+    }
+
+
+    /**
+     * The replica never receives the new student, so it is only found when the read is pinned to the primary.
+     */
+    @Test
+    public void whenReadingAfterWrite_thenPinnedToPrimaryWithinWindow() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Freshly Written\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        int id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asInt();
+        Cookie pin = created.getResponse().getCookie("primary-until");
+        assertThat(pin).isNotNull();
+        assertThat(Long.parseLong(pin.getValue())).isGreaterThan(System.currentTimeMillis());
+
+        // Without the cookie the read goes to the replica, which has not seen the write
+        mockMvc.perform(get("/api/student/search").param("studentId", String.valueOf(id)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/student/search").param("studentId", String.valueOf(id)).cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Freshly Written"));
+    }
+
+
+    /**
+     * The frontend runs on another origin, so the pin cookie only arrives if CORS allows credentials.
+     * Only the endpoints whose clients read back their own writes allow them; the read-only ones do not.
+     */
+    @Test
+    public void whenCrossOriginRequest_thenCredentialsAllowed() throws Exception {
+        mockMvc.perform(options("/api/student").header(HttpHeaders.ORIGIN, "http://localhost:3000")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true"));
+        mockMvc.perform(options("/api/statistics/grades").header(HttpHeaders.ORIGIN, "http://localhost:3000")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS));
+    }
+
+
+    @Test
+    public void whenReplicaUnreachable_thenFallsBackToPrimary() throws Exception {
+        String primaryUrl = "jdbc:h2:mem:ReplicaFallbackPrimary;DB_CLOSE_DELAY=-1";
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new DriverManagerDataSource(primaryUrl, "sa", ""),
+                Map.of("unreachable", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable", "sa", "")),
+                Duration.ofHours(1), Duration.ofSeconds(10));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            assertThat(connection.getMetaData().getURL()).startsWith("jdbc:h2:mem:ReplicaFallbackPrimary");
+            assertThat(routing.getReplicaHealth()).containsEntry("unreachable", false);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.close();
+        }
+    }
+
+
+    /**
+     * A replica that lags more than the threshold, or whose replication has stopped, is not used until it catches up.
+     */
+    @Test
+    public void whenReplicaLags_thenSkippedUntilCaughtUp() throws Exception {
+        DataSource lagging = replicaReporting(60L);
+        DataSource stopped = replicaReporting(null);
+        DataSource current = replicaReporting(2L);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:ReplicaLagPrimary;DB_CLOSE_DELAY=-1", "sa", ""),
+                Map.of("lagging", lagging, "stopped", stopped, "current", current),
+                Duration.ofHours(1), Duration.ofSeconds(10));
+        try {
+            routing.checkHealth();
+            assertThat(routing.getReplicaHealth()).containsEntry("lagging", false)
+                    .containsEntry("stopped", false).containsEntry("current", true);
+        } finally {
+            routing.close();
+        }
+    }
+
+
+    /**
+     * Connections with explicit credentials are routed like the others, with the credentials passed on.
+     */
+    @Test
+    public void whenConnectingWithCredentials_thenRoutedToReplica() throws Exception {
+        DataSource replica = replicaReporting(0L);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:ReplicaCredentialsPrimary;DB_CLOSE_DELAY=-1", "sa", ""),
+                Map.of("replica", replica), Duration.ofHours(1), Duration.ofSeconds(10));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            routing.getConnection("reader", "secret");
+            verify(replica).getConnection("reader", "secret");
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.close();
+        }
+    }
+
+    /**
+     * Mocks a MySQL replica whose `SHOW REPLICA STATUS` reports the given lag, NULL if replication has stopped.
+     */
+    private static DataSource replicaReporting(Long lagSeconds) throws Exception {
+        ResultSet status = mock(ResultSet.class);
+        when(status.next()).thenReturn(true);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(lagSeconds == null ? 0 : lagSeconds);
+        when(status.wasNull()).thenReturn(lagSeconds == null);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(dataSource.getConnection(anyString(), anyString())).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,142 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.config.ContentNegotiationConfig;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+/**
+ * Requests the student list over HTTP in every supported format, with and without gzip.
+ * Runs against the embedded Tomcat, because compression is applied by the connector, not by Spring MVC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseFormatTest {
+
+    private static final int STUDENTS = 60;
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String listPath;
+    private String firstName;
+
+    @BeforeEach
+    public void setUp() {
+        int run = RUN.incrementAndGet();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName("Format student " + run + "-" + i);
+            student.setEmail("format" + run + "-" + i + "@example.com");
+            students.add(student);
+        }
+        students = studentRepository.saveAll(students);
+        listPath = "/api/student?after=" + (students.get(0).getId() - 1) + "&size=" + STUDENTS;
+        firstName = students.get(0).getName();
+    }
+
+
+    @Test
+    public void whenAcceptingCbor_thenCborResponse() throws Exception {
+        HttpResponse<byte[]> response = get(listPath, "application/cbor", null);
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/cbor");
+        // Tomcat merges the Vary values of Spring MVC and of the compression into one lower-case header
+        assertThat(response.headers().allValues(HttpHeaders.VARY).stream()
+                .flatMap(vary -> Arrays.stream(vary.split(",")))
+                .map(String::trim))
+                .contains(HttpHeaders.ACCEPT.toLowerCase());
+        assertStudents(new ObjectMapper(new CBORFactory()).readTree(response.body()));
+    }
+
+
+    @Test
+    public void whenAcceptingSmile_thenSmileResponse() throws Exception {
+        HttpResponse<byte[]> response = get(listPath, ContentNegotiationConfig.APPLICATION_SMILE.toString(), null);
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE))
+                .hasValue(ContentNegotiationConfig.APPLICATION_SMILE.toString());
+        assertStudents(new ObjectMapper(new SmileFactory()).readTree(response.body()));
+    }
+
+
+    @Test
+    public void whenAcceptingAnything_thenJson() throws Exception {
+        HttpResponse<byte[]> response = get(listPath, MediaType.ALL_VALUE, null);
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue(MediaType.APPLICATION_JSON_VALUE);
+        assertStudents(objectMapper.readTree(response.body()));
+    }
+
+
+    /**
+     * The full page is gzipped. A response below the compression threshold is sent as is; Tomcat can only
+     * apply the threshold to responses of known length, such as the plain-text welcome page.
+     */
+    @Test
+    public void whenAcceptingGzip_thenLargeResponsesCompressed() throws Exception {
+        HttpResponse<byte[]> large = get(listPath, MediaType.APPLICATION_JSON_VALUE, "gzip");
+
+        assertThat(large.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            assertStudents(objectMapper.readTree(in));
+        }
+
+        HttpResponse<byte[]> small = get("/", MediaType.TEXT_PLAIN_VALUE, "gzip");
+        assertThat(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(new String(small.body(), StandardCharsets.UTF_8)).startsWith("Welcome");
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private void assertStudents(JsonNode students) {
+        assertThat(students.size()).isEqualTo(STUDENTS);
+        assertThat(students.get(0).get("name").asText()).isEqualTo(firstName);
+    }
+}
@@ -0,0 +1,142 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+@DataJpaTest
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+public class SchemaIndexTest {
+
+    private static final int CLASSROOMS = 20;
+    private static final int STUDENTS = 100;
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private StudentClassroomRepository studentClassroomRepository;
+
+    private final List<ClassRoom> classRooms = new ArrayList<>();
+    private final List<Student> students = new ArrayList<>();
+
+    /**
+     * Seeds 20 classrooms and 100 students, each enrolled in two classrooms (200 enrollments, 10 per classroom).
+     */
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < CLASSROOMS; i++) {
+            ClassRoom classRoom = new ClassRoom();
+            classRoom.setName("Class " + i);
+            classRooms.add(entityManager.persist(classRoom));
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName("Student " + i);
+            students.add(entityManager.persist(student));
+            entityManager.persist(new StudentClassroom(classRooms.get(i % CLASSROOMS), student));
+            entityManager.persist(new StudentClassroom(classRooms.get((i + 1) % CLASSROOMS), student));
+        }
+        entityManager.flush();
+    }
+
+
+    /**
+     * The enrollment existence check reads one row through the unique (student, classroom) index.
+     */
+    @Test
+    public void whenCheckingEnrollment_thenUniqueIndexIsUsed() {
+        String plan = explain("SELECT id FROM student_classrooms WHERE student_id = " + students.get(7).getId()
+                + " AND classroom_id = " + classRooms.get(7).getId());
+
+        assertThat(plan).containsIgnoringCase("uk_student_classrooms_student_classroom");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(2);
+    }
+
+
+    /**
+     * Listing a classroom's enrollments only reads that classroom's rows.
+     */
+    @Test
+    public void whenListingEnrollmentsOfClassRoom_thenClassroomIndexIsUsed() {
+        String plan = explain("SELECT student_id FROM student_classrooms WHERE classroom_id = " + classRooms.get(3).getId());
+
+        assertThat(plan).containsIgnoringCase("idx_student_classrooms_classroom_student");
+        assertThat(scanCount(plan)).isLessThanOrEqualTo(STUDENTS * 2 / CLASSROOMS + 1);
+    }
+
+
+    /**
+     * Lookups of classrooms and students by name read one row through the name indexes.
+     */
+    @Test
+    public void whenFindingByName_thenNameIndexesAreUsed() {
+        String classRoomPlan = explain("SELECT id FROM class_rooms WHERE name = 'Class 7'");
+        String studentPlan = explain("SELECT id FROM students WHERE name = 'Student 7'");
+
+        assertThat(classRoomPlan).containsIgnoringCase("uk_class_rooms_name");
+        assertThat(scanCount(classRoomPlan)).isLessThanOrEqualTo(2);
+        assertThat(studentPlan).containsIgnoringCase("idx_students_name");
+        assertThat(scanCount(studentPlan)).isLessThanOrEqualTo(2);
+    }
+
+
+    /**
+     * A duplicate classroom name is rejected by the database, which the controller relies on instead of checking first.
+     */
+    @Test
+    public void whenInsertingDuplicateClassRoomName_thenConstraintIsViolated() {
+        ClassRoom duplicateClassRoom = new ClassRoom();
+        duplicateClassRoom.setName("Class 0");
+        assertThatThrownBy(() -> classRoomRepository.saveAndFlush(duplicateClassRoom))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+
+    /**
+     * A repeated enrollment is rejected by the database, which the controller relies on instead of checking first.
+     */
+    @Test
+    public void whenInsertingDuplicateEnrollment_thenConstraintIsViolated() {
+        StudentClassroom duplicateEnrollment = new StudentClassroom(classRooms.get(0), students.get(0));
+        assertThatThrownBy(() -> studentClassroomRepository.saveAndFlush(duplicateEnrollment))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    /**
+     * Runs the query with H2's EXPLAIN ANALYZE, which reports the chosen index and the number of rows scanned.
+     */
+    private String explain(String sql) {
+        return (String) entityManager.getEntityManager().createNativeQuery("EXPLAIN ANALYZE " + sql).getSingleResult();
+    }
+
+    private static int scanCount(String plan) {
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        assertThat(matcher.find()).as("scan count in %s", plan).isTrue();
+        return Integer.parseInt(matcher.group(1));
+    }
+}
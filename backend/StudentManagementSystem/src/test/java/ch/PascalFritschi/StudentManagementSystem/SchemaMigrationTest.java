@@ -0,0 +1,135 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the MySQL migrations against H2 in MySQL mode, starting from the schema that Hibernate generated
+ * before Flyway (ddl-auto=update with AUTO IDs), as existing production databases have it.
+ */
+public class SchemaMigrationTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+
+    /**
+     * Sequence tables that are ahead of the data keep their value, lagging ones are raised above the highest ID,
+     * so the first block the pooled optimizer draws after the migration holds no existing ID.
+     */
+    @Test
+    public void whenMigratingPopulatedLegacySchema_thenSequencesStayAheadOfExistingIds() throws Exception {
+        String url = url();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            createLegacySchema(statement);
+            for (int id = 1; id <= 40; id++) {
+                statement.executeUpdate("INSERT INTO class_rooms (id, name) VALUES (" + id + ", 'Class " + id + "')");
+            }
+            for (int id = 1; id <= 120; id++) {
+                statement.executeUpdate("INSERT INTO students (id, name, classroom_id) VALUES ("
+                        + id + ", 'Student " + id + "', " + (id % 40 + 1) + ")");
+            }
+            for (int id = 1; id <= 240; id++) {
+                int student = (id + 1) / 2;
+                statement.executeUpdate("INSERT INTO student_classrooms (id, classroom_id, student_id) VALUES ("
+                        + id + ", " + ((student + id % 2) % 40 + 1) + ", " + student + ")");
+            }
+            statement.executeUpdate("INSERT INTO class_rooms_seq (next_val) VALUES (101)");
+            // students were imported with explicit IDs past the sequence
+            statement.executeUpdate("INSERT INTO students_seq (next_val) VALUES (51)");
+            statement.executeUpdate("INSERT INTO student_classrooms_seq (next_val) VALUES (301)");
+        }
+
+        migrate(url);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(nextVal(statement, "class_rooms_seq")).isEqualTo(101);
+            assertThat(nextVal(statement, "students_seq")).isEqualTo(120 + ALLOCATION_SIZE);
+            assertThat(nextVal(statement, "student_classrooms_seq")).isEqualTo(301);
+            assertFirstBlockIsFree(statement, "class_rooms_seq", "class_rooms");
+            assertFirstBlockIsFree(statement, "students_seq", "students");
+            assertFirstBlockIsFree(statement, "student_classrooms_seq", "student_classrooms");
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM students WHERE version = 0")).isEqualTo(120);
+            assertThat(queryLong(statement, "SELECT COUNT(*) FROM information_schema.tables"
+                    + " WHERE LOWER(table_name) IN ('class_room_seq', 'student_seq', 'student_classroom_seq')")).isZero();
+        }
+    }
+
+
+    /**
+     * A new database gets the sequence tables too, and the first block starts at ID 1.
+     */
+    @Test
+    public void whenMigratingEmptyDatabase_thenSequencesStartAtFirstBlock() throws Exception {
+        String url = url();
+
+        migrate(url);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(nextVal(statement, "class_rooms_seq")).isEqualTo(ALLOCATION_SIZE);
+            assertThat(nextVal(statement, "students_seq")).isEqualTo(ALLOCATION_SIZE);
+            assertThat(nextVal(statement, "student_classrooms_seq")).isEqualTo(ALLOCATION_SIZE);
+        }
+    }
+
+
+    private static String url() {
+        return "jdbc:h2:mem:Migration" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+
+    private static void migrate(String url) {
+        Flyway.configure().dataSource(url, "sa", "")
+                .locations("classpath:db/migration/mysql")
+                .baselineOnMigrate(true).baselineVersion("0")
+                .load().migrate();
+    }
+
+    /**
+     * The tables and sequence tables as ddl-auto=update created them for the former entities.
+     */
+    private static void createLegacySchema(Statement statement) throws SQLException {
+        statement.executeUpdate("CREATE TABLE class_rooms (id BIGINT NOT NULL, name VARCHAR(255), PRIMARY KEY (id))");
+        statement.executeUpdate("CREATE TABLE students (id INTEGER NOT NULL, address VARCHAR(255), birthdate DATE,"
+                + " email VARCHAR(255), grade VARCHAR(255), name VARCHAR(255), phone_number VARCHAR(255),"
+                + " classroom_id BIGINT, PRIMARY KEY (id), FOREIGN KEY (classroom_id) REFERENCES class_rooms (id))");
+        statement.executeUpdate("CREATE TABLE student_classrooms (id BIGINT NOT NULL, classroom_id BIGINT,"
+                + " student_id INTEGER, PRIMARY KEY (id), FOREIGN KEY (classroom_id) REFERENCES class_rooms (id),"
+                + " FOREIGN KEY (student_id) REFERENCES students (id))");
+        statement.executeUpdate("CREATE TABLE class_rooms_seq (next_val BIGINT)");
+        statement.executeUpdate("CREATE TABLE students_seq (next_val BIGINT)");
+        statement.executeUpdate("CREATE TABLE student_classrooms_seq (next_val BIGINT)");
+    }
+
+    /**
+     * The pooled optimizer reserves next_val - 49 .. next_val, and none of those IDs may be taken.
+     */
+    private static void assertFirstBlockIsFree(Statement statement, String sequenceTable, String table)
+            throws SQLException {
+        long firstId = nextVal(statement, sequenceTable) - ALLOCATION_SIZE + 1;
+        assertThat(queryLong(statement, "SELECT COUNT(*) FROM " + table + " WHERE id >= " + firstId))
+                .as("IDs of %s at or above %d", table, firstId).isZero();
+    }
+
+    private static long nextVal(Statement statement, String sequenceTable) throws SQLException {
+        assertThat(queryLong(statement, "SELECT COUNT(*) FROM " + sequenceTable)).isEqualTo(1);
+        return queryLong(statement, "SELECT next_val FROM " + sequenceTable);
+    }
+
+    private static long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
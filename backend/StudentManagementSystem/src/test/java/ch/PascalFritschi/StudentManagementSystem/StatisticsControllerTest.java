@@ -0,0 +1,107 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+/**
+ * Verifies the aggregates of the statistics endpoints. The database is shared with other tests,
+ * so every test counts rows with values no other test uses.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private StudentClassroomRepository studentClassroomRepository;
+
+
+    /**
+     * Students are counted per grade, and an unchanged distribution is answered with 304.
+     */
+    @Test
+    public void whenStudentsShareGrade_thenCountedTogether() throws Exception {
+        String grade = UUID.randomUUID().toString();
+        saveStudent(grade, null);
+        saveStudent(grade, null);
+
+        String eTag = mockMvc.perform(get("/api/statistics/grades"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.grade == '" + grade + "')].count").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/statistics/grades").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+
+    /**
+     * Ages are grouped into brackets of the requested size.
+     */
+    @Test
+    public void whenAgesRequested_thenGroupedIntoBrackets() throws Exception {
+        LocalDate today = LocalDate.now();
+        saveStudent(null, today.minusYears(150));
+        saveStudent(null, today.minusYears(159).minusDays(1));
+        saveStudent(null, today.minusYears(160));
+
+        mockMvc.perform(get("/api/statistics/ages").param("bracketSize", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bracketSize").value(10))
+                .andExpect(jsonPath("$.brackets[?(@.fromAge == 150)].count").value(2))
+                .andExpect(jsonPath("$.brackets[?(@.fromAge == 160)].toAge").value(169))
+                .andExpect(jsonPath("$.brackets[?(@.fromAge == 160)].count").value(1));
+        mockMvc.perform(get("/api/statistics/ages").param("bracketSize", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    /**
+     * Every classroom is listed with its number of enrolled students.
+     */
+    @Test
+    public void whenClassRoomsRequested_thenEnrollmentsCounted() throws Exception {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Statistics " + UUID.randomUUID());
+        classRoom = classRoomRepository.save(classRoom);
+        studentClassroomRepository.save(new StudentClassroom(classRoom, saveStudent(null, null)));
+        studentClassroomRepository.save(new StudentClassroom(classRoom, saveStudent(null, null)));
+
+        mockMvc.perform(get("/api/statistics/classrooms"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + classRoom.getId() + ")].studentCount").value(2));
+    }
+
+    private Student saveStudent(String grade, LocalDate birthdate) {
+        Student student = new Student();
+        student.setName("Statistics " + UUID.randomUUID());
+        student.setGrade(grade);
+        student.setBirthdate(birthdate);
+        return studentRepository.save(student);
+    }
+}
@@ -0,0 +1,230 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentClassroomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+/**
+ * The behaviour every storage backend has to show through the three repositories. Each subclass runs it against one backend.
+ * The JPA backend shares its database with the other tests, so every test creates its own uniquely named rows.
+ */
+@SpringBootTest
+public abstract class StorageContractTest {
+
+    @Autowired
+    protected StudentRepository studentRepository;
+
+    @Autowired
+    protected ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    protected StudentClassroomRepository studentClassroomRepository;
+
+
+    @Test
+    public void whenStudentSaved_thenFoundByIdNameAndProjections() {
+        ClassRoom classRoom = classRoom();
+        Student student = student(classRoom);
+
+        Student found = studentRepository.findById((long) student.getId());
+        assertThat(found.getName()).isEqualTo(student.getName());
+        assertThat(found.getClassRoom().getName()).isEqualTo(classRoom.getName());
+        assertThat(studentRepository.findByName(student.getName())).get().extracting(Student::getId).isEqualTo(student.getId());
+
+        StudentDetail detail = studentRepository.findDetailById(student.getId()).orElseThrow();
+        assertThat(detail.classRoom()).isEqualTo(new ClassRoomRef(classRoom.getId(), classRoom.getName()));
+        assertThat(detail.version()).isZero();
+
+        List<StudentSummary> page = studentRepository.findSummariesAfter(student.getId() - 1, PageRequest.of(0, 1));
+        assertThat(page).extracting(StudentSummary::id).containsExactly(student.getId());
+        assertThat(studentRepository.findExistingIds(List.of(student.getId(), -1))).containsExactly(student.getId());
+        assertThat(studentRepository.findDetailById(-1)).isEmpty();
+    }
+
+
+    @Test
+    public void whenStudentUpdatedWithStaleVersion_thenRejected() {
+        Student student = student(null);
+        Student renamed = copy(student);
+        renamed.setName(student.getName() + " renamed");
+        assertThat(studentRepository.save(renamed).getVersion()).isEqualTo(1L);
+
+        Student stale = copy(student);
+        stale.setName(student.getName() + " stale");
+        assertThatThrownBy(() -> studentRepository.save(stale)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(studentRepository.findDetailById(student.getId()).orElseThrow().name()).isEqualTo(renamed.getName());
+        assertThat(studentRepository.findByName(student.getName())).isEmpty();
+    }
+
+
+    @Test
+    public void whenClassRoomColumnsUpdated_thenOnlyItsStudentsChanged() {
+        ClassRoom classRoom = classRoom();
+        Student member = student(classRoom);
+        Student other = student(null);
+
+        assertThat(studentRepository.updateColumnsByClassRoom(classRoom.getId(), Map.of("grade", "B"))).isEqualTo(1);
+        assertThat(studentRepository.findSearchRowsByClassRoomId(classRoom.getId())).extracting(StudentSearchRow::id)
+                .containsExactly(member.getId());
+        StudentDetail updated = studentRepository.findDetailById(member.getId()).orElseThrow();
+        assertThat(updated.grade()).isEqualTo("B");
+        assertThat(updated.version()).isEqualTo(1);
+        assertThat(studentRepository.findDetailById(other.getId()).orElseThrow().grade()).isNull();
+    }
+
+
+    /**
+     * Moving a whole classroom updates every member, also while the members of the old classroom change.
+     */
+    @Test
+    public void whenClassRoomColumnMoved_thenStudentsInNewClassRoom() {
+        ClassRoom from = classRoom();
+        ClassRoom to = classRoom();
+        Student first = student(from);
+        Student second = student(from);
+
+        assertThat(studentRepository.updateColumnsByClassRoom(from.getId(), Map.of("classRoom", to))).isEqualTo(2);
+        assertThat(studentRepository.findSearchRowsByClassRoomId(to.getId())).extracting(StudentSearchRow::id)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(studentRepository.findSearchRowsByClassRoomId(from.getId())).isEmpty();
+        assertThat(studentRepository.findDetailById(first.getId()).orElseThrow().classRoom().id()).isEqualTo(to.getId());
+    }
+
+
+    @Test
+    public void whenEnrolled_thenLinksFoundFromBothSides() {
+        ClassRoom classRoom = classRoom();
+        Student first = student(null);
+        Student second = student(classRoom);
+        studentClassroomRepository.saveAll(List.of(
+                new StudentClassroom(classRoom, second), new StudentClassroom(classRoom, first)));
+
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId()))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(studentClassroomRepository.findClassRoomIdsByStudentId(first.getId())).containsExactly(classRoom.getId());
+        assertThat(studentClassroomRepository.existsByStudentIdAndClassRoomId((long) first.getId(), classRoom.getId())).isTrue();
+        assertThat(studentClassroomRepository.findByStudentIdAndClassRoomId((long) second.getId(), classRoom.getId())).isPresent();
+        assertThat(studentClassroomRepository.findByClassRoomId(classRoom.getId())).hasSize(2);
+        assertThat(studentClassroomRepository.findStudentsByClassRoomId(classRoom.getId()))
+                .extracting(StudentSummary::id).containsExactly(first.getId(), second.getId());
+        assertThat(studentClassroomRepository.findExistingPairs(List.of(first.getId()), List.of(classRoom.getId(), -1L)))
+                .containsExactly(new EnrollmentPair(first.getId(), classRoom.getId()));
+        assertThat(classRoomRepository.findAllSummaries())
+                .contains(new ClassRoomSummary(classRoom.getId(), classRoom.getName(), 2));
+
+        assertThatThrownBy(() -> studentClassroomRepository.save(new StudentClassroom(classRoom, first)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+
+    @Test
+    public void whenStudentDeleted_thenEnrollmentsDeleted() {
+        ClassRoom classRoom = classRoom();
+        Student student = student(null);
+        studentClassroomRepository.save(new StudentClassroom(classRoom, student));
+
+        studentRepository.deleteById(student.getId());
+
+        assertThat(studentRepository.existsById(student.getId())).isFalse();
+        assertThat(studentClassroomRepository.findStudentIdsByClassRoomId(classRoom.getId())).isEmpty();
+        assertThat(studentClassroomRepository.findByStudentIdAndClassRoomId((long) student.getId(), classRoom.getId())).isEmpty();
+    }
+
+
+    @Test
+    public void whenClassRoomDeleted_thenEnrollmentsDeleted() {
+        ClassRoom classRoom = classRoom();
+        Student student = student(null);
+        studentClassroomRepository.save(new StudentClassroom(classRoom, student));
+
+        classRoomRepository.deleteById(classRoom.getId());
+
+        assertThat(classRoomRepository.existsById(classRoom.getId())).isFalse();
+        assertThat(classRoomRepository.findByName(classRoom.getName())).isEmpty();
+        assertThat(studentClassroomRepository.findClassRoomIdsByStudentId(student.getId())).isEmpty();
+        assertThat(studentRepository.existsById(student.getId())).isTrue();
+    }
+
+
+    @Test
+    public void whenClassRoomNameTaken_thenRejected() {
+        ClassRoom classRoom = classRoom();
+        ClassRoom duplicate = new ClassRoom();
+        duplicate.setName(classRoom.getName());
+
+        assertThatThrownBy(() -> classRoomRepository.save(duplicate)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(classRoomRepository.findByName(classRoom.getName())).get().extracting(ClassRoom::getId).isEqualTo(classRoom.getId());
+    }
+
+    @Test
+    public void whenSorted_thenOrderedByProperties() {
+        String prefix = "Sorted " + UUID.randomUUID() + " ";
+        Student b = student(prefix + "b", "1");
+        Student a = student(prefix + "A", "2");
+        Student c = student(prefix + "c", null);
+        List<Integer> ids = List.of(a.getId(), b.getId(), c.getId());
+
+        assertThat(studentRepository.findAll(Sort.by(Order.asc("name").ignoreCase())))
+                .extracting(Student::getId).filteredOn(ids::contains).containsExactly(a.getId(), b.getId(), c.getId());
+        // Like the database, null is the smallest grade
+        assertThat(studentRepository.findAll(Sort.by(Order.desc("grade"), Order.asc("name"))))
+                .extracting(Student::getId).filteredOn(ids::contains).containsExactly(a.getId(), b.getId(), c.getId());
+        assertThat(studentRepository.findAll(Sort.by(Order.asc("grade"))))
+                .extracting(Student::getId).filteredOn(ids::contains).containsExactly(c.getId(), b.getId(), a.getId());
+    }
+
+    protected ClassRoom classRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Class " + UUID.randomUUID());
+        return classRoomRepository.save(classRoom);
+    }
+
+    protected Student student(ClassRoom classRoom) {
+        Student student = new Student();
+        student.setName("Student " + UUID.randomUUID());
+        student.setEmail("student@example.com");
+        student.setClassRoom(classRoom);
+        return studentRepository.save(student);
+    }
+
+    private Student student(String name, String grade) {
+        Student student = new Student();
+        student.setName(name);
+        student.setGrade(grade);
+        return studentRepository.save(student);
+    }
+
+    private static Student copy(Student student) {
+        Student copy = new Student();
+        copy.setId(student.getId());
+        copy.setName(student.getName());
+        copy.setEmail(student.getEmail());
+        copy.setVersion(student.getVersion());
+        return copy;
+    }
+}
@@ -19,6 +19,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 
 
 import ch.PascalFritschi.StudentManagementSystem.Controller.StudentController;
@@ -39,6 +42,9 @@ public class StudentControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
    
     /**
      * Unit test for the injection of StudentController, ensuring that it is not null.
@@ -121,25 +127,46 @@ public class StudentControllerTest {
     /**
      * Unit test for handling a PUT request to update an existing student, validating the correct response.
      *
-     * Mocks the data by creating a mock student and setting up the repository to return it.
-     * Performs a PUT request to update an existing student and expects a successful (200 OK) response
-     * with content type as JSON.
+     * Creates a student and performs a PUT request carrying the version it was created with,
+     * expecting a successful (200 OK) response with content type as JSON and the next version.
      *
      * @throws Exception if an error occurs during the test.
      */
     @Test
     public void whenUpdateStudent_thenCorrectResponse() throws Exception {
-        // Mock data
-        Student mockStudent = new Student();
-        when(studentRepository.save(any(Student.class))).thenReturn(mockStudent);
+        JsonNode created = createStudent();
 
         // Performs PUT request to update an existing student
         mockMvc.perform(MockMvcRequestBuilders.put("/api/student/update")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{\"name\":\"John Doe\", \"age\":30}"))
+                .content("{\"id\":" + created.get("id").asInt() + ", \"name\":\"John Doe\", \"version\":0}"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(1));
     }
-}
 
 
+    /**
+     * Unit test for handling a PUT request without a version, which must not overwrite the student blindly.
+     *
+     * @throws Exception if an error occurs during the test.
+     */
+    @Test
+    public void whenUpdateStudentWithoutVersion_thenPreconditionRequired() throws Exception {
+        JsonNode created = createStudent();
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/student/update")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":" + created.get("id").asInt() + ", \"name\":\"John Doe\"}"))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionRequired());
+    }
+
+    private JsonNode createStudent() throws Exception {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/api/student")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"John Doe\"}"))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,110 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+
+/**
+ * Verifies the bulk import with chunks of four rows, so that small files already span several chunks.
+ */
+@SpringBootTest(properties = {"student.import.chunk-size=4", "student.import.batch-size=2"})
+@AutoConfigureMockMvc
+public class StudentImportTest {
+
+    private static final String HEADER = "name,email,grade\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+
+    /**
+     * Every row of a valid file is imported.
+     */
+    @Test
+    public void whenFileValid_thenAllRowsImported() throws Exception {
+        String prefix = "Import " + UUID.randomUUID() + " ";
+        String csv = HEADER + prefix + "1,one@example.com,1\n" + prefix + "2,two@example.com,2\n";
+
+        JsonNode report = importCsv(csv);
+
+        assertThat(report.get("imported").asInt()).isEqualTo(2);
+        assertThat(report.get("failed").asInt()).isZero();
+        assertThat(studentRepository.findByName(prefix + "1")).isPresent();
+        assertThat(studentRepository.findByName(prefix + "2")).isPresent();
+    }
+
+
+    /**
+     * An invalid row and a row the database rejects are reported with their line numbers; the other rows
+     * of their chunk are still imported.
+     */
+    @Test
+    public void whenFileHasBadRows_thenOnlyBadRowsRejected() throws Exception {
+        String prefix = "Import " + UUID.randomUUID() + " ";
+        // The grade passes validation but does not fit the VARCHAR(255) column
+        String csv = HEADER
+                + prefix + "1,one@example.com,1\n"
+                + prefix + "2,not an email,2\n"
+                + prefix + "3,three@example.com," + "x".repeat(300) + "\n"
+                + prefix + "4,four@example.com,4\n";
+
+        JsonNode report = importCsv(csv);
+
+        assertThat(report.get("imported").asInt()).isEqualTo(2);
+        assertThat(report.get("failed").asInt()).isEqualTo(2);
+        assertThat(report.get("errors").findValuesAsText("line")).containsExactly("3", "4");
+        assertThat(report.get("errors").get(1).get("messages").get(0).asText()).startsWith("Rejected by the database");
+        assertThat(studentRepository.findByName(prefix + "1")).isPresent();
+        assertThat(studentRepository.findByName(prefix + "3")).isEmpty();
+        assertThat(studentRepository.findByName(prefix + "4")).isPresent();
+    }
+
+
+    /**
+     * A file spanning several chunks is imported completely, and a chunk rejected by the database
+     * does not affect the chunks before and after it.
+     */
+    @Test
+    public void whenFileLargerThanChunk_thenEveryChunkImported() throws Exception {
+        String prefix = "Import " + UUID.randomUUID() + " ";
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= 10; i++) {
+            String grade = i == 6 ? "x".repeat(300) : String.valueOf(i);
+            csv.append(prefix).append(i).append(",s").append(i).append("@example.com,").append(grade).append('\n');
+        }
+
+        JsonNode report = importCsv(csv.toString());
+
+        assertThat(report.get("imported").asInt()).isEqualTo(9);
+        assertThat(report.get("errors").findValuesAsText("line")).containsExactly("7");
+        for (int i = 1; i <= 10; i++) {
+            assertThat(studentRepository.findByName(prefix + i).isPresent()).as("row %d", i).isEqualTo(i != 6);
+        }
+    }
+
+    private JsonNode importCsv(String csv) throws Exception {
+        String body = mockMvc.perform(post("/api/student/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
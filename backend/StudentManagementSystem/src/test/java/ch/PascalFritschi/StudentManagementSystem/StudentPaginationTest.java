@@ -0,0 +1,119 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.PascalFritschi.StudentManagementSystem.Controller.StudentController;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+/**
+ * Verifies the keyset pagination of `GET /api/student`.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StudentPaginationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${student.page.max-size:1000}")
+    private int maxPageSize;
+
+
+    /**
+     * Following the `X-Next-Cursor` header visits every student once, in ID order, one full page at a time.
+     * Other tests share the database, so their students may lie between the ones saved here.
+     */
+    @Test
+    public void whenFollowingNextCursor_thenEveryStudentOnce() throws Exception {
+        List<Integer> ids = saveStudents(5);
+        List<Integer> visited = new ArrayList<>();
+
+        String cursor = String.valueOf(ids.get(0) - 1);
+        while (cursor != null) {
+            MvcResult page = mockMvc.perform(get("/api/student").param("after", cursor).param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<Integer> pageIds = ids(page);
+            cursor = page.getResponse().getHeader(StudentController.NEXT_CURSOR_HEADER);
+            if (cursor != null) {
+                assertThat(pageIds).hasSize(2);
+                assertThat(cursor).isEqualTo(String.valueOf(pageIds.get(1)));
+            }
+            visited.addAll(pageIds);
+        }
+
+        assertThat(visited).isSorted().doesNotHaveDuplicates();
+        assertThat(visited.stream().filter(ids::contains).toList()).isEqualTo(ids);
+    }
+
+
+    /**
+     * A page that is not full is the last one and carries no cursor.
+     */
+    @Test
+    public void whenPageNotFull_thenNoNextCursor() throws Exception {
+        MvcResult last = mockMvc.perform(get("/api/student").param("after", String.valueOf(Integer.MAX_VALUE - 1))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StudentController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        assertThat(ids(last)).isEmpty();
+    }
+
+
+    /**
+     * Page sizes outside 1 to `student.page.max-size` are rejected instead of being silently capped.
+     */
+    @Test
+    public void whenSizeOutOfRange_thenBadRequest() throws Exception {
+        mockMvc.perform(get("/api/student").param("size", String.valueOf(maxPageSize + 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/student").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/student").param("size", String.valueOf(maxPageSize)))
+                .andExpect(status().isOk());
+    }
+
+    private List<Integer> saveStudents(int count) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Student student = new Student();
+            student.setName("Page " + UUID.randomUUID());
+            students.add(student);
+        }
+        return studentRepository.saveAll(students).stream().map(Student::getId).sorted().toList();
+    }
+
+    private List<Integer> ids(MvcResult result) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode student : objectMapper.readTree(result.getResponse().getContentAsString())) {
+            ids.add(student.get("id").asInt());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,216 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ch.PascalFritschi.StudentManagementSystem.Controller.StudentController;
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentDetail;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifies the JSON Merge Patch endpoints: only the given columns change, and no entity is loaded for the update.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StudentPatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+
+    /**
+     * Patching the grade changes only the grade and the version, with one UPDATE and one projection query
+     * (plus the change feed's lookup of the student's classrooms), without loading the student.
+     */
+    @Test
+    public void whenGradePatched_thenOtherColumnsKept() throws Exception {
+        Student student = saveStudent(null);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"grade\": \"B\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.grade").value("B"))
+                .andExpect(jsonPath("$.email").value("patch@school.ch"))
+                .andExpect(jsonPath("$.version").value(student.getVersion() + 1));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        StudentDetail patched = studentRepository.findDetailById(student.getId()).orElseThrow();
+        assertThat(patched.name()).isEqualTo(student.getName());
+        assertThat(patched.address()).isEqualTo("Main Street 1");
+    }
+
+
+    /**
+     * A member set to null clears the column; invalid values and read-only columns are rejected.
+     */
+    @Test
+    public void whenMemberNull_thenColumnCleared() throws Exception {
+        Student student = saveStudent(null);
+
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"email\": null, \"birthdate\": \"2001-02-03\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").doesNotExist())
+                .andExpect(jsonPath("$.birthdate").value("2001-02-03"));
+
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"phoneNumber\": \"123\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"id\": 1}"))
+                .andExpect(status().isBadRequest());
+        assertThat(studentRepository.findDetailById(student.getId()).orElseThrow().name()).isEqualTo(student.getName());
+    }
+
+
+    /**
+     * A stale version is rejected with 409 and an unknown student with 404.
+     */
+    @Test
+    public void whenVersionStale_thenConflict() throws Exception {
+        Student student = saveStudent(null);
+        String staleGrade = "{\"grade\": \"C\", \"version\": " + student.getVersion() + "}";
+
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content(staleGrade))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content(staleGrade))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/student/-1").contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"grade\": \"C\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+
+    /**
+     * The batch variant updates every student of the classroom and no other, with one UPDATE filtered by the
+     * classroom and one projection query (plus the change feed's lookup of each student's classrooms).
+     */
+    @Test
+    public void whenClassRoomPatched_thenAllItsStudentsUpdated() throws Exception {
+        ClassRoom classRoom = saveClassRoom();
+        Student first = saveStudent(classRoom);
+        Student second = saveStudent(classRoom);
+        Student other = saveStudent(null);
+        String grade = UUID.randomUUID().toString();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(patch("/api/student").param("classroomId", String.valueOf(classRoom.getId()))
+                        .contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"grade\": \"" + grade + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2 + 2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(studentRepository.findDetailById(first.getId()).orElseThrow().grade()).isEqualTo(grade);
+        assertThat(studentRepository.findDetailById(second.getId()).orElseThrow().grade()).isEqualTo(grade);
+        assertThat(studentRepository.findDetailById(other.getId()).orElseThrow().grade()).isEqualTo("A");
+        mockMvc.perform(patch("/api/student").param("classroomId", String.valueOf(classRoom.getId()))
+                        .contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"grade\": \"B\", \"version\": 0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * A PUT moves the student to the classroom it names, and a patch moves or removes it;
+     * a classroom that does not exist is rejected.
+     */
+    @Test
+    public void whenClassRoomReplaced_thenStudentMoved() throws Exception {
+        ClassRoom from = saveClassRoom();
+        ClassRoom to = saveClassRoom();
+        Student student = saveStudent(from);
+        ObjectNode body = objectMapper.valueToTree(studentRepository.findDetailById(student.getId()).orElseThrow());
+        ((ObjectNode) body.get("classRoom")).put("id", to.getId());
+
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.classRoom.id").value(to.getId()))
+                .andExpect(jsonPath("$.classRoom.name").value(to.getName()));
+        assertThat(studentRepository.findSearchRowsByClassRoomId(to.getId())).extracting(StudentSearchRow::id)
+                .containsExactly(student.getId());
+        assertThat(studentRepository.findSearchRowsByClassRoomId(from.getId())).isEmpty();
+
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"classRoom\": {\"id\": " + from.getId() + "}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.classRoom.id").value(from.getId()));
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"classRoom\": " + from.getId() + "}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"classRoom\": {\"id\": " + Long.MAX_VALUE + "}}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/student/" + student.getId()).contentType(StudentController.MERGE_PATCH_JSON)
+                        .content("{\"classRoom\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.classRoom").doesNotExist());
+
+        ObjectNode stale = objectMapper.valueToTree(studentRepository.findDetailById(student.getId()).orElseThrow());
+        stale.putObject("classRoom").put("id", Long.MAX_VALUE);
+        mockMvc.perform(put("/api/student/update").contentType(MediaType.APPLICATION_JSON).content(stale.toString()))
+                .andExpect(status().isBadRequest());
+        assertThat(studentRepository.findDetailById(student.getId()).orElseThrow().classRoom()).isNull();
+    }
+
+    private ClassRoom saveClassRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Patch " + UUID.randomUUID());
+        return classRoomRepository.save(classRoom);
+    }
+
+    private Student saveStudent(ClassRoom classRoom) {
+        Student student = new Student();
+        student.setName("Patch " + UUID.randomUUID());
+        student.setEmail("patch@school.ch");
+        student.setAddress("Main Street 1");
+        student.setGrade("A");
+        student.setClassRoom(classRoom);
+        return studentRepository.save(student);
+    }
+}
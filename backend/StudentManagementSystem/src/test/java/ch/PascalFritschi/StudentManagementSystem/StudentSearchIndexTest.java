@@ -0,0 +1,109 @@
+package ch.PascalFritschi.StudentManagementSystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchHit;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSearchRow;
+import ch.PascalFritschi.StudentManagementSystem.event.ChangeType;
+import ch.PascalFritschi.StudentManagementSystem.event.StudentChangedEvent;
+import ch.PascalFritschi.StudentManagementSystem.service.StudentSearchIndex;
+
+public class StudentSearchIndexTest {
+
+    private StudentSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findAllSearchRows()).thenReturn(List.of(
+                new StudentSearchRow(1, "John Doe", "john.doe@school.ch"),
+                new StudentSearchRow(2, "Johanna Müller", "jmueller@school.ch"),
+                new StudentSearchRow(3, "Peter Johnson", "peter@other.ch")));
+        index = new StudentSearchIndex(studentRepository);
+        index.rebuild();
+    }
+
+
+    /**
+     * A word prefix matches the beginning of any word; the exact word ranks first.
+     */
+    @Test
+    public void whenSearchingByPrefix_thenWordStartsMatchRankedByQuality() {
+        List<StudentSearchHit> hits = index.search("john", 10);
+
+        assertThat(hits).extracting(StudentSearchHit::id).containsExactly(1, 3, 2);
+    }
+
+
+    /**
+     * Infixes of three or more letters match inside words, and accents are ignored.
+     */
+    @Test
+    public void whenSearchingByInfixWithoutAccents_thenMatches() {
+        assertThat(index.search("ull", 10)).extracting(StudentSearchHit::id).containsExactly(2);
+        assertThat(index.search("müller", 10)).extracting(StudentSearchHit::id).containsExactly(2);
+    }
+
+
+    /**
+     * Every query word must match, either in the name or in the email.
+     */
+    @Test
+    public void whenSearchingSeveralWords_thenAllMustMatch() {
+        assertThat(index.search("peter other", 10)).extracting(StudentSearchHit::id).containsExactly(3);
+        assertThat(index.search("doe other", 10)).isEmpty();
+    }
+
+
+    /**
+     * A typo in a longer word still finds the student through trigram similarity.
+     */
+    @Test
+    public void whenSearchingWithTypo_thenFuzzyMatchIsReturned() {
+        assertThat(index.search("johnsen", 10)).extracting(StudentSearchHit::id).contains(3);
+    }
+
+
+    /**
+     * Change events keep the index in sync without a rebuild.
+     */
+    @Test
+    public void whenStudentsChange_thenIndexFollows() {
+        index.onStudentChanged(new StudentChangedEvent(ChangeType.UPDATED, 1, "Jane Doe", "jane.doe@school.ch"));
+        index.onStudentChanged(new StudentChangedEvent(ChangeType.DELETED, 3, null, null));
+        index.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, 4, "Anna Meier", null));
+
+        assertThat(index.search("john", 10)).extracting(StudentSearchHit::id).containsExactly(2);
+        assertThat(index.search("jane", 10)).extracting(StudentSearchHit::id).containsExactly(1);
+        assertThat(index.search("meier", 10)).extracting(StudentSearchHit::id).containsExactly(4);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+
+    /**
+     * Changes that commit while a rebuild loads the students survive the swap to the loaded state.
+     */
+    @Test
+    public void whenChangedDuringRebuild_thenChangesKept() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        StudentSearchIndex rebuilding = new StudentSearchIndex(studentRepository);
+        when(studentRepository.findAllSearchRows()).thenAnswer(invocation -> {
+            // The snapshot was read before these changes committed
+            rebuilding.onStudentChanged(new StudentChangedEvent(ChangeType.CREATED, 4, "Anna Johnsen", "anna@school.ch"));
+            rebuilding.onStudentChanged(new StudentChangedEvent(ChangeType.DELETED, 1, null, null));
+            return List.of(new StudentSearchRow(1, "John Doe", "john.doe@school.ch"));
+        });
+
+        rebuilding.rebuild();
+
+        assertThat(rebuilding.search("john", 10)).extracting(StudentSearchHit::id).containsExactly(4);
+    }
+}
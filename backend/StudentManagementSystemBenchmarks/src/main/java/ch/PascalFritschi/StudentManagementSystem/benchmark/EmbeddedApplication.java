@@ -0,0 +1,150 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ch.PascalFritschi.StudentManagementSystem.StudentManagementSystemApplication;
+import ch.PascalFritschi.StudentManagementSystem.Repository.ClassRoomRepository;
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.dto.EnrollmentPair;
+import ch.PascalFritschi.StudentManagementSystem.model.ClassRoom;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+import ch.PascalFritschi.StudentManagementSystem.service.EnrollmentService;
+
+
+/**
+ * The `EmbeddedApplication` class starts the application against a private in-memory H2 database
+ * and seeds it with a configurable number of students and classrooms.
+ */
+
+public final class EmbeddedApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+
+    /**
+     * Starts the application without a web server.
+     *
+     * @param databaseName The name of the in-memory database, unique per benchmark state.
+     * @return The running application.
+     */
+
+    public static EmbeddedApplication start(String databaseName) {
+        return start(databaseName, WebApplicationType.NONE);
+    }
+
+
+    /**
+     * Starts the application with an embedded web server on a random port.
+     *
+     * @param databaseName The name of the in-memory database.
+     * @param extraArgs    Additional command line arguments, e.g. `--spring.profiles.active=virtual`.
+     * @return The running application; see {@link #getPort()}.
+     */
+
+    public static EmbeddedApplication startServer(String databaseName, String... extraArgs) {
+        List<String> args = new ArrayList<>(Arrays.asList(extraArgs));
+        args.add("--server.port=0");
+        return start(databaseName, WebApplicationType.SERVLET, args.toArray(new String[0]));
+    }
+
+    private static EmbeddedApplication start(String databaseName, WebApplicationType webApplicationType, String... extraArgs) {
+        // Keyed by property name, so extra arguments replace the defaults instead of being joined to them
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String arg : List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web.*=WARN")) {
+            args.put(propertyName(arg), arg);
+        }
+        for (String arg : extraArgs) {
+            args.put(propertyName(arg), arg);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentManagementSystemApplication.class)
+                .web(webApplicationType)
+                .run(args.values().toArray(new String[0]));
+        return new EmbeddedApplication(context);
+    }
+
+    private static String propertyName(String arg) {
+        int separator = arg.indexOf('=');
+        return separator < 0 ? arg : arg.substring(0, separator);
+    }
+
+    public int getPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+
+    /**
+     * Inserts students named "Student 0", "Student 1", ...
+     *
+     * @param count The number of students to insert.
+     * @return The IDs of the inserted students, in insertion order.
+     */
+
+    public List<Integer> seedStudents(int count) {
+        StudentRepository studentRepository = getBean(StudentRepository.class);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student student = new Student();
+            student.setName("Student " + i);
+            student.setEmail("student" + i + "@example.com");
+            student.setGrade(String.valueOf(1 + i % 6));
+            students.add(student);
+        }
+
+        List<Integer> ids = new ArrayList<>(count);
+        for (Student student : studentRepository.saveAll(students)) {
+            ids.add(student.getId());
+        }
+        return ids;
+    }
+
+
+    /**
+     * Inserts a classroom and enrolls the given students into it.
+     *
+     * @param name       The unique name of the classroom.
+     * @param studentIds The students to enroll.
+     * @return The ID of the new classroom.
+     */
+
+    public Long seedClassRoom(String name, List<Integer> studentIds) {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName(name);
+        Long classroomId = getBean(ClassRoomRepository.class).save(classRoom).getId();
+
+        List<EnrollmentPair> pairs = new ArrayList<>(studentIds.size());
+        for (Integer studentId : studentIds) {
+            pairs.add(new EnrollmentPair(studentId, classroomId));
+        }
+        getBean(EnrollmentService.class).enroll(pairs);
+        return classroomId;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,133 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManagerFactory;
+
+
+/**
+ * Measures the response time of every read endpoint over HTTP, including JSON serialization,
+ * and reports the SQL statements issued per request as the `statements` counter.
+ * Run it on two commits to compare fetch strategies, e.g. before and after an entity graph change.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndpointBenchmark {
+
+    @Param({"40", "200"})
+    public int rosterSize;
+
+    private EmbeddedApplication application;
+    private HttpClient client;
+    private Statistics statistics;
+    private String baseUrl;
+    private Integer studentId;
+    private Long classroomId;
+
+    /**
+     * SQL statements and requests per iteration; `statements / requests` is the statement count per request.
+     */
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounter {
+
+        public long statements;
+
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            requests = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        application = EmbeddedApplication.startServer("endpoints" + rosterSize);
+        List<Integer> studentIds = application.seedStudents(rosterSize);
+        classroomId = application.seedClassRoom("Benchmark class", studentIds);
+        application.seedClassRoom("Second class", studentIds.subList(0, rosterSize / 2));
+        studentId = studentIds.get(0);
+
+        statistics = application.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + application.getPort();
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public String listStudents(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/student?size=" + rosterSize, counter);
+    }
+
+    @Benchmark
+    public String findStudent(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/student/search?studentId=" + studentId, counter);
+    }
+
+    @Benchmark
+    public String listClassRooms(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/classroom/getClassrooms", counter);
+    }
+
+    @Benchmark
+    public String listEnrollments(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/studentclassroom/getAll/" + classroomId, counter);
+    }
+
+    @Benchmark
+    public String listRoster(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/classroom/" + classroomId + "/students", counter);
+    }
+
+    @Benchmark
+    public String streamStudents(StatementCounter counter) throws IOException, InterruptedException {
+        return get("/api/student/stream", counter);
+    }
+
+    private String get(String path, StatementCounter counter) throws IOException, InterruptedException {
+        long before = statistics.getPrepareStatementCount();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.requests++;
+        return response.body();
+    }
+}
@@ -0,0 +1,74 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import ch.PascalFritschi.StudentManagementSystem.Controller.StudentClassroomController;
+import ch.PascalFritschi.StudentManagementSystem.model.StudentClassroom;
+
+
+/**
+ * Measures enrolling one student with `StudentClassroomController.addStudentToClassRoom`.
+ * Every invocation enrolls the next seeded student; when all students are enrolled,
+ * a fresh classroom is created so no invocation hits the duplicate path.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrollmentBenchmark {
+
+    @Param({"10000"})
+    public int students;
+
+    private EmbeddedApplication application;
+    private StudentClassroomController studentClassroomController;
+    private List<Integer> studentIds;
+    private Long classroomId;
+    private int nextStudent;
+    private int classroomCount;
+
+    @Setup
+    public void setUp() {
+        application = EmbeddedApplication.start("enrollment" + students);
+        studentIds = application.seedStudents(students);
+        studentClassroomController = application.getBean(StudentClassroomController.class);
+        nextClassRoom();
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> addStudentToClassRoom() throws Exception {
+        if (nextStudent == studentIds.size()) {
+            nextClassRoom();
+        }
+        Long studentId = studentIds.get(nextStudent++).longValue();
+        return studentClassroomController.addStudentToClassRoom(studentId, classroomId, new StudentClassroom());
+    }
+
+    private void nextClassRoom() {
+        classroomId = application.seedClassRoom("Benchmark class " + classroomCount++, List.of());
+        nextStudent = 0;
+    }
+}
@@ -0,0 +1,118 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * The `ExecutionModeLoadTest` class compares throughput and tail latency of the platform-thread and the
+ * virtual-thread (`virtual` profile) execution modes under the same closed-loop load.
+ * Each of `-Dclients` concurrent clients alternately reads a roster and a page of students for `-Dseconds` seconds.
+ * Any further `--` arguments are passed to both application instances, e.g. to point them at a real MySQL
+ * (`--spring.datasource.url=...`), where JDBC blocking dominates and the difference between the modes shows.
+ *
+ * Run with `java -cp target/benchmarks.jar ch.PascalFritschi.StudentManagementSystem.benchmark.ExecutionModeLoadTest`.
+ */
+
+public final class ExecutionModeLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("clients", 1000);
+    private static final int SECONDS = Integer.getInteger("seconds", 30);
+    private static final int ROSTER_SIZE = Integer.getInteger("rosterSize", 40);
+
+    private ExecutionModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Result platform = run("platform", args);
+        Result virtual = run("virtual", args);
+
+        System.out.printf("%-10s %12s %10s %10s %10s %10s%n", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %10d%n", result.mode(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis(), result.errors());
+        }
+    }
+
+    private static Result run(String mode, String[] extraArgs) throws Exception {
+        List<String> args = new ArrayList<>(Arrays.asList(extraArgs));
+        if (mode.equals("virtual")) {
+            args.add("--spring.profiles.active=virtual");
+        }
+
+        try (EmbeddedApplication application = EmbeddedApplication.startServer("load" + mode, args.toArray(new String[0]))) {
+            List<Integer> studentIds = application.seedStudents(ROSTER_SIZE * 10);
+            Long classroomId = application.seedClassRoom("Load test class", studentIds.subList(0, ROSTER_SIZE));
+
+            String baseUrl = "http://localhost:" + application.getPort();
+            List<URI> targets = List.of(
+                    URI.create(baseUrl + "/api/classroom/" + classroomId + "/students"),
+                    URI.create(baseUrl + "/api/student?size=50"));
+            return drive(mode, targets);
+        }
+    }
+
+    private static Result drive(String mode, List<URI> targets) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long[][] latencies = new long[CLIENTS][];
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    for (int i = clientIndex; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(targets.get(i % targets.size()))
+                                .timeout(Duration.ofSeconds(30)).GET().build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[clientIndex] = Arrays.copyOf(samples, count);
+                });
+            }
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return new Result(mode, 0, 0, 0, 0, errors.get());
+        }
+        return new Result(mode, all.length / (double) SECONDS, percentile(all, 0.50), percentile(all, 0.99),
+                all[all.length - 1] / 1_000_000.0, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, double maxMillis, long errors) {
+    }
+}
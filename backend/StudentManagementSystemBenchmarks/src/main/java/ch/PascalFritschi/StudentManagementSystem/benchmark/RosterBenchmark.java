@@ -0,0 +1,63 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import ch.PascalFritschi.StudentManagementSystem.Controller.ClassRoomController;
+
+
+/**
+ * Measures `ClassRoomController.getStudentsByClassRoomId` for rosters of different sizes.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RosterBenchmark {
+
+    @Param({"10", "40", "200"})
+    public int rosterSize;
+
+    private EmbeddedApplication application;
+    private ClassRoomController classRoomController;
+    private Long classroomId;
+
+    @Setup
+    public void setUp() {
+        application = EmbeddedApplication.start("roster" + rosterSize);
+        List<Integer> studentIds = application.seedStudents(rosterSize);
+        classroomId = application.seedClassRoom("Benchmark class", studentIds);
+        classRoomController = application.getBean(ClassRoomController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getStudentsByClassRoomId() {
+        // A request without conditional headers, so the roster is always queried
+        return classRoomController.getStudentsByClassRoomId(classroomId,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/classroom/" + classroomId + "/students")));
+    }
+}
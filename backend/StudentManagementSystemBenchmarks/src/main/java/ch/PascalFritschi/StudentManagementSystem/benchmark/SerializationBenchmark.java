@@ -0,0 +1,127 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomRef;
+import ch.PascalFritschi.StudentManagementSystem.dto.ClassRoomSummary;
+import ch.PascalFritschi.StudentManagementSystem.dto.StudentSummary;
+
+
+/**
+ * Measures the encode time of the student list and classroom list responses in every format the API can return,
+ * and reports the encoded size as the `bytes` counter (`bytes / documents` is the size of one response).
+ * `json-gzip` is JSON compressed at the default level, as Tomcat does for responses above the compression threshold.
+ * No database is involved; the payloads are built in memory.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"40", "1000"})
+    public int size;
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private boolean gzip;
+    private List<StudentSummary> students;
+    private List<ClassRoomSummary> classRooms;
+
+    /**
+     * Encoded bytes and documents per iteration.
+     */
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SizeCounter {
+
+        public long bytes;
+
+        public long documents;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            documents = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        gzip = format.equals("json-gzip");
+        objectMapper = new ObjectMapper(factory)
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        ClassRoomRef homeRoom = new ClassRoomRef(1L, "Home room");
+        students = new ArrayList<>(size);
+        classRooms = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(new StudentSummary(i + 1, "Student " + i, "student" + i + "@example.com",
+                    String.valueOf(1 + i % 6), homeRoom));
+            classRooms.add(new ClassRoomSummary(i + 1, "Class " + i, 20 + i % 10));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeStudents(SizeCounter counter) throws IOException {
+        return encode(students, counter);
+    }
+
+    @Benchmark
+    public byte[] serializeClassRooms(SizeCounter counter) throws IOException {
+        return encode(classRooms, counter);
+    }
+
+    private byte[] encode(Object payload, SizeCounter counter) throws IOException {
+        byte[] bytes;
+        if (gzip) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                objectMapper.writeValue(out, payload);
+            }
+            bytes = buffer.toByteArray();
+        } else {
+            bytes = objectMapper.writeValueAsBytes(payload);
+        }
+        counter.bytes += bytes.length;
+        counter.documents++;
+        return bytes;
+    }
+}
@@ -0,0 +1,57 @@
+package ch.PascalFritschi.StudentManagementSystem.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.PascalFritschi.StudentManagementSystem.Repository.StudentRepository;
+import ch.PascalFritschi.StudentManagementSystem.model.Student;
+
+
+/**
+ * Measures loading the whole student table with `StudentRepository.findAll()`.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentListBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int students;
+
+    private EmbeddedApplication application;
+    private StudentRepository studentRepository;
+
+    @Setup
+    public void setUp() {
+        application = EmbeddedApplication.start("studentList" + students);
+        application.seedStudents(students);
+        studentRepository = application.getBean(StudentRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public List<Student> findAll() {
+        return studentRepository.findAll();
+    }
+}